@@ -0,0 +1,117 @@
+package com.reactive.audit.benchmarks;
+
+import com.reactive.audit.DTO.res.BankAccountResponseDTO;
+import com.reactive.audit.config.AccountCacheProperties;
+import com.reactive.audit.config.AccountLaneProperties;
+import com.reactive.audit.config.ConsistencyProperties;
+import com.reactive.audit.config.FraudProperties;
+import com.reactive.audit.config.OptimisticLockProperties;
+import com.reactive.audit.config.RollingStatsProperties;
+import com.reactive.audit.config.TransactionBatchProperties;
+import com.reactive.audit.config.TransactionStreamProperties;
+import com.reactive.audit.repositories.TransactionReactiveRepository;
+import com.reactive.audit.services.ServiceMetrics;
+import com.reactive.audit.services.accounts.AccountCache;
+import com.reactive.audit.services.accounts.AccountLaneExecutor;
+import com.reactive.audit.services.accounts.BankAccountServiceImpl;
+import com.reactive.audit.services.accounts.OptimisticRetry;
+import com.reactive.audit.services.fraud.AmountSpikeRule;
+import com.reactive.audit.services.fraud.FraudRuleEngine;
+import com.reactive.audit.services.fraud.VelocityRule;
+import com.reactive.audit.services.fraud.WithdrawAfterDepositRule;
+import com.reactive.audit.services.transactions.RollingStatsEngine;
+import com.reactive.audit.services.transactions.TransactionBatchWriter;
+import com.reactive.audit.services.transactions.TransactionServiceImpl;
+import com.reactive.audit.services.transactions.TransactionStreamHub;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the service-level deposit/withdraw path (validation, atomic balance update,
+ * audit record creation and response building) against in-memory repositories. The
+ * {@code lanes} parameter measures the cost of ordering operations per account.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BankAccountServiceBenchmark {
+
+    @Param({"true", "false"})
+    public boolean lanes;
+
+    private BankAccountServiceImpl bankAccountService;
+    private UUID accountId;
+
+    @Setup
+    public void setUp() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        accountId = UUID.randomUUID();
+
+        TransactionReactiveRepository transactionRepository = InMemoryStubs.transactions();
+        TransactionStreamHub streamHub = new TransactionStreamHub(
+                (numberAccount, resumeToken) -> Flux.never(), new TransactionStreamProperties(), meterRegistry);
+        ServiceMetrics serviceMetrics = new ServiceMetrics(meterRegistry);
+        AccountLaneProperties laneProperties = new AccountLaneProperties();
+        laneProperties.setEnabled(lanes);
+        RollingStatsProperties statsProperties = new RollingStatsProperties();
+        RollingStatsEngine statsEngine = new RollingStatsEngine(statsProperties, meterRegistry);
+        TransactionServiceImpl transactionService = new TransactionServiceImpl(
+                transactionRepository,
+                new TransactionBatchWriter(transactionRepository, new TransactionBatchProperties(), meterRegistry),
+                streamHub,
+                serviceMetrics,
+                List.of(),
+                statsEngine,
+                statsProperties);
+
+        // One account hammered in a loop always breaks the velocity limit; FraudRuleBenchmark covers that rule.
+        FraudProperties fraudProperties = new FraudProperties();
+        fraudProperties.getRules().getDisabledRules().add("velocity");
+        FraudRuleEngine fraudRuleEngine = new FraudRuleEngine(
+                List.of(new VelocityRule(), new AmountSpikeRule(), new WithdrawAfterDepositRule()),
+                InMemoryStubs.fraudAlerts(), fraudProperties, meterRegistry);
+
+        bankAccountService = new BankAccountServiceImpl(
+                InMemoryStubs.accounts(InMemoryStubs.accountStore(accountId, 100_000_000_000L)),
+                streamHub,
+                transactionService,
+                new AccountCache(new AccountCacheProperties(), meterRegistry),
+                serviceMetrics,
+                new AccountLaneExecutor(laneProperties, meterRegistry),
+                new OptimisticRetry(new OptimisticLockProperties(), meterRegistry),
+                // Consistency modes need a real MongoDB; they are compared with the load test instead.
+                new ConsistencyProperties(),
+                null,
+                null,
+                fraudRuleEngine,
+                statsEngine);
+    }
+
+    @Benchmark
+    public BankAccountResponseDTO depositMoney() {
+        return bankAccountService.depositMoney(accountId, 1_000L).block();
+    }
+
+    @Benchmark
+    public BankAccountResponseDTO withdrawMoney() {
+        return bankAccountService.withdrawMoney(accountId, 1L).block();
+    }
+
+    @Benchmark
+    public BankAccountResponseDTO withdrawMoney_InvalidAmount() {
+        return bankAccountService.withdrawMoney(accountId, -100L).block();
+    }
+}
@@ -0,0 +1,61 @@
+package com.reactive.audit.benchmarks;
+
+import com.reactive.audit.config.FraudProperties;
+import com.reactive.audit.model.FraudAlert;
+import com.reactive.audit.services.fraud.AmountSpikeRule;
+import com.reactive.audit.services.fraud.FraudRuleEngine;
+import com.reactive.audit.services.fraud.VelocityRule;
+import com.reactive.audit.services.fraud.WithdrawAfterDepositRule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Screening one operation with every rule enabled, over a rotating set of accounts. The velocity
+ * window is short enough that no alert fires, so only the rule evaluation is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FraudRuleBenchmark {
+
+    private static final int ACCOUNTS = 1024;
+
+    private FraudRuleEngine engine;
+    private UUID[] accountIds;
+    private String[] numberAccounts;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        FraudProperties properties = new FraudProperties();
+        properties.getRules().setMaxOperations(63);
+        properties.getRules().setVelocityWindow(Duration.ofMillis(1));
+        engine = new FraudRuleEngine(
+                List.of(new VelocityRule(), new AmountSpikeRule(), new WithdrawAfterDepositRule()),
+                InMemoryStubs.fraudAlerts(), properties, new SimpleMeterRegistry());
+
+        accountIds = new UUID[ACCOUNTS];
+        numberAccounts = new String[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountIds[i] = UUID.randomUUID();
+            numberAccounts[i] = Long.toString(1_000_000_000L + i);
+        }
+    }
+
+    @Benchmark
+    public List<FraudAlert> deposit() {
+        int account = next++ & (ACCOUNTS - 1);
+        return engine.evaluate("DEPOSIT", accountIds[account], numberAccounts[account], 1_000L);
+    }
+}
@@ -0,0 +1,90 @@
+package com.reactive.audit.benchmarks;
+
+import com.reactive.audit.model.BalanceUpdate;
+import com.reactive.audit.model.BankAccount;
+import com.reactive.audit.repositories.BankAccountReactiveRepository;
+import com.reactive.audit.repositories.FraudAlertReactiveRepository;
+import com.reactive.audit.repositories.TransactionReactiveRepository;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+final class InMemoryStubs {
+
+    private InMemoryStubs() {
+    }
+
+    /**
+     * Account repository backed by a map; only the atomic balance operations used on the
+     * deposit/withdraw hot path are implemented.
+     */
+    static BankAccountReactiveRepository accounts(Map<UUID, BankAccount> store) {
+        return stub(BankAccountReactiveRepository.class, (method, args) -> switch (method) {
+            case "depositBalance" -> applyDelta(store, (UUID) args[0], (long) args[1], false);
+            case "withdrawBalance" -> applyDelta(store, (UUID) args[0], -(long) args[1], true);
+            case "existsById" -> Mono.just(store.containsKey((UUID) args[0]));
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    /**
+     * Transaction repository that acknowledges writes without keeping them, so the benchmark
+     * heap does not grow with the number of invocations.
+     */
+    static TransactionReactiveRepository transactions() {
+        return stub(TransactionReactiveRepository.class, (method, args) -> switch (method) {
+            case "save" -> Mono.just(args[0]);
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    static FraudAlertReactiveRepository fraudAlerts() {
+        return stub(FraudAlertReactiveRepository.class, (method, args) -> switch (method) {
+            case "save" -> Mono.just(args[0]);
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    static Map<UUID, BankAccount> accountStore(UUID accountId, long balance) {
+        Map<UUID, BankAccount> store = new ConcurrentHashMap<>();
+        store.put(accountId, new BankAccount(accountId, "1234567890", balance, "SAVINGS"));
+        return store;
+    }
+
+    private static Mono<BalanceUpdate> applyDelta(Map<UUID, BankAccount> store, UUID accountId, long delta, boolean guarded) {
+        return Mono.fromSupplier(() -> {
+            BalanceUpdate[] result = new BalanceUpdate[1];
+            store.computeIfPresent(accountId, (id, account) -> {
+                long previousBalance = account.getBalance();
+                if (guarded && previousBalance + delta < 0) {
+                    return account;
+                }
+                BankAccount updated = new BankAccount(id, account.getNumberAccount(), previousBalance + delta, account.getType());
+                result[0] = new BalanceUpdate(updated, previousBalance, updated.getBalance());
+                return updated;
+            });
+            return result[0];
+        });
+    }
+
+    private interface Handler {
+        Object handle(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> type.getSimpleName() + "Stub";
+                };
+            }
+            return handler.handle(method.getName(), args);
+        });
+    }
+}
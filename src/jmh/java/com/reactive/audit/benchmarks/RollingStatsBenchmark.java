@@ -0,0 +1,48 @@
+package com.reactive.audit.benchmarks;
+
+import com.reactive.audit.DTO.res.RollingStatsDTO;
+import com.reactive.audit.config.RollingStatsProperties;
+import com.reactive.audit.services.transactions.RollingStatsEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recording into the rolling statistics from several threads at once, and reading a snapshot.
+ * {@code record} is expected to report a {@code gc.alloc.rate.norm} of zero.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RollingStatsBenchmark {
+
+    private RollingStatsEngine engine;
+    private UUID accountId;
+
+    @Setup
+    public void setUp() {
+        engine = new RollingStatsEngine(new RollingStatsProperties(), new SimpleMeterRegistry());
+        accountId = UUID.randomUUID();
+        engine.record(accountId, "DEPOSIT", 1_000L);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void record() {
+        engine.record(accountId, "DEPOSIT", 5_000L);
+    }
+
+    @Benchmark
+    public RollingStatsDTO snapshot() {
+        return engine.snapshot(accountId);
+    }
+}
@@ -0,0 +1,68 @@
+package com.reactive.audit.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.reactive.audit.DTO.res.BankAccountResponseDTO;
+import com.reactive.audit.DTO.res.TransactionResponseDTO;
+import com.reactive.audit.model.BankAccount;
+import com.reactive.audit.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response DTO construction and Jackson serialization of the payloads returned by the API.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private BankAccount account;
+    private Transaction transaction;
+    private BankAccountResponseDTO accountResponse;
+    private TransactionResponseDTO transactionResponse;
+
+    @Setup
+    public void setUp() {
+        // Same module discovery as the Jackson auto-configuration (JavaTimeModule for LocalDateTime)
+        objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+        UUID accountId = UUID.randomUUID();
+        account = new BankAccount(accountId, "1234567890", 150_000L, "SAVINGS");
+        transaction = new Transaction(UUID.randomUUID(), accountId, "1234567890", "DEPOSIT",
+                50_000L, 100_000L, 150_000L, LocalDateTime.of(2025, 1, 16, 10, 0, 0));
+        accountResponse = BankAccountResponseDTO.buildSuccess("Account created successfully.", account);
+        transactionResponse = TransactionResponseDTO.buildSuccess("Transaction created successfully.", transaction);
+    }
+
+    @Benchmark
+    public BankAccountResponseDTO buildSuccess() {
+        return BankAccountResponseDTO.buildSuccess("Account created successfully.", account);
+    }
+
+    @Benchmark
+    public byte[] serializeTransaction() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(transaction);
+    }
+
+    @Benchmark
+    public byte[] serializeBankAccountResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(accountResponse);
+    }
+
+    @Benchmark
+    public byte[] serializeTransactionResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(transactionResponse);
+    }
+}
@@ -0,0 +1,78 @@
+package com.reactive.audit.loadtest;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line options, given as {@code --name=value}.
+ */
+record LoadTestOptions(String baseUrl,
+                       boolean startApp,
+                       String mongoUri,
+                       String mongoDb,
+                       boolean openLoop,
+                       int rate,
+                       int concurrency,
+                       int maxInFlight,
+                       Duration warmup,
+                       Duration duration,
+                       int accounts,
+                       int sseSubscribers,
+                       String consistency,
+                       boolean rateLimit,
+                       String output) {
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        return new LoadTestOptions(
+                values.getOrDefault("base-url", "http://localhost:8085"),
+                Boolean.parseBoolean(values.getOrDefault("start-app", "false")),
+                values.get("mongo-uri"),
+                values.getOrDefault("mongo-db", "audit-loadtest"),
+                !"closed".equals(values.getOrDefault("mode", "open")),
+                Integer.parseInt(values.getOrDefault("rate", "500")),
+                Integer.parseInt(values.getOrDefault("concurrency", "32")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "2048")),
+                Duration.parse("PT" + values.getOrDefault("warmup", "10s")),
+                Duration.parse("PT" + values.getOrDefault("duration", "60s")),
+                Integer.parseInt(values.getOrDefault("accounts", "100")),
+                Integer.parseInt(values.getOrDefault("sse-subscribers", "10")),
+                values.getOrDefault("consistency", "NONE"),
+                Boolean.parseBoolean(values.getOrDefault("rate-limit", "false")),
+                values.getOrDefault("output", "build/loadtest/results.json"));
+    }
+
+    /** The modes to run: all three for {@code --consistency=ALL}, otherwise the one given. */
+    List<String> consistencyModes() {
+        return "ALL".equalsIgnoreCase(consistency) ? List.of("NONE", "TRANSACTION", "OUTBOX") : List.of(consistency);
+    }
+
+    LoadTestOptions withConsistency(String mode) {
+        return new LoadTestOptions(baseUrl, startApp, mongoUri, mongoDb, openLoop, rate, concurrency, maxInFlight,
+                warmup, duration, accounts, sseSubscribers, mode, rateLimit, output);
+    }
+
+    Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("mode", openLoop ? "open" : "closed");
+        description.put("rate", openLoop ? rate : null);
+        description.put("concurrency", openLoop ? null : concurrency);
+        description.put("warmupSeconds", warmup.toSeconds());
+        description.put("durationSeconds", duration.toSeconds());
+        description.put("accounts", accounts);
+        description.put("sseSubscribers", sseSubscribers);
+        description.put("consistency", startApp ? consistency : null);
+        description.put("rateLimit", startApp ? rateLimit : null);
+        return description;
+    }
+}
@@ -0,0 +1,246 @@
+package com.reactive.audit.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reactive.audit.BankAuditApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives deposit/withdraw requests and the SSE streams of a running instance and writes
+ * latency percentiles and throughput to a JSON file.
+ * <p>
+ * In open-loop mode requests are issued at a constant arrival rate and latency is measured
+ * from the instant each request was scheduled to start, not from when it was actually sent,
+ * so a stalled server shows up in the tail instead of silently lowering the offered load
+ * (coordinated omission). Closed-loop mode keeps a fixed number of requests in flight.
+ */
+public final class LoadTestRunner {
+
+    private static final ParameterizedTypeReference<ServerSentEvent<JsonNode>> SSE_TYPE = new ParameterizedTypeReference<>() {
+    };
+
+    private final LoadTestOptions options;
+    private final WebClient webClient;
+    private final List<Account> accounts = new ArrayList<>();
+
+    private LoadTestRunner(LoadTestOptions options, String baseUrl) {
+        this.options = options;
+        ConnectionProvider connections = ConnectionProvider.builder("loadtest")
+                .maxConnections(options.maxInFlight())
+                .pendingAcquireMaxCount(-1)
+                .build();
+        this.webClient = WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .build();
+    }
+
+    // With --consistency=ALL the same load runs once per mode, each against a fresh in-process
+    // application, and the results are written side by side under the mode names.
+    public static void main(String[] args) throws IOException {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        List<String> modes = options.consistencyModes();
+        if (modes.size() > 1 && !options.startApp()) {
+            throw new IllegalArgumentException("--consistency=ALL requires --start-app=true");
+        }
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        for (String mode : modes) {
+            results.put(mode, runOnce(options.withConsistency(mode)));
+        }
+        writeResults(options.output(), modes.size() == 1 ? results.get(modes.get(0)) : results);
+    }
+
+    private static Map<String, Object> runOnce(LoadTestOptions options) {
+        ConfigurableApplicationContext application = null;
+        String baseUrl = options.baseUrl();
+        if (options.startApp()) {
+            if (options.mongoUri() == null) {
+                throw new IllegalArgumentException("--start-app requires --mongo-uri (a replica set, change streams need one)");
+            }
+            application = SpringApplication.run(BankAuditApplication.class,
+                    "--server.port=0",
+                    "--spring.data.mongodb.uri=" + options.mongoUri(),
+                    "--spring.data.mongodb.database=" + options.mongoDb(),
+                    "--audit.consistency.mode=" + options.consistency(),
+                    "--audit.rate-limit.enabled=" + options.rateLimit());
+            baseUrl = "http://localhost:" + application.getEnvironment().getProperty("local.server.port");
+        }
+
+        try {
+            return new LoadTestRunner(options, baseUrl).run();
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+        }
+    }
+
+    private Map<String, Object> run() {
+        createAccounts();
+
+        Map<String, OperationStats> stats = new LinkedHashMap<>();
+        stats.put("deposit", new OperationStats());
+        stats.put("withdraw", new OperationStats());
+        OperationStats sseDelivery = new OperationStats();
+        AtomicLong balanceEvents = new AtomicLong();
+
+        Disposable streams = openStreams(sseDelivery, balanceEvents);
+        try {
+            runPhase(options.warmup(), null);
+            sseDelivery.reset();
+            balanceEvents.set(0);
+
+            long started = System.nanoTime();
+            runPhase(options.duration(), stats);
+            double seconds = (System.nanoTime() - started) / (double) TimeUnit.SECONDS.toNanos(1);
+
+            return results(stats, sseDelivery, balanceEvents.get(), seconds);
+        } finally {
+            streams.dispose();
+        }
+    }
+
+    private void createAccounts() {
+        long base = ThreadLocalRandom.current().nextLong(1_000_000_000L);
+        accounts.addAll(Flux.range(0, options.accounts())
+                .flatMap(i -> webClient.post()
+                        .uri("/api/accounts/create")
+                        .bodyValue(Map.of(
+                                "numberAccount", String.format("LT%010d", (base + i) % 10_000_000_000L),
+                                "balance", 100_000_000_000L,
+                                "type", "SAVINGS"))
+                        .retrieve()
+                        .bodyToMono(JsonNode.class)
+                        .map(response -> new Account(
+                                UUID.fromString(response.at("/data/id").asText()),
+                                response.at("/data/numberAccount").asText())), 16)
+                .collectList()
+                .block());
+    }
+
+    private Disposable openStreams(OperationStats sseDelivery, AtomicLong balanceEvents) {
+        Disposable.Composite streams = Disposables.composite();
+        for (int i = 0; i < options.sseSubscribers(); i++) {
+            Account account = accounts.get(i % accounts.size());
+            if (i % 2 == 0) {
+                // Transaction events carry their creation time, which gives the end-to-end delivery delay
+                streams.add(webClient.get()
+                        .uri("/api/transactions/stream?numberAccount={numberAccount}", account.numberAccount())
+                        .retrieve()
+                        .bodyToFlux(SSE_TYPE)
+                        .filter(event -> event.data() != null)
+                        .subscribe(event -> sseDelivery.record(deliveryDelayNanos(event.data()), true)));
+            } else {
+                streams.add(webClient.get()
+                        .uri("/api/accounts/balance-stream?numberAccount={numberAccount}", account.numberAccount())
+                        .retrieve()
+                        .bodyToFlux(SSE_TYPE)
+                        .subscribe(event -> balanceEvents.incrementAndGet()));
+            }
+        }
+        return streams;
+    }
+
+    private void runPhase(Duration length, Map<String, OperationStats> stats) {
+        if (length.isZero()) {
+            return;
+        }
+
+        if (options.openLoop()) {
+            long periodNanos = TimeUnit.SECONDS.toNanos(1) / options.rate();
+            long total = length.toNanos() / periodNanos;
+            long start = System.nanoTime();
+
+            Flux.interval(Duration.ofNanos(periodNanos))
+                    .onBackpressureBuffer()
+                    .take(total)
+                    .flatMap(i -> send(i, start + i * periodNanos, stats), options.maxInFlight())
+                    .blockLast();
+        } else {
+            long deadline = System.nanoTime() + length.toNanos();
+            AtomicLong sequence = new AtomicLong();
+
+            Flux.range(0, options.concurrency())
+                    .flatMap(worker -> Mono.defer(() -> send(sequence.getAndIncrement(), System.nanoTime(), stats))
+                            .repeat(() -> System.nanoTime() < deadline), options.concurrency())
+                    .blockLast();
+        }
+    }
+
+    private Mono<Void> send(long sequence, long intendedStart, Map<String, OperationStats> stats) {
+        Account account = accounts.get(ThreadLocalRandom.current().nextInt(accounts.size()));
+        String operation = sequence % 2 == 0 ? "deposit" : "withdraw";
+
+        return webClient.post()
+                .uri("/api/accounts/{operation}/{accountId}?amount={amount}", operation, account.id(), 100L)
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().is2xxSuccessful()))
+                .onErrorReturn(false)
+                .doOnNext(success -> {
+                    if (stats != null) {
+                        stats.get(operation).record(System.nanoTime() - intendedStart, success);
+                    }
+                })
+                .then();
+    }
+
+    private static long deliveryDelayNanos(JsonNode transaction) {
+        LocalDateTime createdAt = LocalDateTime.parse(transaction.get("transactionDate").asText());
+        long createdAtMillis = createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - createdAtMillis);
+    }
+
+    private Map<String, Object> results(Map<String, OperationStats> stats, OperationStats sseDelivery,
+                                        long balanceEvents, double seconds) {
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("options", options.describe());
+        results.put("measuredSeconds", Math.round(seconds * 1000) / 1000.0);
+
+        Map<String, Object> operations = new LinkedHashMap<>();
+        stats.forEach((operation, operationStats) -> operations.put(operation, operationStats.summarize(seconds)));
+        results.put("operations", operations);
+
+        Map<String, Object> sse = new LinkedHashMap<>();
+        sse.put("transactionDelivery", sseDelivery.summarize(seconds));
+        sse.put("balanceEvents", balanceEvents);
+        results.put("sse", sse);
+        return results;
+    }
+
+    private static void writeResults(String path, Object results) throws IOException {
+        File output = new File(path);
+        if (output.getParentFile() != null) {
+            output.getParentFile().mkdirs();
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(output, results);
+        System.out.println("Load test results written to " + output.getAbsolutePath());
+    }
+
+    private record Account(UUID id, String numberAccount) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.reactive.audit.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency histogram and counters for one operation. Latencies are recorded in nanoseconds
+ * and reported in milliseconds.
+ */
+final class OperationStats {
+
+    private final Histogram histogram = new ConcurrentHistogram(3);
+    private final AtomicLong errors = new AtomicLong();
+
+    void record(long latencyNanos, boolean success) {
+        histogram.recordValue(Math.max(0, latencyNanos));
+        if (!success) {
+            errors.incrementAndGet();
+        }
+    }
+
+    void reset() {
+        histogram.reset();
+        errors.set(0);
+    }
+
+    Map<String, Object> summarize(double seconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", histogram.getTotalCount());
+        summary.put("errors", errors.get());
+        summary.put("throughputPerSecond", round(histogram.getTotalCount() / seconds));
+        summary.put("p50Ms", millis(histogram.getValueAtPercentile(50)));
+        summary.put("p99Ms", millis(histogram.getValueAtPercentile(99)));
+        summary.put("p999Ms", millis(histogram.getValueAtPercentile(99.9)));
+        summary.put("maxMs", millis(histogram.getMaxValue()));
+        return summary;
+    }
+
+    private static double millis(long nanos) {
+        return round(nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
@@ -13,7 +13,7 @@ public class BankAccountRequestDTO {
     private String numberAccount;
 
     @PositiveOrZero(message = "The balance must be zero or positive.")
-    private double balance;
+    private long balance;
 
     @NotBlank(message = "The account type cannot be empty.")
     @Pattern(regexp = "SAVINGS|CHECKING", message = "The account type must be SAVINGS or CHECKING.")
@@ -0,0 +1,31 @@
+package com.reactive.audit.DTO.req;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Thresholds of the fraud rules. The initial values come from {@code audit.fraud.rules.*} and can
+ * be replaced at runtime through {@code PUT /api/fraud/rules}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FraudRulesDTO {
+    private boolean enabled = true;
+    // Rule names to skip, e.g. "velocity".
+    private Set<String> disabledRules = new HashSet<>();
+    // velocity: more than maxOperations deposits/withdrawals of one numberAccount within velocityWindow
+    private int maxOperations = 10;
+    private Duration velocityWindow = Duration.ofMinutes(1);
+    // amount_spike: amount above amountMultiplier times the account's rolling mean, once it has minSamples operations
+    private double amountMultiplier = 5.0;
+    private int minSamples = 5;
+    // withdraw_after_deposit: withdrawing at least withdrawRatio of a deposit made within withdrawWindow
+    private Duration withdrawWindow = Duration.ofMinutes(2);
+    private double withdrawRatio = 0.9;
+}
@@ -22,14 +22,14 @@ public class TransactionRequestDTO {
     private String type;
 
     @Positive(message = "Amount must be greater than 0.")
-    private double amount;
+    private long amount;
 
     @NotNull(message = "Previous balance cannot be null.")
     @PositiveOrZero(message = "Previous balance must be zero or positive.")
-    private double previousBalance;
+    private long previousBalance;
 
     @NotNull(message = "Current balance cannot be null.")
     @PositiveOrZero(message = "Current balance must be zero or positive.")
-    private double currentBalance;
+    private long currentBalance;
 
 }
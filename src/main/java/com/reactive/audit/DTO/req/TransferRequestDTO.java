@@ -0,0 +1,19 @@
+package com.reactive.audit.DTO.req;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferRequestDTO {
+
+    private UUID sourceAccountId;
+    private UUID targetAccountId;
+    private long amount;
+}
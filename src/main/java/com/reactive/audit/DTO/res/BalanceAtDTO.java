@@ -0,0 +1,17 @@
+package com.reactive.audit.DTO.res;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BalanceAtDTO {
+    private UUID accountId;
+    private LocalDateTime timestamp;
+    private long balance;
+}
@@ -0,0 +1,20 @@
+package com.reactive.audit.DTO.res;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Balances of the accounts of one type (SAVINGS, CHECKING, ...), in minor units.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BalanceDistributionDTO {
+    private String type;
+    private long accounts;
+    private long totalBalance;
+    private double averageBalance;
+    private long minBalance;
+    private long maxBalance;
+}
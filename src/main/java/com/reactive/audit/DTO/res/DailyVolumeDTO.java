@@ -0,0 +1,20 @@
+package com.reactive.audit.DTO.res;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Transactions of one calendar day ({@code yyyy-MM-dd}, JVM time zone). {@code credits} and
+ * {@code debits} split {@code total} by the direction the money moved.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DailyVolumeDTO {
+    private String day;
+    private long count;
+    private long total;
+    private long credits;
+    private long debits;
+}
@@ -0,0 +1,26 @@
+package com.reactive.audit.DTO.res;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Statistics over the last {@code windowSeconds}. Deposits count every credit (deposits, incoming
+ * transfers, reversals) and withdrawals every debit; amounts are in minor units. {@code accountId}
+ * is null for the global statistics.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RollingStatsDTO {
+    private UUID accountId;
+    private long windowSeconds;
+    private long deposits;
+    private long withdrawals;
+    private double depositsPerSecond;
+    private double withdrawalsPerSecond;
+    private double averageAmount;
+    private long maxAmount;
+}
@@ -0,0 +1,21 @@
+package com.reactive.audit.DTO.res;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionHistoryDTO {
+    private UUID id;
+    private String type;
+    private long amount;
+    private long previousBalance;
+    private long currentBalance;
+    private LocalDateTime transactionDate;
+    private String cursor;
+}
@@ -0,0 +1,23 @@
+package com.reactive.audit.DTO.res;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferResultDTO {
+    private long index;
+    private UUID sourceAccountId;
+    private UUID targetAccountId;
+    private long amount;
+    private boolean success;
+    private String message;
+    private Long sourceBalance;
+    private Long targetBalance;
+}
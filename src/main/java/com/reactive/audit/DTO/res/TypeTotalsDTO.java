@@ -0,0 +1,18 @@
+package com.reactive.audit.DTO.res;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Count, sum and average amount of the transactions of one type, in minor units.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TypeTotalsDTO {
+    private String type;
+    private long count;
+    private long total;
+    private double average;
+}
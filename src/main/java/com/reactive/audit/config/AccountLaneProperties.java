@@ -0,0 +1,15 @@
+package com.reactive.audit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "audit.lanes")
+public class AccountLaneProperties {
+
+    private boolean enabled = true;
+    private int count = 2 * Runtime.getRuntime().availableProcessors();
+    private int queueCapacity = 1024;
+}
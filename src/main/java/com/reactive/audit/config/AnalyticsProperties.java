@@ -0,0 +1,16 @@
+package com.reactive.audit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "audit.analytics")
+public class AnalyticsProperties {
+
+    private Duration cacheTtl = Duration.ofSeconds(5);
+    private long cacheMaximumSize = 256;
+}
@@ -0,0 +1,46 @@
+package com.reactive.audit.config;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Dedicated schedulers, sized by {@code audit.schedulers.*}, so long-running work does not run on
+ * the Netty event loops or the Mongo driver threads that serve requests.
+ * <ul>
+ *     <li>{@link #cpu()}: a parallel scheduler for CPU-bound batch work (reconciliation).</li>
+ *     <li>{@link #blocking()}: a bounded elastic scheduler for calls that must block. Its thread and
+ *     queue caps keep a slow dependency from growing threads or tasks without limit.</li>
+ * </ul>
+ */
+@Component
+public class AuditSchedulers {
+
+    private final Scheduler cpu;
+    private final Scheduler blocking;
+
+    public AuditSchedulers(SchedulerProperties properties) {
+        this.cpu = Schedulers.newParallel("audit-cpu", properties.getCpuParallelism(), true);
+        this.blocking = Schedulers.newBoundedElastic(
+                properties.getBlockingThreadCap(),
+                properties.getBlockingQueueCap(),
+                "audit-blocking",
+                (int) properties.getBlockingThreadTtl().toSeconds(),
+                true);
+    }
+
+    public Scheduler cpu() {
+        return cpu;
+    }
+
+    public Scheduler blocking() {
+        return blocking;
+    }
+
+    @PreDestroy
+    public void dispose() {
+        cpu.dispose();
+        blocking.dispose();
+    }
+}
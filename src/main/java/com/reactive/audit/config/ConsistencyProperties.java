@@ -0,0 +1,25 @@
+package com.reactive.audit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "audit.consistency")
+public class ConsistencyProperties {
+
+    /**
+     * NONE writes the balance and then the audit record; TRANSACTION wraps both in one Mongo
+     * transaction; OUTBOX appends the audit entry to the account document and drains it later.
+     */
+    public enum Mode {
+        NONE, TRANSACTION, OUTBOX
+    }
+
+    private Mode mode = Mode.NONE;
+    private int transactionRetries = 3;
+    private Duration outboxSweepInterval = Duration.ofSeconds(1);
+}
@@ -0,0 +1,19 @@
+package com.reactive.audit.config;
+
+import com.reactive.audit.DTO.req.FraudRulesDTO;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "audit.fraud")
+public class FraudProperties {
+
+    private FraudRulesDTO rules = new FraudRulesDTO();
+    private long maximumAccounts = 100_000;
+    private Duration idleExpiry = Duration.ofHours(1);
+    private int subscriberBufferSize = 256;
+}
@@ -0,0 +1,114 @@
+package com.reactive.audit.config;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.result.UpdateResult;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.reactive.audit.model.BalanceSnapshot;
+import com.reactive.audit.model.BankAccount;
+import com.reactive.audit.model.Money;
+import com.reactive.audit.model.ReconciliationCheckpoint;
+import com.reactive.audit.model.Transaction;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Brings documents written by older versions up to the current schema:
+ * <ul>
+ *     <li>money stored as major-unit doubles is rewritten as int64 minor units, with a server-side
+ *     pipeline update filtered on {@code $type: 'double'};</li>
+ *     <li>accounts without a {@code version} get version 0, otherwise a versioned save would treat them
+ *     as new and try to insert them again.</li>
+ * </ul>
+ * Every step only matches documents still in the old shape, so the migration is idempotent and can be
+ * re-run after a partial failure. It runs on startup unless {@code audit.migration.on-startup=false};
+ * with it disabled, startup fails while any money field is still a double, since the balance updates
+ * refuse such accounts.
+ */
+@Slf4j
+@Component
+public class LegacyDataMigration implements SmartInitializingSingleton {
+
+    private static final Map<Class<?>, List<String>> MONEY_FIELDS = Map.of(
+            BankAccount.class, List.of("balance"),
+            Transaction.class, List.of("amount", "previousBalance", "currentBalance"),
+            BalanceSnapshot.class, List.of("openingBalance", "closingBalance", "netChange"),
+            ReconciliationCheckpoint.class, List.of("lastBalance"));
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final boolean migrateOnStartup;
+    private final Duration timeout;
+
+    public LegacyDataMigration(ReactiveMongoTemplate reactiveMongoTemplate,
+                               @Value("${audit.migration.on-startup:true}") boolean migrateOnStartup,
+                               @Value("${audit.migration.timeout:10m}") Duration timeout) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.migrateOnStartup = migrateOnStartup;
+        this.timeout = timeout;
+    }
+
+    // Runs before the web server starts, so no $inc can mix minor units into a legacy double balance.
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (migrateOnStartup) {
+            Long migrated = migrate().block(timeout);
+            log.info("Legacy data migration updated {} documents", migrated);
+            return;
+        }
+        List<String> legacy = legacyMoneyFields().collectList().block(timeout);
+        if (legacy != null && !legacy.isEmpty()) {
+            throw new IllegalStateException("Money fields still hold legacy doubles " + legacy
+                    + "; run with audit.migration.on-startup=true to convert them.");
+        }
+    }
+
+    /** The {@code collection.field} money fields that still hold a legacy double somewhere. */
+    public Flux<String> legacyMoneyFields() {
+        return Flux.fromIterable(MONEY_FIELDS.entrySet())
+                .concatMap(entry -> Flux.fromIterable(entry.getValue())
+                        .concatMap(field -> {
+                            String collectionName = reactiveMongoTemplate.getCollectionName(entry.getKey());
+                            return reactiveMongoTemplate.getCollection(collectionName)
+                                    .flatMap(collection -> Mono.from(collection.find(Filters.type(field, "double")).first()))
+                                    .map(document -> collectionName + "." + field);
+                        }));
+    }
+
+    public Mono<Long> migrate() {
+        Flux<Long> money = Flux.fromIterable(MONEY_FIELDS.entrySet())
+                .concatMap(entry -> Flux.fromIterable(entry.getValue())
+                        .concatMap(field -> migrateMoney(reactiveMongoTemplate.getCollectionName(entry.getKey()), field)));
+        Mono<Long> versions = updateMany(reactiveMongoTemplate.getCollectionName(BankAccount.class),
+                collection -> collection.updateMany(Filters.exists("version", false), Updates.set("version", 0L)));
+
+        return money.concatWith(versions).reduce(0L, Long::sum);
+    }
+
+    private Mono<Long> migrateMoney(String collectionName, String field) {
+        Document toMinorUnits = new Document("$toLong", new Document("$round", List.of(
+                new Document("$multiply", List.of("$" + field, Money.MINOR_UNITS_PER_MAJOR)), 0)));
+
+        return updateMany(collectionName, collection -> collection.updateMany(
+                Filters.type(field, "double"),
+                List.of(new Document("$set", new Document(field, toMinorUnits)))));
+    }
+
+    private Mono<Long> updateMany(String collectionName,
+                                  Function<MongoCollection<Document>, Publisher<UpdateResult>> update) {
+        return reactiveMongoTemplate.getCollection(collectionName)
+                .flatMap(collection -> Mono.from(update.apply(collection)))
+                .map(UpdateResult::getModifiedCount);
+    }
+}
@@ -0,0 +1,46 @@
+package com.reactive.audit.config;
+
+import com.reactive.audit.model.BalanceSnapshot;
+import com.reactive.audit.model.BankAccount;
+import com.reactive.audit.model.IdempotencyRecord;
+import com.reactive.audit.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Creates the indexes declared on the entities once the application is ready. Creation runs
+ * asynchronously, so startup and request handling do not wait for index builds.
+ */
+@Slf4j
+@Component
+@AllArgsConstructor
+public class MongoIndexInitializer {
+
+    private static final List<Class<?>> INDEXED_ENTITIES = List.of(BankAccount.class, Transaction.class, BalanceSnapshot.class, IdempotencyRecord.class);
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        ensureIndexes().subscribe(
+                name -> log.info("Index {} is in place", name),
+                error -> log.error("Index creation failed", error));
+    }
+
+    public Flux<String> ensureIndexes() {
+        IndexResolver resolver = IndexResolver.create(reactiveMongoTemplate.getConverter().getMappingContext());
+        return Flux.fromIterable(INDEXED_ENTITIES)
+                .concatMap(type -> Flux.fromIterable(resolver.resolveIndexFor(type))
+                        .concatMap(index -> reactiveMongoTemplate.indexOps(type).ensureIndex(index)));
+    }
+}
@@ -0,0 +1,33 @@
+package com.reactive.audit.config;
+
+import com.reactive.audit.model.Money;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.util.List;
+
+@Configuration
+public class MongoMoneyConfig {
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(List.of(new LegacyMoneyReadingConverter()));
+    }
+
+    /**
+     * Money used to be stored as a major-unit double. Until {@link LegacyDataMigration} has rewritten a
+     * document, its amounts are read as minor units here. Only money fields are {@code long} and
+     * stored as doubles, so no other property goes through this converter.
+     */
+    @ReadingConverter
+    static class LegacyMoneyReadingConverter implements Converter<Double, Long> {
+
+        @Override
+        public Long convert(Double source) {
+            return Money.fromMajorUnits(source);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.reactive.audit.config;
+
+import com.reactive.audit.filters.RateLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Registers the rate limiter ahead of the other web filters, so rejected requests cost as little as possible.
+ */
+@Configuration
+public class RateLimitConfig {
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public RateLimitFilter rateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        return new RateLimitFilter(properties, meterRegistry);
+    }
+}
@@ -0,0 +1,27 @@
+package com.reactive.audit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "audit.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    // Header identifying the client; the remote address is used when it is missing.
+    private String clientHeader = "X-Client-Id";
+    private long clientCapacity = 50;
+    private double clientRefillPerSecond = 25;
+    private long accountCapacity = 20;
+    private double accountRefillPerSecond = 10;
+    private int maxConcurrent = 256;
+    private int maxQueued = 1024;
+    // Requests still queued after this long are rejected with 429.
+    private Duration queueBudget = Duration.ofMillis(100);
+    private long maximumKeys = 100_000;
+    private Duration idleExpiry = Duration.ofMinutes(10);
+}
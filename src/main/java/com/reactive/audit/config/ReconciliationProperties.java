@@ -0,0 +1,17 @@
+package com.reactive.audit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "audit.reconciliation")
+public class ReconciliationProperties {
+
+    private int concurrency = 4;
+    private int checkpointEvery = 1000;
+    private Duration settleDelay = Duration.ofSeconds(5);
+}
@@ -0,0 +1,18 @@
+package com.reactive.audit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "audit.stats")
+public class RollingStatsProperties {
+
+    private Duration window = Duration.ofMinutes(5);
+    private Duration bucket = Duration.ofSeconds(1);
+    private long maximumAccounts = 10_000;
+    private Duration publishInterval = Duration.ofSeconds(1);
+}
@@ -0,0 +1,20 @@
+package com.reactive.audit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "audit.schedulers")
+public class SchedulerProperties {
+
+    // Threads of the CPU scheduler used by batch jobs; defaults to one per core.
+    private int cpuParallelism = Runtime.getRuntime().availableProcessors();
+    // Caps of the bounded elastic scheduler for calls that must block: threads, tasks queued per thread, idle thread lifetime.
+    private int blockingThreadCap = 10 * Runtime.getRuntime().availableProcessors();
+    private int blockingQueueCap = 10_000;
+    private Duration blockingThreadTtl = Duration.ofSeconds(60);
+}
@@ -0,0 +1,14 @@
+package com.reactive.audit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "audit.snapshots")
+public class SnapshotProperties {
+
+    private int rebuildConcurrency = 4;
+    private int rebuildChunkSize = 500;
+}
@@ -0,0 +1,21 @@
+package com.reactive.audit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "audit.transactions.batch")
+public class TransactionBatchProperties {
+
+    private boolean enabled = false;
+    private int maxBatchSize = 100;
+    private Duration maxWait = Duration.ofMillis(20);
+    private int bufferCapacity = 1024;
+    private int flushConcurrency = 2;
+    private int maxOfferRetries = 5;
+    private Duration offerBackoff = Duration.ofMillis(5);
+}
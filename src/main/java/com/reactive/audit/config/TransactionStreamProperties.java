@@ -0,0 +1,18 @@
+package com.reactive.audit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "audit.streams")
+public class TransactionStreamProperties {
+
+    private Duration gracePeriod = Duration.ofSeconds(5);
+    private int subscriberBufferSize = 256;
+    private BufferOverflowStrategy overflowStrategy = BufferOverflowStrategy.DROP_OLDEST;
+}
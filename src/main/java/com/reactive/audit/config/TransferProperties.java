@@ -0,0 +1,17 @@
+package com.reactive.audit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "audit.transfers")
+public class TransferProperties {
+
+    private int concurrency = 8;
+    private int chunkSize = 100;
+    private Duration chunkWait = Duration.ofMillis(20);
+}
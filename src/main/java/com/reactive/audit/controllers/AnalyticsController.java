@@ -0,0 +1,43 @@
+package com.reactive.audit.controllers;
+
+import com.reactive.audit.DTO.res.BalanceDistributionDTO;
+import com.reactive.audit.DTO.res.DailyVolumeDTO;
+import com.reactive.audit.DTO.res.TypeTotalsDTO;
+import com.reactive.audit.services.transactions.TransactionAnalyticsService;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/analytics")
+@AllArgsConstructor
+public class AnalyticsController {
+
+    @Autowired
+    private TransactionAnalyticsService transactionAnalyticsService;
+
+    @GetMapping(value = "/transactions/by-type", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<TypeTotalsDTO> getTotalsByType(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return transactionAnalyticsService.getTotalsByType(from, to);
+    }
+
+    @GetMapping(value = "/transactions/daily", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<DailyVolumeDTO> getDailyVolume(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return transactionAnalyticsService.getDailyVolume(from, to);
+    }
+
+    @GetMapping(value = "/accounts/balances", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<BalanceDistributionDTO> getBalanceDistribution() {
+        return transactionAnalyticsService.getBalanceDistribution();
+    }
+}
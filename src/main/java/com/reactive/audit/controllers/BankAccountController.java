@@ -2,18 +2,24 @@ package com.reactive.audit.controllers;
 
 import com.reactive.audit.DTO.req.BankAccountRequestDTO;
 import com.reactive.audit.DTO.res.BankAccountResponseDTO;
+import com.reactive.audit.model.BankAccount;
+import com.reactive.audit.services.accounts.BalanceSnapshotService;
 import com.reactive.audit.services.accounts.BankAccountService;
+import com.reactive.audit.services.accounts.IdempotencyService;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @RestController
@@ -25,20 +31,38 @@ public class BankAccountController {
     @Autowired
     private BankAccountService bankAccountService;
 
+    @Autowired
+    private BalanceSnapshotService balanceSnapshotService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @GetMapping(value = "/balance-stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public Flux<Double> streamBalance(@RequestParam String numberAccount) {
-        return bankAccountService.streamBalanceByAccountNumber(numberAccount);
+    public Flux<ServerSentEvent<String>> streamBalance(@RequestParam String numberAccount,
+                                                      @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return bankAccountService.streamBalanceByAccountNumber(numberAccount, lastEventId);
     }
 
-//    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-//    public Flux<BankAccount> streamBalance(@RequestParam String numberAccount) {
-//        return bankAccountService.streamBalanceByAccountNumber(numberAccount);
-//    }
-
     @GetMapping("")
-    public Mono<ResponseEntity<BankAccountResponseDTO>> getAllAccounts() {
-        return bankAccountService.getAllAccounts()
-                .map(ResponseEntity::ok);
+    public Mono<ResponseEntity<BankAccountResponseDTO>> getAllAccounts(@RequestParam(required = false) String cursor,
+                                                                      @RequestParam(defaultValue = "100") int size) {
+        return bankAccountService.getAccountsPage(cursor, size)
+                .map(response -> response.isSuccess()
+                        ? ResponseEntity.ok(response)
+                        : ResponseEntity.badRequest().body(response));
+    }
+
+    @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BankAccount> streamAllAccounts() {
+        return bankAccountService.streamAllAccounts();
+    }
+
+    @GetMapping("/{accountId}")
+    public Mono<ResponseEntity<BankAccountResponseDTO>> getAccount(@PathVariable UUID accountId) {
+        return bankAccountService.getAccount(accountId)
+                .map(response -> response.isSuccess()
+                        ? ResponseEntity.ok(response)
+                        : ResponseEntity.status(HttpStatus.NOT_FOUND).body(response));
     }
 
     @PostMapping("/create")
@@ -66,18 +90,37 @@ public class BankAccountController {
     }
 
     @PostMapping("/deposit/{accountId}")
-    public Mono<ResponseEntity<BankAccountResponseDTO>> depositMoney(@PathVariable UUID accountId, @RequestParam double amount) {
-        return bankAccountService.depositMoney(accountId, amount)
+    public Mono<ResponseEntity<BankAccountResponseDTO>> depositMoney(@PathVariable UUID accountId, @RequestParam long amount,
+                                                                    @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "deposit:" + accountId + ":" + amount,
+                        () -> bankAccountService.depositMoney(accountId, amount))
                 .map(response -> response.isSuccess()
                         ? ResponseEntity.ok(response)
                         : ResponseEntity.badRequest().body(response));
     }
 
     @PostMapping("/withdraw/{accountId}")
-    public Mono<ResponseEntity<BankAccountResponseDTO>> withdrawMoney(@PathVariable UUID accountId, @RequestParam double amount) {
-        return bankAccountService.withdrawMoney(accountId, amount)
+    public Mono<ResponseEntity<BankAccountResponseDTO>> withdrawMoney(@PathVariable UUID accountId, @RequestParam long amount,
+                                                                     @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "withdraw:" + accountId + ":" + amount,
+                        () -> bankAccountService.withdrawMoney(accountId, amount))
                 .map(response -> response.isSuccess()
                         ? ResponseEntity.ok(response)
                         : ResponseEntity.badRequest().body(response));
     }
+
+    @GetMapping("/{accountId}/balance-at")
+    public Mono<ResponseEntity<BankAccountResponseDTO>> getBalanceAt(@PathVariable UUID accountId,
+                                                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime ts) {
+        return balanceSnapshotService.getBalanceAt(accountId, ts)
+                .map(response -> response.isSuccess()
+                        ? ResponseEntity.ok(response)
+                        : ResponseEntity.status(HttpStatus.NOT_FOUND).body(response));
+    }
+
+    @PostMapping("/snapshots/rebuild")
+    public Mono<ResponseEntity<BankAccountResponseDTO>> rebuildSnapshots() {
+        return balanceSnapshotService.rebuildSnapshots()
+                .map(ResponseEntity::ok);
+    }
 }
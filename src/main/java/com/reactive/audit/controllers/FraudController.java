@@ -0,0 +1,40 @@
+package com.reactive.audit.controllers;
+
+import com.reactive.audit.DTO.req.FraudRulesDTO;
+import com.reactive.audit.model.FraudAlert;
+import com.reactive.audit.services.fraud.FraudRuleEngine;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/fraud")
+@AllArgsConstructor
+public class FraudController {
+
+    @Autowired
+    private FraudRuleEngine fraudRuleEngine;
+
+    @GetMapping(value = "/alerts/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<FraudAlert>> streamAlerts() {
+        return fraudRuleEngine.alerts()
+                .map(alert -> ServerSentEvent.builder(alert)
+                        .id(alert.getId().toString())
+                        .event(alert.getRule())
+                        .build());
+    }
+
+    @GetMapping("/rules")
+    public Mono<FraudRulesDTO> getRules() {
+        return Mono.fromSupplier(fraudRuleEngine::getRules);
+    }
+
+    @PutMapping("/rules")
+    public Mono<FraudRulesDTO> updateRules(@RequestBody FraudRulesDTO rules) {
+        return Mono.fromSupplier(() -> fraudRuleEngine.updateRules(rules));
+    }
+}
@@ -0,0 +1,25 @@
+package com.reactive.audit.controllers;
+
+import com.reactive.audit.model.ReconciliationBreak;
+import com.reactive.audit.services.accounts.ReconciliationService;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+@RestController
+@RequestMapping("/api/accounts/reconciliation")
+@AllArgsConstructor
+public class ReconciliationController {
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @PostMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ReconciliationBreak> reconcile() {
+        return reconciliationService.reconcile();
+    }
+}
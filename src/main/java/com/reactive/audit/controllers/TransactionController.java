@@ -1,17 +1,24 @@
 package com.reactive.audit.controllers;
 
+import com.reactive.audit.DTO.res.RollingStatsDTO;
+import com.reactive.audit.DTO.res.TransactionHistoryDTO;
 import com.reactive.audit.DTO.res.TransactionResponseDTO;
 import com.reactive.audit.model.Transaction;
 import com.reactive.audit.services.transactions.TransactionService;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+import java.util.UUID;
+
 @RestController
 @RequestMapping("/api/transactions")
 @AllArgsConstructor
@@ -22,14 +29,43 @@ public class TransactionController {
     private TransactionService transactionService;
 
     @GetMapping("")
-    public Mono<ResponseEntity<TransactionResponseDTO>> getAllTransactions() {
-        return transactionService.getAllTransactions()
-                .map(ResponseEntity::ok);
+    public Mono<ResponseEntity<TransactionResponseDTO>> getAllTransactions(@RequestParam(required = false) String cursor,
+                                                                          @RequestParam(defaultValue = "100") int size) {
+        return transactionService.getTransactionsPage(cursor, size)
+                .map(response -> response.isSuccess()
+                        ? ResponseEntity.ok(response)
+                        : ResponseEntity.badRequest().body(response));
+    }
+
+    @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Transaction> streamAllTransactions() {
+        return transactionService.streamAllTransactions();
     }
 
     @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public Flux<Transaction> streamTransactions(@RequestParam String numberAccount) {
-        return transactionService.streamTransactions(numberAccount);
+    public Flux<ServerSentEvent<Transaction>> streamTransactions(@RequestParam String numberAccount,
+                                                                 @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return transactionService.streamTransactions(numberAccount, lastEventId);
+    }
+
+    @GetMapping("/stats")
+    public Mono<RollingStatsDTO> getRollingStats(@RequestParam(required = false) UUID accountId) {
+        return transactionService.getRollingStats(accountId);
+    }
+
+    @GetMapping(value = "/stats/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<RollingStatsDTO>> streamRollingStats(@RequestParam(required = false) UUID accountId) {
+        return transactionService.streamRollingStats(accountId);
+    }
+
+    @GetMapping(value = "/{numberAccount}/history", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<TransactionHistoryDTO> getHistory(@PathVariable String numberAccount,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                  @RequestParam(required = false) String type,
+                                                  @RequestParam(defaultValue = "100") int limit,
+                                                  @RequestParam(required = false) String after) {
+        return transactionService.getHistory(numberAccount, from, to, type, limit, after);
     }
 
 }
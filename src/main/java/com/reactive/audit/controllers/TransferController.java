@@ -0,0 +1,26 @@
+package com.reactive.audit.controllers;
+
+import com.reactive.audit.DTO.req.TransferRequestDTO;
+import com.reactive.audit.DTO.res.TransferResultDTO;
+import com.reactive.audit.services.accounts.TransferService;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+@RestController
+@RequestMapping("/api/accounts/transfers")
+@AllArgsConstructor
+public class TransferController {
+
+    @Autowired
+    private TransferService transferService;
+
+    @PostMapping(value = "/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TransferResultDTO> transferBatch(@RequestBody Flux<TransferRequestDTO> transfers) {
+        return transferService.transferBatch(transfers);
+    }
+}
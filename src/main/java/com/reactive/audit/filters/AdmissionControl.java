@@ -0,0 +1,173 @@
+package com.reactive.audit.filters;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps the requests in flight. Requests over the cap wait in a FIFO queue of at most
+ * {@code maxQueued} entries and are shed once they have waited {@code queueBudget}.
+ * <p>
+ * Permits are counted with CAS on an {@link AtomicInteger}. A released permit is handed straight
+ * to the oldest waiter; a waiter and a timeout race for it with a CAS on the waiter, so each
+ * permit is either handed over or returned, never both. Both releasing and queueing end with
+ * {@link #drain()}, so a permit freed while a request is being queued is not missed.
+ * <p>
+ * Every admission hands out its own {@link Permit}. Releasing it is idempotent, so a request that
+ * both completes and is cancelled still returns its permit once.
+ */
+final class AdmissionControl {
+
+    enum Admission {
+        ADMITTED,
+        QUEUE_FULL,
+        TIMED_OUT
+    }
+
+    private static final Permit QUEUE_FULL = new Permit(Admission.QUEUE_FULL, () -> { });
+    private static final Permit TIMED_OUT = new Permit(Admission.TIMED_OUT, () -> { });
+
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final Duration queueBudget;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final Timer queueWait;
+
+    AdmissionControl(int maxConcurrent, int maxQueued, Duration queueBudget, MeterRegistry meterRegistry) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.queueBudget = queueBudget;
+
+        Gauge.builder("audit.ratelimit.in_flight", inFlight, AtomicInteger::get)
+                .description("Money-moving requests being processed")
+                .register(meterRegistry);
+        Gauge.builder("audit.ratelimit.queued", queued, AtomicInteger::get)
+                .description("Money-moving requests waiting for admission")
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("audit.ratelimit.queue.wait")
+                .description("Time queued requests waited before being admitted")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /** An {@code ADMITTED} caller holds a permit and must {@link Permit#release()} it. */
+    Mono<Permit> acquire() {
+        return Mono.defer(() -> {
+            if (waiters.isEmpty() && tryTakePermit()) {
+                return Mono.just(new Permit(Admission.ADMITTED, this::release));
+            }
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                return Mono.just(QUEUE_FULL);
+            }
+
+            Waiter waiter = new Waiter(System.nanoTime(), new Permit(Admission.ADMITTED, this::release));
+            waiters.offer(waiter);
+            drain();
+            return waiter.admission.asMono()
+                    .timeout(queueBudget, Mono.fromSupplier(() -> abandon(waiter) ? Admission.TIMED_OUT : Admission.ADMITTED))
+                    .map(admission -> admission == Admission.ADMITTED ? waiter.permit : TIMED_OUT)
+                    .doOnCancel(() -> {
+                        // The permit may already have been handed over, and the admitted request
+                        // releases it as well; the permit only goes back once.
+                        if (!abandon(waiter)) {
+                            waiter.permit.release();
+                        }
+                    });
+        });
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        drain();
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    int queued() {
+        return queued.get();
+    }
+
+    private void drain() {
+        while (!waiters.isEmpty() && tryTakePermit()) {
+            Waiter waiter = waiters.poll();
+            if (waiter != null && waiter.claim()) {
+                queued.decrementAndGet();
+                queueWait.record(System.nanoTime() - waiter.enqueuedAt, TimeUnit.NANOSECONDS);
+                waiter.admission.tryEmitValue(Admission.ADMITTED);
+            } else {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    private boolean tryTakePermit() {
+        int current;
+        while ((current = inFlight.get()) < maxConcurrent) {
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean abandon(Waiter waiter) {
+        if (!waiter.claim()) {
+            return false;
+        }
+        waiters.remove(waiter);
+        queued.decrementAndGet();
+        return true;
+    }
+
+    /** The result of one {@link #acquire()}. Only an {@code ADMITTED} permit gives anything back. */
+    static final class Permit {
+        private final Admission admission;
+        private final Runnable onRelease;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Admission admission, Runnable onRelease) {
+            this.admission = admission;
+            this.onRelease = onRelease;
+        }
+
+        Admission admission() {
+            return admission;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                onRelease.run();
+            }
+        }
+    }
+
+    private static final class Waiter {
+        private final long enqueuedAt;
+        private final Permit permit;
+        private final Sinks.One<Admission> admission = Sinks.one();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private Waiter(long enqueuedAt, Permit permit) {
+            this.enqueuedAt = enqueuedAt;
+            this.permit = permit;
+        }
+
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.reactive.audit.filters;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.reactive.audit.config.RateLimitProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Admission control for deposits and withdrawals, applied before the request reaches Mongo:
+ * a token bucket per client, a token bucket per account, and a global cap on requests in flight
+ * with a short queue. Requests that do not fit are rejected with 429 and a {@code Retry-After}
+ * header. All state is in memory and per instance.
+ */
+public class RateLimitFilter implements WebFilter {
+
+    private static final List<PathPattern> MONEY_MOVING = List.of(
+            PathPatternParser.defaultInstance.parse("/api/accounts/deposit/{accountId}"),
+            PathPatternParser.defaultInstance.parse("/api/accounts/withdraw/{accountId}"));
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, TokenBucket> clientBuckets;
+    private final Cache<String, TokenBucket> accountBuckets;
+    private final Function<String, TokenBucket> newClientBucket;
+    private final Function<String, TokenBucket> newAccountBucket;
+    private final AdmissionControl admissionControl;
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.clientBuckets = buckets(properties);
+        this.accountBuckets = buckets(properties);
+        this.newClientBucket = key -> new TokenBucket(properties.getClientCapacity(), properties.getClientRefillPerSecond());
+        this.newAccountBucket = key -> new TokenBucket(properties.getAccountCapacity(), properties.getAccountRefillPerSecond());
+        this.admissionControl = new AdmissionControl(
+                properties.getMaxConcurrent(), properties.getMaxQueued(), properties.getQueueBudget(), meterRegistry);
+
+        Gauge.builder("audit.ratelimit.buckets", clientBuckets, Cache::estimatedSize)
+                .tag("scope", "client")
+                .description("Token buckets currently tracked")
+                .register(meterRegistry);
+        Gauge.builder("audit.ratelimit.buckets", accountBuckets, Cache::estimatedSize)
+                .tag("scope", "account")
+                .description("Token buckets currently tracked")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String accountId = properties.isEnabled() ? moneyMovingAccount(request) : null;
+        if (accountId == null) {
+            return chain.filter(exchange);
+        }
+
+        long now = System.nanoTime();
+        long wait = clientBuckets.get(clientOf(request), newClientBucket).tryAcquire(now);
+        if (wait > 0) {
+            return reject(exchange, "client", wait);
+        }
+        wait = accountBuckets.get(accountId, newAccountBucket).tryAcquire(now);
+        if (wait > 0) {
+            return reject(exchange, "account", wait);
+        }
+
+        return admissionControl.acquire().flatMap(permit -> switch (permit.admission()) {
+            case ADMITTED -> chain.filter(exchange).doFinally(signal -> permit.release());
+            case QUEUE_FULL -> reject(exchange, "queue_full", 0L);
+            case TIMED_OUT -> reject(exchange, "queue_timeout", 0L);
+        });
+    }
+
+    private static String moneyMovingAccount(ServerHttpRequest request) {
+        if (request.getMethod() != HttpMethod.POST) {
+            return null;
+        }
+        for (PathPattern pattern : MONEY_MOVING) {
+            PathPattern.PathMatchInfo match = pattern.matchAndExtract(request.getPath().pathWithinApplication());
+            if (match != null) {
+                return match.getUriVariables().get("accountId");
+            }
+        }
+        return null;
+    }
+
+    private String clientOf(ServerHttpRequest request) {
+        String client = request.getHeaders().getFirst(properties.getClientHeader());
+        if (client != null && !client.isBlank()) {
+            return client;
+        }
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return remoteAddress == null || remoteAddress.getAddress() == null
+                ? "unknown"
+                : remoteAddress.getAddress().getHostAddress();
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, String reason, long waitNanos) {
+        meterRegistry.counter("audit.ratelimit.rejected", "reason", reason).increment();
+        exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER,
+                Long.toString(Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L))));
+        return exchange.getResponse().setComplete();
+    }
+
+    private static Cache<String, TokenBucket> buckets(RateLimitProperties properties) {
+        return Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumKeys())
+                .expireAfterAccess(properties.getIdleExpiry())
+                .build();
+    }
+}
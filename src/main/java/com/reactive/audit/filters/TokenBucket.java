@@ -0,0 +1,40 @@
+package com.reactive.audit.filters;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket kept as a single "theoretical arrival time" (the generic cell rate algorithm): a
+ * request is allowed while that time is no more than {@code capacity - 1} refill intervals ahead
+ * of now, and each allowed request moves it one interval further. Taking a token is one CAS on
+ * an {@link AtomicLong}, so buckets need no lock.
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    // Starts far in the past, so a new bucket is full.
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE / 2);
+
+    TokenBucket(long capacity, double refillPerSecond) {
+        this.intervalNanos = Math.max(1L, (long) (1_000_000_000L / refillPerSecond));
+        this.toleranceNanos = intervalNanos * (Math.max(1L, capacity) - 1);
+    }
+
+    /**
+     * Takes a token at {@code nowNanos}. Returns 0 when one was available, otherwise the
+     * nanoseconds until the next one; nothing is taken in that case.
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long start = Math.max(arrival, nowNanos);
+            long wait = start - nowNanos - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, start + intervalNanos)) {
+                return 0L;
+            }
+        }
+    }
+}
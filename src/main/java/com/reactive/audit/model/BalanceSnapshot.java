@@ -0,0 +1,43 @@
+package com.reactive.audit.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Balance checkpoint for one account and one calendar day ({@code yyyy-MM-dd}, JVM time zone).
+ * {@code openingBalance} is the balance before the day's first transaction and
+ * {@code closingBalance} the balance after its last one.
+ */
+@Data
+@Document(collection = "balance_snapshots")
+@CompoundIndex(name = "accountId_day", def = "{ 'accountId': 1, 'day': 1 }", unique = true, background = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class BalanceSnapshot {
+
+    @Id
+    private String id;
+    private UUID accountId;
+    private String day;
+    private long openingBalance;
+    private long closingBalance;
+    private long netChange;
+    private long transactionCount;
+    private LocalDateTime firstTransactionDate;
+    private LocalDateTime lastTransactionDate;
+
+    public static String idOf(UUID accountId, String day) {
+        return accountId + ":" + day;
+    }
+
+    public static String dayOf(LocalDateTime date) {
+        return date.toLocalDate().toString();
+    }
+}
@@ -0,0 +1,16 @@
+package com.reactive.audit.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BalanceUpdate {
+
+    private BankAccount account;
+    private long previousBalance;
+    private long currentBalance;
+
+}
@@ -1,23 +1,40 @@
 package com.reactive.audit.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.util.List;
 import java.util.UUID;
 
 @Data
 @Document(collection = "accounts")
 @AllArgsConstructor
 @NoArgsConstructor
+@CompoundIndex(name = "pendingTransactions_outbox", def = "{ 'pendingTransactions.transactionId': 1 }", sparse = true)
 public class BankAccount {
 
     @Id
-    private UUID id = UUID.randomUUID();
+    private UUID id = Ids.newId();
+    @Indexed(name = "numberAccount_unique", unique = true, background = true,
+            partialFilter = "{ 'numberAccount': { '$type': 'string' } }")
     private String numberAccount;
-    private double balance;
+    private long balance;
     private String type;
+    // Bumped by every save and balance update, so a save based on a stale read fails instead of overwriting.
+    @Version
+    private Long version;
+    // Audit entries not yet copied to the transactions collection (outbox consistency mode).
+    @JsonIgnore
+    private List<PendingTransaction> pendingTransactions;
 
+    public BankAccount(UUID id, String numberAccount, long balance, String type) {
+        this(id, numberAccount, balance, type, null, null);
+    }
 }
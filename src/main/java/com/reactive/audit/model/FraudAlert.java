@@ -0,0 +1,29 @@
+package com.reactive.audit.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An operation flagged by a fraud rule. The operation itself is applied; alerts are for review.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "fraud_alerts")
+public class FraudAlert {
+    @Id
+    private UUID id = Ids.newId();
+    private UUID accountId;
+    private String numberAccount;
+    private String type;
+    private long amount;
+    private String rule;
+    private String reason;
+    private LocalDateTime detectedAt;
+}
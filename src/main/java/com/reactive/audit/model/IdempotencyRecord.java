@@ -0,0 +1,32 @@
+package com.reactive.audit.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a request sent with an {@code Idempotency-Key}. The record is inserted before the
+ * operation runs and completed with its response afterwards; {@code completed == false} means the
+ * first request is still in progress. Mongo removes the record once {@code expiresAt} has passed.
+ */
+@Data
+@Document(collection = "idempotency_keys")
+@AllArgsConstructor
+@NoArgsConstructor
+public class IdempotencyRecord {
+
+    @Id
+    private String key;
+    private String fingerprint;
+    private boolean completed;
+    private boolean success;
+    private String message;
+    private Object data;
+    @Indexed(name = "expiresAt_ttl", expireAfter = "0s")
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,26 @@
+package com.reactive.audit.model;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates document ids as time-ordered UUIDv7 (RFC 9562): 48 bits of Unix milliseconds followed
+ * by 74 random bits. Randomness comes from {@link ThreadLocalRandom}, so generating an id never
+ * contends or waits for entropy, unlike {@link UUID#randomUUID()} and its shared {@code SecureRandom}.
+ * Ids are unique, not unguessable; nothing here uses them as secrets.
+ */
+public final class Ids {
+
+    private Ids() {
+    }
+
+    public static UUID newId() {
+        return newId(System.currentTimeMillis(), ThreadLocalRandom.current());
+    }
+
+    static UUID newId(long epochMillis, ThreadLocalRandom random) {
+        long mostSignificant = (epochMillis << 16) | 0x7000L | (random.nextLong() & 0x0FFFL);
+        long leastSignificant = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSignificant, leastSignificant);
+    }
+}
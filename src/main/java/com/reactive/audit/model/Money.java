@@ -0,0 +1,33 @@
+package com.reactive.audit.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money is carried as a {@code long} number of minor units (cents) in the model, the API and Mongo
+ * (int64), so balances are exact and {@code $inc} stays atomic. Decimal values only appear at the edges.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+    public static final long MINOR_UNITS_PER_MAJOR = 100L;
+
+    private Money() {
+    }
+
+    /** Converts a legacy major-unit amount (e.g. {@code 10.5}) to minor units, rounding half-even. */
+    public static long fromMajorUnits(double amount) {
+        return BigDecimal.valueOf(amount)
+                .setScale(SCALE, RoundingMode.HALF_EVEN)
+                .movePointRight(SCALE)
+                .longValueExact();
+    }
+
+    public static BigDecimal toMajorUnits(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    public static String format(long minorUnits) {
+        return toMajorUnits(minorUnits).toPlainString();
+    }
+}
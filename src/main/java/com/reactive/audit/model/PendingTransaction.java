@@ -0,0 +1,25 @@
+package com.reactive.audit.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Audit entry written inside the account document in outbox mode. {@code transactionId} becomes
+ * the id of the drained {@link Transaction}, so draining the same entry twice inserts it once.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PendingTransaction {
+
+    private UUID transactionId;
+    private String type;
+    private long amount;
+    private long previousBalance;
+    private long currentBalance;
+    private LocalDateTime transactionDate;
+}
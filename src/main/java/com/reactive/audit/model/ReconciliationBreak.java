@@ -0,0 +1,31 @@
+package com.reactive.audit.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReconciliationBreak {
+
+    public enum Kind {
+        // previousBalance does not continue the currentBalance of the preceding record
+        CHAIN_GAP,
+        // currentBalance - previousBalance does not match amount and type
+        AMOUNT_MISMATCH,
+        NEGATIVE_BALANCE,
+        // the last verified currentBalance differs from the account balance
+        BALANCE_MISMATCH
+    }
+
+    private Kind kind;
+    private UUID accountId;
+    private UUID transactionId;
+    private LocalDateTime transactionDate;
+    private long expected;
+    private long actual;
+}
@@ -0,0 +1,29 @@
+package com.reactive.audit.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Last transaction of an account whose balance chain has been verified. The next reconciliation
+ * run continues after {@code (lastTransactionDate, lastTransactionId)}.
+ */
+@Data
+@Document(collection = "reconciliation_checkpoints")
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReconciliationCheckpoint {
+
+    @Id
+    private UUID accountId;
+    private LocalDateTime lastTransactionDate;
+    private UUID lastTransactionId;
+    private Long lastBalance;
+    private long verifiedCount;
+    private LocalDateTime updatedAt;
+}
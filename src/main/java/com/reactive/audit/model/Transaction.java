@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -11,18 +13,23 @@ import java.util.UUID;
 
 @Data
 @Document(collection = "transactions")
+@CompoundIndexes({
+        @CompoundIndex(name = "numberAccount_transactionDate", def = "{ 'numberAccount': 1, 'transactionDate': 1, '_id': 1 }", background = true),
+        @CompoundIndex(name = "accountId_transactionDate", def = "{ 'accountId': 1, 'transactionDate': 1, '_id': 1 }", background = true),
+        @CompoundIndex(name = "transactionDate_id", def = "{ 'transactionDate': 1, '_id': 1 }", background = true)
+})
 @AllArgsConstructor
 @NoArgsConstructor
 public class Transaction {
 
     @Id
-    private UUID id = UUID.randomUUID();
+    private UUID id = Ids.newId();
     private UUID accountId;
     private String numberAccount;
     private String type;
-    private double amount;
-    private double previousBalance;
-    private double currentBalance;
+    private long amount;
+    private long previousBalance;
+    private long currentBalance;
     private LocalDateTime transactionDate;
 
 }
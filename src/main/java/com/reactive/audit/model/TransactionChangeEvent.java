@@ -0,0 +1,15 @@
+package com.reactive.audit.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionChangeEvent {
+
+    private String resumeToken;
+    private Transaction transaction;
+
+}
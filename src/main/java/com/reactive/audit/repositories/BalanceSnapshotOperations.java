@@ -0,0 +1,13 @@
+package com.reactive.audit.repositories;
+
+import com.reactive.audit.model.Transaction;
+import reactor.core.publisher.Mono;
+
+public interface BalanceSnapshotOperations {
+
+    /**
+     * Folds one transaction into the snapshot of its account and day with a single upsert.
+     * The result does not depend on the order in which transactions of the same day arrive.
+     */
+    Mono<Void> applyTransaction(Transaction transaction);
+}
@@ -0,0 +1,62 @@
+package com.reactive.audit.repositories;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOptions;
+import com.reactive.audit.model.BalanceSnapshot;
+import com.reactive.audit.model.Transaction;
+import lombok.AllArgsConstructor;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@AllArgsConstructor
+public class BalanceSnapshotOperationsImpl implements BalanceSnapshotOperations {
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    // Pipeline update: every expression reads the stored document as it was before this update,
+    // so opening/closing only move when this transaction is earlier/later than the ones seen so far.
+    @Override
+    public Mono<Void> applyTransaction(Transaction transaction) {
+        String day = BalanceSnapshot.dayOf(transaction.getTransactionDate());
+        Object date = reactiveMongoTemplate.getConverter().convertToMongoType(transaction.getTransactionDate());
+        long delta = transaction.getCurrentBalance() - transaction.getPreviousBalance();
+
+        Document set = new Document()
+                .append("accountId", reactiveMongoTemplate.getConverter().convertToMongoType(transaction.getAccountId()))
+                .append("day", day)
+                .append("transactionCount", add("$transactionCount", 1L))
+                .append("netChange", add("$netChange", delta))
+                .append("openingBalance", new Document("$cond", List.of(
+                        missingOr("$firstTransactionDate", new Document("$lt", List.of(date, "$firstTransactionDate"))),
+                        transaction.getPreviousBalance(),
+                        "$openingBalance")))
+                .append("firstTransactionDate", new Document("$min", List.of("$firstTransactionDate", date)))
+                .append("closingBalance", new Document("$cond", List.of(
+                        missingOr("$lastTransactionDate", new Document("$gte", List.of(date, "$lastTransactionDate"))),
+                        transaction.getCurrentBalance(),
+                        "$closingBalance")))
+                .append("lastTransactionDate", new Document("$max", List.of("$lastTransactionDate", date)));
+
+        return reactiveMongoTemplate.getCollection(reactiveMongoTemplate.getCollectionName(BalanceSnapshot.class))
+                .flatMap(collection -> Mono.from(collection.updateOne(
+                        Filters.eq("_id", BalanceSnapshot.idOf(transaction.getAccountId(), day)),
+                        List.of(new Document("$set", set)),
+                        new UpdateOptions().upsert(true))))
+                .then();
+    }
+
+    private static Document add(String field, Object value) {
+        return new Document("$add", List.of(new Document("$ifNull", List.of(field, 0L)), value));
+    }
+
+    private static Document missingOr(String field, Document condition) {
+        return new Document("$or", List.of(
+                new Document("$eq", List.of(new Document("$type", field), "missing")),
+                condition));
+    }
+}
@@ -0,0 +1,17 @@
+package com.reactive.audit.repositories;
+
+import com.reactive.audit.model.BalanceSnapshot;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+@Repository
+public interface BalanceSnapshotReactiveRepository extends ReactiveMongoRepository<BalanceSnapshot, String>, BalanceSnapshotOperations {
+    Mono<BalanceSnapshot> findFirstByAccountIdAndDayLessThanEqualOrderByDayDesc(UUID accountId, String day);
+
+    Mono<BalanceSnapshot> findFirstByAccountIdAndDayGreaterThanOrderByDayAsc(UUID accountId, String day);
+
+    Mono<Void> deleteByAccountId(UUID accountId);
+}
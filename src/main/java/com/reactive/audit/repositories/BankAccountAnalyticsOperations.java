@@ -0,0 +1,12 @@
+package com.reactive.audit.repositories;
+
+import com.reactive.audit.DTO.res.BalanceDistributionDTO;
+import reactor.core.publisher.Flux;
+
+public interface BankAccountAnalyticsOperations {
+
+    /**
+     * Number of accounts and their total, average, minimum and maximum balance per account type.
+     */
+    Flux<BalanceDistributionDTO> balanceDistribution();
+}
@@ -0,0 +1,34 @@
+package com.reactive.audit.repositories;
+
+import com.reactive.audit.DTO.res.BalanceDistributionDTO;
+import com.reactive.audit.model.BankAccount;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import reactor.core.publisher.Flux;
+
+@AllArgsConstructor
+public class BankAccountAnalyticsOperationsImpl implements BankAccountAnalyticsOperations {
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Flux<BalanceDistributionDTO> balanceDistribution() {
+        TypedAggregation<BankAccount> aggregation = Aggregation.newAggregation(BankAccount.class,
+                Aggregation.group("type")
+                        .count().as("accounts")
+                        .sum("balance").as("totalBalance")
+                        .avg("balance").as("averageBalance")
+                        .min("balance").as("minBalance")
+                        .max("balance").as("maxBalance"),
+                Aggregation.project("accounts", "totalBalance", "averageBalance", "minBalance", "maxBalance")
+                        .and("type").previousOperation(),
+                Aggregation.sort(Sort.Direction.ASC, "type"));
+
+        return reactiveMongoTemplate.aggregate(aggregation, BalanceDistributionDTO.class);
+    }
+}
@@ -0,0 +1,48 @@
+package com.reactive.audit.repositories;
+
+import com.reactive.audit.model.BalanceUpdate;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface BankAccountBalanceOperations {
+
+    /**
+     * Atomically adds {@code amount} to the account balance in a single round trip.
+     * Emits empty when the account does not exist.
+     */
+    Mono<BalanceUpdate> depositBalance(UUID accountId, long amount);
+
+    /**
+     * Atomically subtracts {@code amount} only while {@code balance >= amount}.
+     * Emits empty when the account does not exist or has insufficient funds.
+     */
+    Mono<BalanceUpdate> withdrawBalance(UUID accountId, long amount);
+
+    /**
+     * Like {@link #depositBalance} but also appends a DEPOSIT {@code PendingTransaction} to the
+     * account in the same update, so the balance never changes without its audit entry.
+     */
+    Mono<BalanceUpdate> depositBalanceWithOutbox(UUID accountId, long amount);
+
+    /**
+     * Like {@link #withdrawBalance} but also appends a WITHDRAWAL {@code PendingTransaction}.
+     */
+    Mono<BalanceUpdate> withdrawBalanceWithOutbox(UUID accountId, long amount);
+
+    /**
+     * Like {@link #depositBalanceWithOutbox(UUID, long)} with an entry of the given type, such as TRANSFER_IN.
+     */
+    Mono<BalanceUpdate> depositBalanceWithOutbox(UUID accountId, long amount, String type);
+
+    /**
+     * Like {@link #withdrawBalanceWithOutbox(UUID, long)} with an entry of the given type, such as TRANSFER_OUT.
+     */
+    Mono<BalanceUpdate> withdrawBalanceWithOutbox(UUID accountId, long amount, String type);
+
+    /**
+     * Removes drained outbox entries from the account and bumps its version.
+     */
+    Mono<Void> removePendingTransactions(UUID accountId, List<UUID> transactionIds);
+}
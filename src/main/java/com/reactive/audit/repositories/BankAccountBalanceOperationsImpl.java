@@ -0,0 +1,115 @@
+package com.reactive.audit.repositories;
+
+import com.reactive.audit.model.BalanceUpdate;
+import com.reactive.audit.model.BankAccount;
+import com.reactive.audit.model.Ids;
+import lombok.AllArgsConstructor;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@AllArgsConstructor
+public class BankAccountBalanceOperationsImpl implements BankAccountBalanceOperations {
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Mono<BalanceUpdate> depositBalance(UUID accountId, long amount) {
+        return applyDelta(Query.query(minorUnitBalance(accountId)), amount);
+    }
+
+    @Override
+    public Mono<BalanceUpdate> withdrawBalance(UUID accountId, long amount) {
+        return applyDelta(Query.query(minorUnitBalance(accountId).gte(amount)), -amount);
+    }
+
+    // A legacy major-unit double balance never matches, so minor units are not added to it before
+    // LegacyDataMigration has rewritten it.
+    private static Criteria minorUnitBalance(UUID accountId) {
+        return Criteria.where("id").is(accountId).and("balance").type(JsonSchemaObject.Type.INT_64);
+    }
+
+    // findAndModify hands back the pre-image; the post-image is derived with the same
+    // addition Mongo applied for $inc, so both balances come from one round trip.
+    private Mono<BalanceUpdate> applyDelta(Query query, long delta) {
+        return reactiveMongoTemplate.findAndModify(
+                        query,
+                        new Update().inc("balance", delta).inc("version", 1L),
+                        FindAndModifyOptions.options().returnNew(false),
+                        BankAccount.class)
+                .map(account -> {
+                    long previousBalance = account.getBalance();
+                    long currentBalance = Math.addExact(previousBalance, delta);
+                    account.setBalance(currentBalance);
+                    account.setVersion(account.getVersion() == null ? 1L : account.getVersion() + 1);
+                    return new BalanceUpdate(account, previousBalance, currentBalance);
+                });
+    }
+
+    @Override
+    public Mono<BalanceUpdate> depositBalanceWithOutbox(UUID accountId, long amount) {
+        return depositBalanceWithOutbox(accountId, amount, "DEPOSIT");
+    }
+
+    @Override
+    public Mono<BalanceUpdate> withdrawBalanceWithOutbox(UUID accountId, long amount) {
+        return withdrawBalanceWithOutbox(accountId, amount, "WITHDRAWAL");
+    }
+
+    @Override
+    public Mono<BalanceUpdate> depositBalanceWithOutbox(UUID accountId, long amount, String type) {
+        return applyDeltaWithOutbox(Query.query(minorUnitBalance(accountId)), amount, type, amount);
+    }
+
+    @Override
+    public Mono<BalanceUpdate> withdrawBalanceWithOutbox(UUID accountId, long amount, String type) {
+        return applyDeltaWithOutbox(Query.query(minorUnitBalance(accountId).gte(amount)), -amount, type, amount);
+    }
+
+    @Override
+    public Mono<Void> removePendingTransactions(UUID accountId, List<UUID> transactionIds) {
+        return reactiveMongoTemplate.updateFirst(
+                        Query.query(Criteria.where("id").is(accountId)),
+                        new Update()
+                                .pull("pendingTransactions", Query.query(Criteria.where("transactionId").in(transactionIds)))
+                                .inc("version", 1L),
+                        BankAccount.class)
+                .then();
+    }
+
+    // One pipeline update: inside a single $set stage every '$balance' still refers to the
+    // pre-image, so the appended entry records both balances without a prior read.
+    private Mono<BalanceUpdate> applyDeltaWithOutbox(Query query, long delta, String type, long amount) {
+        Document entry = new Document("transactionId", reactiveMongoTemplate.getConverter().convertToMongoType(Ids.newId()))
+                .append("type", type)
+                .append("amount", amount)
+                .append("previousBalance", "$balance")
+                .append("currentBalance", new Document("$add", List.of("$balance", delta)))
+                .append("transactionDate", reactiveMongoTemplate.getConverter().convertToMongoType(LocalDateTime.now()));
+
+        Document set = new Document("balance", new Document("$add", List.of("$balance", delta)))
+                .append("version", new Document("$add", List.of(new Document("$ifNull", List.of("$version", 0L)), 1L)))
+                .append("pendingTransactions", new Document("$concatArrays", List.of(
+                        new Document("$ifNull", List.of("$pendingTransactions", List.of())),
+                        List.of(entry))));
+
+        return reactiveMongoTemplate.findAndModify(
+                        query,
+                        AggregationUpdate.from(List.of(context -> new Document("$set", set))),
+                        FindAndModifyOptions.options().returnNew(true),
+                        BankAccount.class)
+                .map(account -> new BalanceUpdate(account, Math.subtractExact(account.getBalance(), delta), account.getBalance()));
+    }
+}
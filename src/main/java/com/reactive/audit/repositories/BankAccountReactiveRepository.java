@@ -1,16 +1,23 @@
 package com.reactive.audit.repositories;
 
 import com.reactive.audit.model.BankAccount;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
-import org.springframework.data.mongodb.repository.Tailable;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 
 import java.util.UUID;
 
 @Repository
-public interface BankAccountReactiveRepository extends ReactiveMongoRepository<BankAccount, UUID> {
-    @Tailable
-    Flux<BankAccount> findWithTailableCursorByNumberAccount(String numberAccount);
+public interface BankAccountReactiveRepository extends ReactiveMongoRepository<BankAccount, UUID>, BankAccountBalanceOperations,
+        BankAccountAnalyticsOperations {
+    Flux<BankAccount> findAllBy(Pageable pageable);
+
+    Flux<BankAccount> findByIdGreaterThan(UUID id, Pageable pageable);
+
+    // Served by the sparse pendingTransactions_outbox index, which only holds accounts with entries.
+    @Query("{ 'pendingTransactions.transactionId': { '$exists': true } }")
+    Flux<BankAccount> findWithPendingTransactions();
 }
 
@@ -0,0 +1,11 @@
+package com.reactive.audit.repositories;
+
+import com.reactive.audit.model.FraudAlert;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface FraudAlertReactiveRepository extends ReactiveMongoRepository<FraudAlert, UUID> {
+}
@@ -0,0 +1,9 @@
+package com.reactive.audit.repositories;
+
+import com.reactive.audit.model.IdempotencyRecord;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IdempotencyRecordReactiveRepository extends ReactiveMongoRepository<IdempotencyRecord, String> {
+}
@@ -0,0 +1,47 @@
+package com.reactive.audit.repositories;
+
+import com.reactive.audit.model.Transaction;
+import com.reactive.audit.model.TransactionChangeEvent;
+import lombok.AllArgsConstructor;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+@AllArgsConstructor
+public class MongoTransactionChangeStream implements TransactionChangeStream {
+
+    private static final String COLLECTION = "transactions";
+    private static final String RESUME_TOKEN_DATA = "_data";
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Flux<TransactionChangeEvent> watch(String numberAccount, String resumeToken) {
+        // The $match runs on the server, so each subscriber only receives inserts for its own account.
+        ChangeStreamOptions.ChangeStreamOptionsBuilder options = ChangeStreamOptions.builder()
+                .filter(Aggregation.newAggregation(Aggregation.match(Criteria
+                        .where("operationType").is("insert")
+                        .and("fullDocument.numberAccount").is(numberAccount))));
+
+        if (resumeToken != null) {
+            options.resumeAfter(new BsonDocument(RESUME_TOKEN_DATA, new BsonString(resumeToken)));
+        }
+
+        return reactiveMongoTemplate.changeStream(COLLECTION, options.build(), Transaction.class)
+                .filter(event -> event.getBody() != null)
+                .map(event -> new TransactionChangeEvent(encode(event.getResumeToken()), event.getBody()));
+    }
+
+    private static String encode(BsonValue resumeToken) {
+        return resumeToken == null ? null : resumeToken.asDocument().getString(RESUME_TOKEN_DATA).getValue();
+    }
+}
@@ -0,0 +1,20 @@
+package com.reactive.audit.repositories;
+
+import com.reactive.audit.DTO.res.DailyVolumeDTO;
+import com.reactive.audit.DTO.res.TypeTotalsDTO;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+public interface TransactionAnalyticsOperations {
+
+    /**
+     * Count, sum and average amount per transaction type for transactions in {@code [from, to)}.
+     */
+    Flux<TypeTotalsDTO> totalsByType(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * One bucket per calendar day with transactions in {@code [from, to)}, oldest first.
+     */
+    Flux<DailyVolumeDTO> dailyVolume(LocalDateTime from, LocalDateTime to);
+}
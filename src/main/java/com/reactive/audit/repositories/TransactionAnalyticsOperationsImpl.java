@@ -0,0 +1,77 @@
+package com.reactive.audit.repositories;
+
+import com.reactive.audit.DTO.res.DailyVolumeDTO;
+import com.reactive.audit.DTO.res.TypeTotalsDTO;
+import com.reactive.audit.model.Transaction;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Aggregations run entirely in Mongo; only one document per group comes back. The range match on
+ * {@code transactionDate} is served by the {@code transactionDate_id} index.
+ */
+@AllArgsConstructor
+public class TransactionAnalyticsOperationsImpl implements TransactionAnalyticsOperations {
+
+    private static final List<String> CREDIT_TYPES = List.of("DEPOSIT", "TRANSFER_IN", "TRANSFER_REVERSAL");
+    private static final List<String> DEBIT_TYPES = List.of("WITHDRAWAL", "TRANSFER_OUT");
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Flux<TypeTotalsDTO> totalsByType(LocalDateTime from, LocalDateTime to) {
+        TypedAggregation<Transaction> aggregation = Aggregation.newAggregation(Transaction.class,
+                Aggregation.match(Criteria.where("transactionDate").gte(from).lt(to)),
+                Aggregation.group("type")
+                        .count().as("count")
+                        .sum("amount").as("total")
+                        .avg("amount").as("average"),
+                Aggregation.project("count", "total", "average").and("type").previousOperation(),
+                Aggregation.sort(Sort.Direction.ASC, "type"));
+
+        return reactiveMongoTemplate.aggregate(aggregation, TypeTotalsDTO.class);
+    }
+
+    // Days are cut in the JVM time zone, the same way BalanceSnapshot.dayOf does.
+    @Override
+    public Flux<DailyVolumeDTO> dailyVolume(LocalDateTime from, LocalDateTime to) {
+        TypedAggregation<Transaction> aggregation = Aggregation.newAggregation(Transaction.class,
+                Aggregation.match(Criteria.where("transactionDate").gte(from).lt(to)),
+                Aggregation.project("amount")
+                        .and(DateOperators.DateToString.dateOf("transactionDate")
+                                .toString("%Y-%m-%d")
+                                .withTimezone(DateOperators.Timezone.valueOf(ZoneId.systemDefault().getId())))
+                        .as("day")
+                        .and(amountIf(CREDIT_TYPES)).as("credit")
+                        .and(amountIf(DEBIT_TYPES)).as("debit"),
+                Aggregation.group("day")
+                        .count().as("count")
+                        .sum("amount").as("total")
+                        .sum("credit").as("credits")
+                        .sum("debit").as("debits"),
+                Aggregation.project("count", "total", "credits", "debits").and("day").previousOperation(),
+                Aggregation.sort(Sort.Direction.ASC, "day"));
+
+        return reactiveMongoTemplate.aggregate(aggregation, DailyVolumeDTO.class);
+    }
+
+    private static AggregationExpression amountIf(List<String> types) {
+        return ConditionalOperators.when(Criteria.where("type").in(types))
+                .thenValueOf("amount")
+                .otherwise(0L);
+    }
+}
@@ -0,0 +1,13 @@
+package com.reactive.audit.repositories;
+
+import com.reactive.audit.model.TransactionChangeEvent;
+import reactor.core.publisher.Flux;
+
+public interface TransactionChangeStream {
+
+    /**
+     * Emits transactions inserted for {@code numberAccount}. When {@code resumeToken} is given,
+     * the stream resumes right after the event that carried it instead of starting from now.
+     */
+    Flux<TransactionChangeEvent> watch(String numberAccount, String resumeToken);
+}
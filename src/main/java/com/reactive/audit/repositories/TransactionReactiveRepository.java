@@ -1,15 +1,57 @@
 package com.reactive.audit.repositories;
 
+import com.reactive.audit.DTO.res.TransactionHistoryDTO;
 import com.reactive.audit.model.Transaction;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
-import org.springframework.data.mongodb.repository.Tailable;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Repository
-public interface TransactionReactiveRepository extends ReactiveMongoRepository<Transaction, UUID> {
-    @Tailable
-    Flux<Transaction> findWithTailableCursorByNumberAccount(String numberAccount);
+public interface TransactionReactiveRepository extends ReactiveMongoRepository<Transaction, UUID>, TransactionAnalyticsOperations {
+    String HISTORY_FIELDS = "{ '_id': 1, 'type': 1, 'amount': 1, 'previousBalance': 1, 'currentBalance': 1, 'transactionDate': 1 }";
+    String HISTORY_SORT = "{ 'transactionDate': -1, '_id': -1 }";
+
+    Flux<Transaction> findAllBy(Pageable pageable);
+
+    @Query("{ '$or': [ { 'transactionDate': { '$gt': ?0 } }, { 'transactionDate': ?0, '_id': { '$gt': ?1 } } ] }")
+    Flux<Transaction> findAllAfter(LocalDateTime transactionDate, UUID id, Pageable pageable);
+
+    /**
+     * Newest-first history of one account in {@code [from, before)}, continuing after the keyset
+     * position {@code (before, beforeId)}. Served by the {@code numberAccount_transactionDate} index.
+     */
+    @Query(value = "{ 'numberAccount': ?0, 'transactionDate': { '$gte': ?1 }, "
+            + "'$or': [ { 'transactionDate': { '$lt': ?2 } }, { 'transactionDate': ?2, '_id': { '$lt': ?3 } } ] }",
+            fields = HISTORY_FIELDS, sort = HISTORY_SORT)
+    Flux<TransactionHistoryDTO> findHistory(String numberAccount, LocalDateTime from, LocalDateTime before, UUID beforeId, Pageable pageable);
+
+    @Query(value = "{ 'numberAccount': ?0, 'type': ?4, 'transactionDate': { '$gte': ?1 }, "
+            + "'$or': [ { 'transactionDate': { '$lt': ?2 } }, { 'transactionDate': ?2, '_id': { '$lt': ?3 } } ] }",
+            fields = HISTORY_FIELDS, sort = HISTORY_SORT)
+    Flux<TransactionHistoryDTO> findHistoryByType(String numberAccount, LocalDateTime from, LocalDateTime before, UUID beforeId,
+                                                  String type, Pageable pageable);
+
+    @Query(value = "{ 'accountId': ?0, 'transactionDate': { '$gte': ?1, '$lte': ?2 } }",
+            fields = "{ 'previousBalance': 1, 'currentBalance': 1, 'transactionDate': 1 }")
+    Flux<Transaction> findBalanceChanges(UUID accountId, LocalDateTime from, LocalDateTime to);
+
+    Flux<Transaction> findByAccountIdOrderByTransactionDateAsc(UUID accountId);
+
+    /**
+     * Balance chain of one account in {@code (transactionDate, id)} order, after the given keyset
+     * position and up to {@code cutoff}. Streamed from the {@code accountId_transactionDate} index.
+     */
+    @Query(value = "{ 'accountId': ?0, 'transactionDate': { '$lte': ?3 }, "
+            + "'$or': [ { 'transactionDate': { '$gt': ?1 } }, { 'transactionDate': ?1, '_id': { '$gt': ?2 } } ] }",
+            fields = "{ 'type': 1, 'amount': 1, 'previousBalance': 1, 'currentBalance': 1, 'transactionDate': 1 }",
+            sort = "{ 'transactionDate': 1, '_id': 1 }")
+    Flux<Transaction> findChainAfter(UUID accountId, LocalDateTime afterDate, UUID afterId, LocalDateTime cutoff);
+
+    Mono<Boolean> existsByAccountIdAndTransactionDateGreaterThan(UUID accountId, LocalDateTime transactionDate);
 }
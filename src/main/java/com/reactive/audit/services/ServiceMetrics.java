@@ -0,0 +1,48 @@
+package com.reactive.audit.services;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+/**
+ * Timers and summaries for service operations. Tags are limited to the operation name, its
+ * outcome and the transaction type, so cardinality stays bounded regardless of the number of accounts.
+ */
+@Component
+public class ServiceMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public ServiceMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> Mono<T> timed(String name, String operation, Function<T, String> outcome, Mono<T> call) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return call
+                    .doOnSuccess(result -> stop(sample, name, operation, result == null ? "empty" : outcome.apply(result)))
+                    .doOnError(e -> stop(sample, name, operation, "error"));
+        });
+    }
+
+    public void recordAmount(String type, long amount) {
+        DistributionSummary.builder("audit.transactions.amount")
+                .description("Amount moved per audited transaction")
+                .tag("type", type)
+                .register(meterRegistry)
+                .record(amount);
+    }
+
+    private void stop(Timer.Sample sample, String name, String operation, String outcome) {
+        sample.stop(Timer.builder(name)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+}
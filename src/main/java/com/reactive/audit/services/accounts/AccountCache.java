@@ -0,0 +1,126 @@
+package com.reactive.audit.services.accounts;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.reactive.audit.config.AccountCacheProperties;
+import com.reactive.audit.model.BankAccount;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Write-through cache in front of {@code BankAccountReactiveRepository}.
+ * <p>
+ * Every entry carries a version drawn from a local sequence: reads take it when they start,
+ * writes when they complete. An entry is only replaced by a newer version, so a slow read can
+ * never overwrite what a later write stored. Balances served from here are informational;
+ * withdrawals are authorized by the guarded update in Mongo, never by a cached balance.
+ * <p>
+ * Misses are single-flight: concurrent reads of the same account share one in-flight load, which
+ * is released as soon as it completes. Every caller still gets its own copy of the account.
+ * Writes release the in-flight load, so a read that starts after a write never joins an older one.
+ */
+@Component
+public class AccountCache {
+
+    private final AccountCacheProperties properties;
+    private final Cache<UUID, CachedAccount> cache;
+    private final AtomicLong versions = new AtomicLong();
+    private final Map<UUID, Mono<BankAccount>> inFlight = new ConcurrentHashMap<>();
+    private final Counter loads;
+    private final Counter coalesced;
+
+    public AccountCache(AccountCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "accounts");
+        this.loads = Counter.builder("audit.accounts.reads")
+                .description("Account reads that went to Mongo")
+                .tag("source", "mongo")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("audit.accounts.reads")
+                .description("Account reads that joined an in-flight load instead of going to Mongo")
+                .tag("source", "coalesced")
+                .register(meterRegistry);
+    }
+
+    public Mono<BankAccount> findById(UUID accountId, Function<UUID, Mono<BankAccount>> loader) {
+        return Mono.defer(() -> {
+            if (properties.isEnabled()) {
+                CachedAccount cached = cache.getIfPresent(accountId);
+                if (cached != null && cached.account() != null) {
+                    return Mono.just(copyOf(cached.account()));
+                }
+            }
+
+            boolean[] started = {false};
+            Mono<BankAccount> load = inFlight.computeIfAbsent(accountId, id -> {
+                started[0] = true;
+                return load(id, loader);
+            });
+            (started[0] ? loads : coalesced).increment();
+            return load.map(AccountCache::copyOf);
+        });
+    }
+
+    public void put(BankAccount account) {
+        inFlight.remove(account.getId());
+        if (properties.isEnabled()) {
+            store(account.getId(), account, versions.incrementAndGet());
+        }
+    }
+
+    public void invalidate(UUID accountId) {
+        inFlight.remove(accountId);
+        if (properties.isEnabled()) {
+            // Keep a versioned placeholder so in-flight reads that started earlier cannot repopulate the entry.
+            store(accountId, null, versions.incrementAndGet());
+        }
+    }
+
+    // The shared result lives for coalescing-ttl at most, so a caller holding the Mono reloads after that.
+    private Mono<BankAccount> load(UUID accountId, Function<UUID, Mono<BankAccount>> loader) {
+        long version = versions.incrementAndGet();
+        AtomicReference<Mono<BankAccount>> load = new AtomicReference<>();
+        load.set(loader.apply(accountId)
+                .doOnNext(account -> {
+                    if (properties.isEnabled()) {
+                        store(accountId, account, version);
+                    }
+                })
+                .doFinally(signal -> inFlight.remove(accountId, load.get()))
+                .cache(account -> properties.getCoalescingTtl(), error -> Duration.ZERO, () -> properties.getCoalescingTtl()));
+        return load.get();
+    }
+
+    private void store(UUID accountId, BankAccount account, long version) {
+        cache.asMap().compute(accountId, (id, current) ->
+                current != null && current.version() > version
+                        ? current
+                        : new CachedAccount(account == null ? null : copyOf(account), version));
+    }
+
+    // Pending outbox entries are copied too: a save of a cached account rewrites the whole document.
+    private static BankAccount copyOf(BankAccount account) {
+        return new BankAccount(account.getId(), account.getNumberAccount(), account.getBalance(), account.getType(), account.getVersion(),
+                account.getPendingTransactions() == null ? null : new ArrayList<>(account.getPendingTransactions()));
+    }
+
+    private record CachedAccount(BankAccount account, long version) {
+    }
+}
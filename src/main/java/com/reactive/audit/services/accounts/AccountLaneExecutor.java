@@ -0,0 +1,130 @@
+package com.reactive.audit.services.accounts;
+
+import com.reactive.audit.config.AccountLaneProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs work keyed by account on a fixed set of lanes. Keys are hashed onto lanes, each lane runs
+ * its work one at a time in submission order, and lanes run independently of each other. Nothing
+ * blocks: callers get a {@code Mono} completed by the lane, and a full lane rejects instead of waiting.
+ * <p>
+ * Work that has been queued runs even if the caller cancels, since a balance update cannot be
+ * taken back halfway.
+ */
+@Component
+public class AccountLaneExecutor {
+
+    private final AccountLaneProperties properties;
+    private final Lane[] lanes;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public AccountLaneExecutor(AccountLaneProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.lanes = new Lane[properties.getCount()];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(properties.getQueueCapacity());
+            Gauge.builder("audit.lanes.depth", lanes[i].depth, AtomicInteger::get)
+                    .description("Operations queued or running on an account lane")
+                    .tag("lane", Integer.toString(i))
+                    .register(meterRegistry);
+        }
+        this.waitTimer = Timer.builder("audit.lanes.wait")
+                .description("Time an operation waited for its account lane")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("audit.lanes.rejected")
+                .description("Operations rejected because their account lane was full")
+                .register(meterRegistry);
+    }
+
+    public <T> Mono<T> execute(Object key, Supplier<Mono<T>> work) {
+        if (!properties.isEnabled()) {
+            return Mono.defer(work);
+        }
+
+        return Mono.defer(() -> {
+            Sinks.One<T> result = Sinks.one();
+            Lane lane = lanes[Math.floorMod(Objects.hashCode(key), lanes.length)];
+            if (!lane.offer(new Task<>(work, result, System.nanoTime()))) {
+                rejected.increment();
+                return Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Account lane is full."));
+            }
+            return result.asMono();
+        });
+    }
+
+    private final class Lane {
+
+        private final Sinks.Many<Task<?>> tasks;
+        private final AtomicInteger depth = new AtomicInteger();
+
+        private Lane(int capacity) {
+            this.tasks = Sinks.many().unicast().onBackpressureBuffer(Queues.<Task<?>>get(capacity).get());
+            // Prefetch of 1 keeps queued work in the bounded sink queue, where capacity is enforced.
+            this.tasks.asFlux()
+                    .concatMap(task -> task.run().doFinally(signal -> depth.decrementAndGet()), 1)
+                    .subscribe();
+        }
+
+        // The sink only reports FAIL_NON_SERIALIZED while another producer is inside tryEmitNext,
+        // so retrying is a short spin rather than a wait on the consumer.
+        private boolean offer(Task<?> task) {
+            depth.incrementAndGet();
+            Sinks.EmitResult emitted;
+            while ((emitted = tasks.tryEmitNext(task)) == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+                Thread.onSpinWait();
+            }
+            if (emitted.isFailure()) {
+                depth.decrementAndGet();
+                return false;
+            }
+            return true;
+        }
+    }
+
+    private final class Task<T> {
+
+        private final Supplier<Mono<T>> work;
+        private final Sinks.One<T> result;
+        private final long submittedAt;
+
+        private Task(Supplier<Mono<T>> work, Sinks.One<T> result, long submittedAt) {
+            this.work = work;
+            this.result = result;
+            this.submittedAt = submittedAt;
+        }
+
+        // Never errors, so one failed operation does not terminate its lane.
+        private Mono<Void> run() {
+            return Mono.defer(() -> {
+                        waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                        return work.get();
+                    })
+                    .doOnSuccess(value -> {
+                        if (value == null) {
+                            result.tryEmitEmpty();
+                        } else {
+                            result.tryEmitValue(value);
+                        }
+                    })
+                    .doOnError(result::tryEmitError)
+                    .onErrorResume(e -> Mono.empty())
+                    .then();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.reactive.audit.services.accounts;
+
+import com.reactive.audit.config.ConsistencyProperties;
+import com.reactive.audit.model.BankAccount;
+import com.reactive.audit.model.PendingTransaction;
+import com.reactive.audit.model.Transaction;
+import com.reactive.audit.repositories.BankAccountReactiveRepository;
+import com.reactive.audit.repositories.TransactionReactiveRepository;
+import com.reactive.audit.services.ServiceMetrics;
+import com.reactive.audit.services.transactions.TransactionListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Copies the {@link PendingTransaction} entries of an account into the transactions collection and
+ * then removes them from the account. Each drain runs on the account lane, right after the update
+ * that wrote the entry; a periodic sweep picks up whatever a crash or a failed drain left behind.
+ * <p>
+ * Entries keep their id when copied, so a drain that is repeated after a partial failure skips
+ * the records that were already inserted.
+ */
+@Slf4j
+@Component
+public class AuditOutbox {
+
+    private final BankAccountReactiveRepository bankAccountReactiveRepository;
+    private final TransactionReactiveRepository transactionReactiveRepository;
+    private final List<TransactionListener> transactionListeners;
+    private final AccountLaneExecutor accountLaneExecutor;
+    private final AccountCache accountCache;
+    private final ServiceMetrics serviceMetrics;
+    private final ConsistencyProperties properties;
+    private final Counter drained;
+    private final Counter failures;
+    private Disposable sweeper;
+
+    public AuditOutbox(BankAccountReactiveRepository bankAccountReactiveRepository,
+                       TransactionReactiveRepository transactionReactiveRepository,
+                       List<TransactionListener> transactionListeners,
+                       AccountLaneExecutor accountLaneExecutor,
+                       AccountCache accountCache,
+                       ServiceMetrics serviceMetrics,
+                       ConsistencyProperties properties,
+                       MeterRegistry meterRegistry) {
+        this.bankAccountReactiveRepository = bankAccountReactiveRepository;
+        this.transactionReactiveRepository = transactionReactiveRepository;
+        this.transactionListeners = transactionListeners;
+        this.accountLaneExecutor = accountLaneExecutor;
+        this.accountCache = accountCache;
+        this.serviceMetrics = serviceMetrics;
+        this.properties = properties;
+        this.drained = Counter.builder("audit.outbox.drained")
+                .description("Pending audit entries copied to the transactions collection")
+                .register(meterRegistry);
+        this.failures = Counter.builder("audit.outbox.failures")
+                .description("Outbox drains that failed and were left to the sweep")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Drains the account in the background; the caller does not wait for the audit records.
+     */
+    public void schedule(UUID accountId) {
+        accountLaneExecutor.execute(accountId, () -> drain(accountId))
+                .subscribe(count -> { }, error -> {
+                    failures.increment();
+                    log.warn("Outbox drain failed for account {}", accountId, error);
+                });
+    }
+
+    /**
+     * Drains the account now and emits the number of entries copied.
+     */
+    public Mono<Long> drain(UUID accountId) {
+        return bankAccountReactiveRepository.findById(accountId)
+                .flatMap(this::drain)
+                .defaultIfEmpty(0L);
+    }
+
+    /**
+     * Drains every account that still has pending entries and emits the total copied.
+     */
+    public Mono<Long> sweep() {
+        return bankAccountReactiveRepository.findWithPendingTransactions()
+                .concatMap(account -> accountLaneExecutor.execute(account.getId(), () -> drain(account.getId()))
+                        .onErrorResume(error -> {
+                            failures.increment();
+                            log.warn("Outbox sweep failed for account {}", account.getId(), error);
+                            return Mono.just(0L);
+                        }))
+                .reduce(0L, Long::sum);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startSweeper() {
+        if (properties.getMode() != ConsistencyProperties.Mode.OUTBOX) {
+            return;
+        }
+        sweeper = Flux.interval(properties.getOutboxSweepInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> sweep(), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stopSweeper() {
+        if (sweeper != null) {
+            sweeper.dispose();
+        }
+    }
+
+    private Mono<Long> drain(BankAccount account) {
+        List<PendingTransaction> pending = account.getPendingTransactions();
+        if (pending == null || pending.isEmpty()) {
+            return Mono.just(0L);
+        }
+
+        return Flux.fromIterable(pending)
+                .concatMap(entry -> insertOnce(toTransaction(account, entry)))
+                .then(bankAccountReactiveRepository.removePendingTransactions(account.getId(),
+                        pending.stream().map(PendingTransaction::getTransactionId).toList()))
+                // The removal bumped the version, so a cached copy would fail its next save.
+                .doOnSuccess(done -> accountCache.invalidate(account.getId()))
+                .then(Mono.fromSupplier(() -> {
+                    drained.increment(pending.size());
+                    return (long) pending.size();
+                }));
+    }
+
+    // Listeners only see a record the first time it is inserted.
+    private Mono<Void> insertOnce(Transaction transaction) {
+        return transactionReactiveRepository.insert(transaction)
+                .flatMap(saved -> Flux.fromIterable(transactionListeners)
+                        .concatMap(listener -> listener.onTransaction(saved))
+                        .then(Mono.fromRunnable(() -> serviceMetrics.recordAmount(saved.getType(), saved.getAmount()))))
+                .onErrorResume(DuplicateKeyException.class, e -> Mono.empty())
+                .then();
+    }
+
+    private static Transaction toTransaction(BankAccount account, PendingTransaction entry) {
+        return new Transaction(entry.getTransactionId(), account.getId(), account.getNumberAccount(), entry.getType(),
+                entry.getAmount(), entry.getPreviousBalance(), entry.getCurrentBalance(), entry.getTransactionDate());
+    }
+}
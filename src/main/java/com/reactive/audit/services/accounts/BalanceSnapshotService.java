@@ -0,0 +1,13 @@
+package com.reactive.audit.services.accounts;
+
+import com.reactive.audit.DTO.res.BankAccountResponseDTO;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface BalanceSnapshotService {
+    Mono<BankAccountResponseDTO> getBalanceAt(UUID accountId, LocalDateTime timestamp);
+
+    Mono<BankAccountResponseDTO> rebuildSnapshots();
+}
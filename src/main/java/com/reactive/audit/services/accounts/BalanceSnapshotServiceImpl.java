@@ -0,0 +1,128 @@
+package com.reactive.audit.services.accounts;
+
+import com.reactive.audit.DTO.res.BalanceAtDTO;
+import com.reactive.audit.DTO.res.BankAccountResponseDTO;
+import com.reactive.audit.config.SnapshotProperties;
+import com.reactive.audit.model.BalanceSnapshot;
+import com.reactive.audit.model.Transaction;
+import com.reactive.audit.repositories.BalanceSnapshotReactiveRepository;
+import com.reactive.audit.repositories.BankAccountReactiveRepository;
+import com.reactive.audit.repositories.TransactionReactiveRepository;
+import com.reactive.audit.services.transactions.TransactionListener;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@AllArgsConstructor
+public class BalanceSnapshotServiceImpl implements BalanceSnapshotService, TransactionListener {
+
+    @Autowired
+    private BalanceSnapshotReactiveRepository balanceSnapshotReactiveRepository;
+
+    @Autowired
+    private TransactionReactiveRepository transactionReactiveRepository;
+
+    @Autowired
+    private BankAccountReactiveRepository bankAccountReactiveRepository;
+
+    @Autowired
+    private SnapshotProperties snapshotProperties;
+
+    @Autowired
+    private AccountLaneExecutor accountLaneExecutor;
+
+    // A failed update only leaves the snapshot stale until the next rebuild; it must not fail the transaction.
+    @Override
+    public Mono<Void> onTransaction(Transaction transaction) {
+        return balanceSnapshotReactiveRepository.applyTransaction(transaction)
+                .onErrorResume(e -> {
+                    log.warn("Could not update balance snapshot for account {}", transaction.getAccountId(), e);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Reads the last snapshot on or before the day of {@code timestamp}. For an earlier day its closing
+     * balance is the answer (no transaction happened in between); for the same day the opening balance
+     * is replayed with that day's transactions up to {@code timestamp}.
+     */
+    @Override
+    public Mono<BankAccountResponseDTO> getBalanceAt(UUID accountId, LocalDateTime timestamp) {
+        String day = BalanceSnapshot.dayOf(timestamp);
+
+        return balanceSnapshotReactiveRepository.findFirstByAccountIdAndDayLessThanEqualOrderByDayDesc(accountId, day)
+                .flatMap(snapshot -> snapshot.getDay().equals(day)
+                        ? replaySameDay(snapshot, timestamp)
+                        : Mono.just(snapshot.getClosingBalance()))
+                .switchIfEmpty(Mono.defer(() -> balanceBeforeFirstSnapshot(accountId, day)))
+                .map(balance -> BankAccountResponseDTO.buildSuccess("Balance found.", new BalanceAtDTO(accountId, timestamp, balance)))
+                .defaultIfEmpty(BankAccountResponseDTO.buildError("Account not found."));
+    }
+
+    private Mono<Long> replaySameDay(BalanceSnapshot snapshot, LocalDateTime timestamp) {
+        return transactionReactiveRepository.findBalanceChanges(
+                        snapshot.getAccountId(), timestamp.toLocalDate().atStartOfDay(), timestamp)
+                .reduce(snapshot.getOpeningBalance(),
+                        (balance, transaction) -> balance + transaction.getCurrentBalance() - transaction.getPreviousBalance());
+    }
+
+    // Nothing happened up to that day: the account either had its first transaction later, or none at all.
+    private Mono<Long> balanceBeforeFirstSnapshot(UUID accountId, String day) {
+        return balanceSnapshotReactiveRepository.findFirstByAccountIdAndDayGreaterThanOrderByDayAsc(accountId, day)
+                .map(BalanceSnapshot::getOpeningBalance)
+                .switchIfEmpty(Mono.defer(() -> bankAccountReactiveRepository.findById(accountId)
+                        .map(account -> account.getBalance())));
+    }
+
+    /**
+     * Recomputes every account's snapshots from its transactions. Accounts are processed in parallel
+     * ({@code audit.snapshots.rebuild-concurrency}); each one is a single ordered read of its history.
+     * Each account is rebuilt on its {@link AccountLaneExecutor} lane, where its transactions reach
+     * {@link #onTransaction}, so no incremental update lands between the delete and the rewrite.
+     */
+    @Override
+    public Mono<BankAccountResponseDTO> rebuildSnapshots() {
+        return bankAccountReactiveRepository.findAll()
+                .flatMap(account -> rebuildAccount(account.getId()), snapshotProperties.getRebuildConcurrency())
+                .reduce(0L, Long::sum)
+                .map(count -> BankAccountResponseDTO.buildSuccess("Snapshots rebuilt.", count));
+    }
+
+    private Mono<Long> rebuildAccount(UUID accountId) {
+        return accountLaneExecutor.execute(accountId, () -> balanceSnapshotReactiveRepository.deleteByAccountId(accountId)
+                .thenMany(transactionReactiveRepository.findByAccountIdOrderByTransactionDateAsc(accountId)
+                        .bufferUntilChanged(transaction -> BalanceSnapshot.dayOf(transaction.getTransactionDate()))
+                        .map(BalanceSnapshotServiceImpl::snapshotOf)
+                        .buffer(snapshotProperties.getRebuildChunkSize())
+                        .concatMap(chunk -> balanceSnapshotReactiveRepository.saveAll(chunk).count()))
+                .reduce(0L, Long::sum));
+    }
+
+    private static BalanceSnapshot snapshotOf(List<Transaction> day) {
+        Transaction first = day.get(0);
+        Transaction last = day.get(day.size() - 1);
+        String dayKey = BalanceSnapshot.dayOf(first.getTransactionDate());
+        long netChange = day.stream()
+                .mapToLong(transaction -> transaction.getCurrentBalance() - transaction.getPreviousBalance())
+                .sum();
+
+        return new BalanceSnapshot(
+                BalanceSnapshot.idOf(first.getAccountId(), dayKey),
+                first.getAccountId(),
+                dayKey,
+                first.getPreviousBalance(),
+                last.getCurrentBalance(),
+                netChange,
+                day.size(),
+                first.getTransactionDate(),
+                last.getTransactionDate());
+    }
+}
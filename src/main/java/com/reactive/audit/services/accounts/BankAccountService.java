@@ -3,6 +3,7 @@ package com.reactive.audit.services.accounts;
 import com.reactive.audit.DTO.req.BankAccountRequestDTO;
 import com.reactive.audit.DTO.res.BankAccountResponseDTO;
 import com.reactive.audit.model.BankAccount;
+import org.springframework.http.codec.ServerSentEvent;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -10,9 +11,13 @@ import java.util.UUID;
 
 public interface BankAccountService {
 
-    Flux<Double> streamBalanceByAccountNumber(String numberAccount);
+    Flux<ServerSentEvent<String>> streamBalanceByAccountNumber(String numberAccount, String resumeToken);
 
-    Mono<BankAccountResponseDTO> getAllAccounts();
+    Mono<BankAccountResponseDTO> getAccountsPage(String cursor, int size);
+
+    Flux<BankAccount> streamAllAccounts();
+
+    Mono<BankAccountResponseDTO> getAccount(UUID accountId);
 
     Mono<BankAccountResponseDTO> createAccount(BankAccountRequestDTO requestDTO);
 
@@ -20,7 +25,7 @@ public interface BankAccountService {
 
     Mono<BankAccountResponseDTO> deleteAccount(UUID accountId);
 
-    Mono<BankAccountResponseDTO> depositMoney(UUID accountId, double amount);
+    Mono<BankAccountResponseDTO> depositMoney(UUID accountId, long amount);
 
-    Mono<BankAccountResponseDTO> withdrawMoney(UUID accountId, double amount);
+    Mono<BankAccountResponseDTO> withdrawMoney(UUID accountId, long amount);
 }
@@ -1,168 +1,318 @@
 package com.reactive.audit.services.accounts;
 
+import com.mongodb.MongoException;
 import com.reactive.audit.DTO.req.BankAccountRequestDTO;
 import com.reactive.audit.DTO.req.TransactionRequestDTO;
 import com.reactive.audit.DTO.res.BankAccountResponseDTO;
+import com.reactive.audit.DTO.res.CursorPageDTO;
+import com.reactive.audit.config.ConsistencyProperties;
+import com.reactive.audit.model.BalanceUpdate;
 import com.reactive.audit.model.BankAccount;
+import com.reactive.audit.model.Money;
 import com.reactive.audit.model.Transaction;
 import com.reactive.audit.repositories.BankAccountReactiveRepository;
-import com.reactive.audit.repositories.TransactionReactiveRepository;
+import com.reactive.audit.services.ServiceMetrics;
+import com.reactive.audit.services.fraud.FraudRuleEngine;
+import com.reactive.audit.services.transactions.RollingStatsEngine;
 import com.reactive.audit.services.transactions.TransactionService;
+import com.reactive.audit.services.transactions.TransactionStreamHub;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @Service
 @AllArgsConstructor
 public class BankAccountServiceImpl implements BankAccountService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final String OPERATIONS_METRIC = "audit.accounts.operations";
+    private static final String ACCOUNT_NOT_FOUND = "Account not found.";
+    private static final String INSUFFICIENT_FUNDS = "Insufficient funds.";
+    private static final String CONCURRENT_MODIFICATION = "Account was modified concurrently.";
+    private static final String DUPLICATE_NUMBER_ACCOUNT = "Account number already exists.";
+
     @Autowired
     private BankAccountReactiveRepository bankAccountReactiveRepository;
 
     @Autowired
-    private TransactionReactiveRepository transactionReactiveRepository;
+    private TransactionStreamHub transactionStreamHub;
 
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private AccountCache accountCache;
+
+    @Autowired
+    private ServiceMetrics serviceMetrics;
+
+    @Autowired
+    private AccountLaneExecutor accountLaneExecutor;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private ConsistencyProperties consistencyProperties;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Autowired
+    private AuditOutbox auditOutbox;
+
+    @Autowired
+    private FraudRuleEngine fraudRuleEngine;
+
+    @Autowired
+    private RollingStatsEngine rollingStatsEngine;
+
+    // The balance is written as the plain minor-unit number: a String payload skips the JSON encoder per event.
     @Override
-    public Flux<Double> streamBalanceByAccountNumber(String numberAccount) {
-        return transactionReactiveRepository.findWithTailableCursorByNumberAccount(numberAccount)
-                .map(Transaction::getCurrentBalance)
-                .switchIfEmpty(Flux.error(new RuntimeException("No transactions found for account " + numberAccount)));
+    public Flux<ServerSentEvent<String>> streamBalanceByAccountNumber(String numberAccount, String resumeToken) {
+        return transactionStreamHub.subscribe(numberAccount, resumeToken)
+                .map(event -> ServerSentEvent.builder(Long.toString(event.getTransaction().getCurrentBalance()))
+                        .id(event.getResumeToken())
+                        .build());
     }
 
-//    @Override
-//    public Flux<BankAccount> streamBalanceByAccountNumber(String numberAccount) {
-//        return bankAccountReactiveRepository.findWithTailableCursorByNumberAccount(numberAccount);
-//    }
+    @Override
+    public Mono<BankAccountResponseDTO> getAccountsPage(String cursor, int size) {
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            return Mono.just(BankAccountResponseDTO.buildError("Page size must be between 1 and " + MAX_PAGE_SIZE + "."));
+        }
 
+        UUID after;
+        try {
+            after = cursor == null ? null : UUID.fromString(cursor);
+        } catch (IllegalArgumentException e) {
+            return Mono.just(BankAccountResponseDTO.buildError("Invalid cursor."));
+        }
+
+        Pageable page = PageRequest.of(0, size, Sort.by("id"));
+        Flux<BankAccount> accounts = after == null
+                ? bankAccountReactiveRepository.findAllBy(page)
+                : bankAccountReactiveRepository.findByIdGreaterThan(after, page);
+
+        return accounts.collectList()
+                .map(items -> BankAccountResponseDTO.buildSuccess("Accounts found.", new CursorPageDTO<>(
+                        items,
+                        items.size() < size ? null : items.get(items.size() - 1).getId().toString())));
+    }
+
+    @Override
+    public Flux<BankAccount> streamAllAccounts() {
+        return bankAccountReactiveRepository.findAll();
+    }
 
+    // Served by the account cache; concurrent reads of an uncached account share one findById.
     @Override
-    public Mono<BankAccountResponseDTO> getAllAccounts() {
-        return bankAccountReactiveRepository.findAll()
-                .collectList()
-                .map(accounts -> BankAccountResponseDTO.buildSuccess("Accounts found.", accounts));
+    public Mono<BankAccountResponseDTO> getAccount(UUID accountId) {
+        return serviceMetrics.timed(OPERATIONS_METRIC, "get", BankAccountServiceImpl::outcomeOf,
+                accountCache.findById(accountId, bankAccountReactiveRepository::findById)
+                        .map(account -> BankAccountResponseDTO.buildSuccess("Account found.", account))
+                        .defaultIfEmpty(BankAccountResponseDTO.buildError(ACCOUNT_NOT_FOUND)));
     }
 
     @Override
     public Mono<BankAccountResponseDTO> createAccount(BankAccountRequestDTO account) {
+        return serviceMetrics.timed(OPERATIONS_METRIC, "create", BankAccountServiceImpl::outcomeOf, create(account));
+    }
+
+    private Mono<BankAccountResponseDTO> create(BankAccountRequestDTO account) {
         BankAccount newAccount = new BankAccount();
         newAccount.setNumberAccount(account.getNumberAccount());
         newAccount.setBalance(account.getBalance());
         newAccount.setType(account.getType());
 
         return bankAccountReactiveRepository.save(newAccount)
-                .map(savedAccount -> BankAccountResponseDTO.buildSuccess("Account created successfully.", savedAccount));
+                .doOnNext(accountCache::put)
+                .map(savedAccount -> BankAccountResponseDTO.buildSuccess("Account created successfully.", savedAccount))
+                .onErrorResume(DuplicateKeyException.class,
+                        e -> Mono.just(BankAccountResponseDTO.buildError(DUPLICATE_NUMBER_ACCOUNT)));
     }
 
     @Override
     public Mono<BankAccountResponseDTO> updateAccount(UUID accountId, BankAccountRequestDTO account) {
-        return bankAccountReactiveRepository.findById(accountId)
-                .flatMap(existingAccount -> {
-                    existingAccount.setNumberAccount(account.getNumberAccount());
-                    existingAccount.setBalance(account.getBalance());
-                    existingAccount.setType(account.getType());
+        return serviceMetrics.timed(OPERATIONS_METRIC, "update", BankAccountServiceImpl::outcomeOf,
+                accountLaneExecutor.execute(accountId, () -> update(accountId, account)));
+    }
 
-                    return bankAccountReactiveRepository.save(existingAccount)
-                            .map(updatedAccount -> BankAccountResponseDTO.buildSuccess("Account updated successfully.", updatedAccount));
-                })
-                .defaultIfEmpty(BankAccountResponseDTO.buildError("Account not found."));
+    // A stale cached or concurrently modified account fails the version check; the retry re-reads it.
+    // The balance is not taken from the request: it only moves through audited deposits and withdrawals,
+    // and a retried save would otherwise write back a value read before a concurrent deposit.
+    private Mono<BankAccountResponseDTO> update(UUID accountId, BankAccountRequestDTO account) {
+        return optimisticRetry.execute("update", () -> accountCache.findById(accountId, bankAccountReactiveRepository::findById)
+                        .flatMap(existingAccount -> {
+                            existingAccount.setNumberAccount(account.getNumberAccount());
+                            existingAccount.setType(account.getType());
+
+                            return bankAccountReactiveRepository.save(existingAccount)
+                                    .doOnNext(accountCache::put)
+                                    .doOnError(e -> accountCache.invalidate(accountId));
+                        }))
+                .map(updatedAccount -> BankAccountResponseDTO.buildSuccess("Account updated successfully.", updatedAccount))
+                .defaultIfEmpty(BankAccountResponseDTO.buildError(ACCOUNT_NOT_FOUND))
+                .onErrorResume(OptimisticLockingFailureException.class,
+                        e -> Mono.just(BankAccountResponseDTO.buildError(CONCURRENT_MODIFICATION)))
+                .onErrorResume(DuplicateKeyException.class,
+                        e -> Mono.just(BankAccountResponseDTO.buildError(DUPLICATE_NUMBER_ACCOUNT)));
     }
 
     @Override
     public Mono<BankAccountResponseDTO> deleteAccount(UUID accountId) {
-        return bankAccountReactiveRepository.findById(accountId)
-                .flatMap(existingAccount ->
-                    bankAccountReactiveRepository.delete(existingAccount)
-                        .then(Mono.just(BankAccountResponseDTO.buildSuccess("Account deleted successfully.", null)))
-                )
-                .defaultIfEmpty(BankAccountResponseDTO.buildError("Account not found."));
+        return serviceMetrics.timed(OPERATIONS_METRIC, "delete", BankAccountServiceImpl::outcomeOf,
+                accountLaneExecutor.execute(accountId, () -> delete(accountId)));
+    }
+
+    // Pending outbox entries are drained first, so deleting the account does not lose its audit records.
+    private Mono<BankAccountResponseDTO> delete(UUID accountId) {
+        Mono<Long> drained = consistencyProperties.getMode() == ConsistencyProperties.Mode.OUTBOX
+                ? auditOutbox.drain(accountId)
+                : Mono.just(0L);
+
+        return optimisticRetry.execute("delete", () -> drained.then(accountCache.findById(accountId, bankAccountReactiveRepository::findById))
+                        .flatMap(existingAccount -> bankAccountReactiveRepository.delete(existingAccount)
+                                .doFinally(signal -> accountCache.invalidate(accountId))
+                                .then(Mono.just(BankAccountResponseDTO.buildSuccess("Account deleted successfully.", null)))))
+                .defaultIfEmpty(BankAccountResponseDTO.buildError(ACCOUNT_NOT_FOUND))
+                .onErrorResume(OptimisticLockingFailureException.class,
+                        e -> Mono.just(BankAccountResponseDTO.buildError(CONCURRENT_MODIFICATION)));
     }
 
     @Override
-    public Mono<BankAccountResponseDTO> depositMoney(UUID accountId, double amount) {
+    public Mono<BankAccountResponseDTO> depositMoney(UUID accountId, long amount) {
+        return serviceMetrics.timed(OPERATIONS_METRIC, "deposit", BankAccountServiceImpl::outcomeOf,
+                accountLaneExecutor.execute(accountId, () -> deposit(accountId, amount)));
+    }
+
+    private Mono<BankAccountResponseDTO> deposit(UUID accountId, long amount) {
         if (amount <= 0) {
             return Mono.just(BankAccountResponseDTO.buildError("Invalid deposit amount"));
         }
 
-        return bankAccountReactiveRepository.findById(accountId)
-                .flatMap(account -> {
-                    String numberAccount = account.getNumberAccount();
-                    double previousBalance = account.getBalance();
-                    double newBalance = previousBalance + amount;
-
-                    account.setBalance(newBalance);
-
-                    return bankAccountReactiveRepository.save(account)
-                            .flatMap(savedAccount ->
-                                createTransactionAndRespond(
-                                    "DEPOSIT",
-                                    accountId,
-                                    numberAccount,
-                                    amount,
-                                    previousBalance,
-                                    newBalance,
-                                    savedAccount
-                                )
-                            );
-                }).
-                defaultIfEmpty(BankAccountResponseDTO.buildError("Account not found."));
+        return auditedUpdate("DEPOSIT", accountId, amount,
+                        () -> bankAccountReactiveRepository.depositBalance(accountId, amount),
+                        () -> bankAccountReactiveRepository.depositBalanceWithOutbox(accountId, amount))
+                .map(balanceUpdate -> respond("DEPOSIT", amount, balanceUpdate))
+                .defaultIfEmpty(BankAccountResponseDTO.buildError(ACCOUNT_NOT_FOUND));
     }
 
     @Override
-    public Mono<BankAccountResponseDTO> withdrawMoney(UUID accountId, double amount) {
+    public Mono<BankAccountResponseDTO> withdrawMoney(UUID accountId, long amount) {
+        return serviceMetrics.timed(OPERATIONS_METRIC, "withdraw", BankAccountServiceImpl::outcomeOf,
+                accountLaneExecutor.execute(accountId, () -> withdraw(accountId, amount)));
+    }
+
+    private Mono<BankAccountResponseDTO> withdraw(UUID accountId, long amount) {
         if (amount <= 0) {
             return Mono.just(BankAccountResponseDTO.buildError("Invalid withdrawal amount."));
         }
 
-        return bankAccountReactiveRepository.findById(accountId)
-                .flatMap(account -> {
-                    double previousBalance = account.getBalance();
-                    String numberAccount = account.getNumberAccount();
-
-                    if (amount > previousBalance) {
-                        return Mono.just(BankAccountResponseDTO.buildError("Insufficient funds."));
-                    }
-
-                    double newBalance = previousBalance - amount;
-                    account.setBalance(newBalance);
-
-                    return bankAccountReactiveRepository.save(account)
-                            .flatMap(savedAccount ->
-                                createTransactionAndRespond(
-                                    "WITHDRAWAL",
-                                    accountId,
-                                    numberAccount,
-                                    amount,
-                                    previousBalance,
-                                    newBalance,
-                                    savedAccount
-                                )
-                            );
-                })
-                .defaultIfEmpty(BankAccountResponseDTO.buildError("Account not found."));
-    }
-
-    private Mono<BankAccountResponseDTO> createTransactionAndRespond(
-            String type, UUID accountId, String numberAccount, double amount,
-            double previousBalance, double newBalance, BankAccount savedAccount) {
-
-        return transactionService.createTransaction(TransactionRequestDTO.builder()
-                        .accountId(accountId)
-                        .numberAccount(numberAccount)
-                        .type(type)
-                        .amount(amount)
-                        .previousBalance(previousBalance)
-                        .currentBalance(newBalance)
-                        .build())
-                .thenReturn(BankAccountResponseDTO.buildSuccess(
-                        "Transaction type: " + type + ". Amount: " + amount + " . Current Balance: " + newBalance, savedAccount));
+        // Authorized by the guarded update in Mongo only; a cached balance is never consulted here.
+        return auditedUpdate("WITHDRAWAL", accountId, amount,
+                        () -> bankAccountReactiveRepository.withdrawBalance(accountId, amount),
+                        () -> bankAccountReactiveRepository.withdrawBalanceWithOutbox(accountId, amount))
+                .map(balanceUpdate -> respond("WITHDRAWAL", amount, balanceUpdate))
+                .switchIfEmpty(Mono.defer(() -> bankAccountReactiveRepository.existsById(accountId)
+                        .map(exists -> exists
+                                ? BankAccountResponseDTO.buildError(INSUFFICIENT_FUNDS)
+                                : BankAccountResponseDTO.buildError(ACCOUNT_NOT_FOUND))));
     }
 
+    private static String outcomeOf(BankAccountResponseDTO response) {
+        if (response.isSuccess()) {
+            return "success";
+        }
+        return switch (response.getMessage()) {
+            case INSUFFICIENT_FUNDS -> "insufficient_funds";
+            case ACCOUNT_NOT_FOUND -> "not_found";
+            case CONCURRENT_MODIFICATION -> "conflict";
+            case DUPLICATE_NUMBER_ACCOUNT -> "duplicate";
+            default -> response.getMessage().startsWith("Invalid") ? "invalid_amount" : "rejected";
+        };
+    }
 
+    /**
+     * Applies a balance update together with its audit record as configured by
+     * {@code audit.consistency.mode}: NONE writes them one after the other, TRANSACTION commits both
+     * in one Mongo transaction, and OUTBOX writes the entry inside the account for {@link AuditOutbox}.
+     * The cache only sees the account once the update and its record are durable, and only applied
+     * operations are screened by the fraud rules and counted in the rolling statistics, once each
+     * even when a transaction was retried. For the same reason, TRANSACTION notifies the transaction
+     * listeners and counts the amount only after the commit.
+     */
+    private Mono<BalanceUpdate> auditedUpdate(String type, UUID accountId, long amount,
+                                              Supplier<Mono<BalanceUpdate>> update,
+                                              Supplier<Mono<BalanceUpdate>> outboxUpdate) {
+        Mono<BalanceUpdate> audited = switch (consistencyProperties.getMode()) {
+            case NONE -> Mono.defer(update)
+                    .flatMap(balanceUpdate -> createTransaction(type, accountId, amount, balanceUpdate));
+            case TRANSACTION -> transactionalOperator.transactional(Mono.defer(update)
+                            .flatMap(balanceUpdate -> transactionService.insertTransaction(recordOf(type, accountId, amount, balanceUpdate))
+                                    .map(record -> new Committed(balanceUpdate, record))))
+                    .retryWhen(Retry.max(consistencyProperties.getTransactionRetries())
+                            .filter(BankAccountServiceImpl::isTransientTransactionError))
+                    // Listeners and amount metrics only see the attempt that committed.
+                    .flatMap(committed -> transactionService.publishTransaction(committed.record())
+                            .thenReturn(committed.balanceUpdate()));
+            case OUTBOX -> Mono.defer(outboxUpdate)
+                    .doOnNext(balanceUpdate -> auditOutbox.schedule(accountId));
+        };
+
+        return audited
+                .doOnNext(balanceUpdate -> accountCache.put(balanceUpdate.getAccount()))
+                .doOnNext(balanceUpdate -> fraudRuleEngine.evaluate(type, accountId, balanceUpdate.getAccount().getNumberAccount(), amount))
+                .doOnNext(balanceUpdate -> rollingStatsEngine.record(accountId, type, amount))
+                .doOnError(e -> accountCache.invalidate(accountId));
+    }
+
+    private Mono<BalanceUpdate> createTransaction(String type, UUID accountId, long amount, BalanceUpdate balanceUpdate) {
+        return transactionService.createTransaction(recordOf(type, accountId, amount, balanceUpdate))
+                .thenReturn(balanceUpdate);
+    }
+
+    private static TransactionRequestDTO recordOf(String type, UUID accountId, long amount, BalanceUpdate balanceUpdate) {
+        return TransactionRequestDTO.builder()
+                .accountId(accountId)
+                .numberAccount(balanceUpdate.getAccount().getNumberAccount())
+                .type(type)
+                .amount(amount)
+                .previousBalance(balanceUpdate.getPreviousBalance())
+                .currentBalance(balanceUpdate.getCurrentBalance())
+                .build();
+    }
+
+    // Only whole-transaction aborts are retried; an unknown commit result may already have been applied.
+    static boolean isTransientTransactionError(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException mongoException
+                    && mongoException.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static BankAccountResponseDTO respond(String type, long amount, BalanceUpdate balanceUpdate) {
+        return BankAccountResponseDTO.buildSuccess(
+                "Transaction type: " + type + ". Amount: " + Money.format(amount) + " . Current Balance: " + Money.format(balanceUpdate.getCurrentBalance()),
+                balanceUpdate.getAccount());
+    }
+
+    private record Committed(BalanceUpdate balanceUpdate, Transaction record) {
+    }
 }
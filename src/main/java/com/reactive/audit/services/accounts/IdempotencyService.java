@@ -0,0 +1,167 @@
+package com.reactive.audit.services.accounts;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.reactive.audit.DTO.res.BankAccountResponseDTO;
+import com.reactive.audit.config.IdempotencyProperties;
+import com.reactive.audit.model.IdempotencyRecord;
+import com.reactive.audit.repositories.IdempotencyRecordReactiveRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Runs an account operation at most once per {@code Idempotency-Key}.
+ * <p>
+ * The first request claims the key in {@code idempotency_keys}, runs the operation and stores its
+ * response. A local cache keeps the cached {@code Mono} per key, so duplicates that arrive while
+ * the first request is still running join it, and later duplicates are answered from memory with
+ * no Mongo round trip. Duplicates that miss the cache (another instance, eviction) are replayed
+ * from the stored record. A key reused for a different request is rejected.
+ * <p>
+ * Once claimed, the operation and its record run to completion even if the caller goes away, so
+ * a key is never left in progress until it expires.
+ */
+@Slf4j
+@Component
+public class IdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 255;
+    static final String UNKNOWN_OUTCOME = "The request failed and may have been applied. Check the account before retrying with a new Idempotency-Key.";
+
+    private final IdempotencyRecordReactiveRepository idempotencyRecordReactiveRepository;
+    private final IdempotencyProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, Entry> entries;
+
+    public IdempotencyService(IdempotencyRecordReactiveRepository idempotencyRecordReactiveRepository,
+                              IdempotencyProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.idempotencyRecordReactiveRepository = idempotencyRecordReactiveRepository;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(properties.getCacheMaximumSize())
+                .expireAfterWrite(properties.getCacheTtl())
+                .build();
+    }
+
+    /**
+     * Runs {@code operation} unless a request with the same key was already seen. Without a key
+     * the operation simply runs. {@code fingerprint} identifies the request the key was used for.
+     */
+    public Mono<BankAccountResponseDTO> execute(String key, String fingerprint, Supplier<Mono<BankAccountResponseDTO>> operation) {
+        if (key == null) {
+            return Mono.defer(operation);
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key must have between 1 and " + MAX_KEY_LENGTH + " characters."));
+        }
+
+        return Mono.defer(() -> {
+            boolean[] created = {false};
+            Entry entry = entries.get(key, k -> {
+                created[0] = true;
+                return newEntry(k, fingerprint, operation);
+            });
+            if (!entry.fingerprint().equals(fingerprint)) {
+                count("rejected");
+                return Mono.error(reusedKey());
+            }
+            if (created[0]) {
+                // Detached from the caller: a cancelled request still completes its operation and record.
+                entry.response().subscribe(response -> { }, error -> { });
+            } else {
+                count("cached");
+            }
+            return entry.response();
+        });
+    }
+
+    // The entry removes itself on failure, so a failed request can be retried with the same key.
+    private Entry newEntry(String key, String fingerprint, Supplier<Mono<BankAccountResponseDTO>> operation) {
+        AtomicReference<Entry> entry = new AtomicReference<>();
+        entry.set(new Entry(fingerprint, claim(key, fingerprint, operation)
+                .doOnError(e -> entries.asMap().remove(key, entry.get()))
+                .cache()));
+        return entry.get();
+    }
+
+    private Mono<BankAccountResponseDTO> claim(String key, String fingerprint, Supplier<Mono<BankAccountResponseDTO>> operation) {
+        IdempotencyRecord claim = new IdempotencyRecord(key, fingerprint, false, false, null, null,
+                LocalDateTime.now().plus(properties.getTtl()));
+
+        return idempotencyRecordReactiveRepository.insert(claim)
+                .map(inserted -> true)
+                .onErrorReturn(DuplicateKeyException.class, false)
+                .flatMap(claimed -> claimed
+                        ? run(claim, operation)
+                        : idempotencyRecordReactiveRepository.findById(key).flatMap(stored -> replay(stored, fingerprint)));
+    }
+
+    private Mono<BankAccountResponseDTO> run(IdempotencyRecord claim, Supplier<Mono<BankAccountResponseDTO>> operation) {
+        count("executed");
+        return Mono.defer(operation)
+                .onErrorResume(e -> failed(claim, e).then(Mono.error(e)))
+                .flatMap(response -> complete(claim, response.isSuccess(), response.getMessage(), response.getData())
+                        .thenReturn(response));
+    }
+
+    // Rejections (such as a full account lane) come before any write, so the key is released for a retry.
+    // Any other error may come after the balance moved: the key is kept and replays the failure instead.
+    private Mono<Void> failed(IdempotencyRecord claim, Throwable error) {
+        Mono<Void> write = error instanceof ResponseStatusException
+                ? idempotencyRecordReactiveRepository.deleteById(claim.getKey())
+                : complete(claim, false, UNKNOWN_OUTCOME, null);
+        return write.onErrorResume(e -> Mono.empty());
+    }
+
+    private Mono<Void> complete(IdempotencyRecord claim, boolean success, String message, Object data) {
+        claim.setCompleted(true);
+        claim.setSuccess(success);
+        claim.setMessage(message);
+        claim.setData(data);
+        return idempotencyRecordReactiveRepository.save(claim)
+                .doOnError(e -> log.warn("Could not store the response for Idempotency-Key {}", claim.getKey(), e))
+                .then();
+    }
+
+    private Mono<BankAccountResponseDTO> replay(IdempotencyRecord stored, String fingerprint) {
+        if (!stored.getFingerprint().equals(fingerprint)) {
+            count("rejected");
+            return Mono.error(reusedKey());
+        }
+        if (!stored.isCompleted()) {
+            count("in_progress");
+            return Mono.error(new ResponseStatusException(HttpStatus.CONFLICT,
+                    "A request with this Idempotency-Key is still in progress."));
+        }
+        count("stored");
+        return Mono.just(BankAccountResponseDTO.builder()
+                .success(stored.isSuccess())
+                .message(stored.getMessage())
+                .data(stored.getData())
+                .build());
+    }
+
+    private static ResponseStatusException reusedKey() {
+        return new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                "Idempotency-Key was already used for a different request.");
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("audit.idempotency.requests", "outcome", outcome).increment();
+    }
+
+    private record Entry(String fingerprint, Mono<BankAccountResponseDTO> response) {
+    }
+}
@@ -0,0 +1,42 @@
+package com.reactive.audit.services.accounts;
+
+import com.reactive.audit.config.OptimisticLockProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a read-modify-save of an account when its {@code @Version} check fails, with jittered
+ * exponential backoff up to {@code audit.accounts.optimistic.max-retries}. The supplier is invoked
+ * again on every attempt, so each retry starts from a fresh read.
+ */
+@Component
+public class OptimisticRetry {
+
+    private final OptimisticLockProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public OptimisticRetry(OptimisticLockProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> Mono<T> execute(String operation, Supplier<Mono<T>> attempt) {
+        Counter conflicts = meterRegistry.counter("audit.accounts.conflicts", "operation", operation);
+        Counter retries = meterRegistry.counter("audit.accounts.retries", "operation", operation);
+
+        return Mono.defer(attempt)
+                .doOnError(OptimisticLockingFailureException.class, e -> conflicts.increment())
+                .retryWhen(Retry.backoff(properties.getMaxRetries(), properties.getMinBackoff())
+                        .maxBackoff(properties.getMaxBackoff())
+                        .jitter(properties.getJitter())
+                        .filter(OptimisticLockingFailureException.class::isInstance)
+                        .doBeforeRetry(signal -> retries.increment())
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+}
@@ -0,0 +1,8 @@
+package com.reactive.audit.services.accounts;
+
+import com.reactive.audit.model.ReconciliationBreak;
+import reactor.core.publisher.Flux;
+
+public interface ReconciliationService {
+    Flux<ReconciliationBreak> reconcile();
+}
@@ -0,0 +1,164 @@
+package com.reactive.audit.services.accounts;
+
+import com.reactive.audit.config.AuditSchedulers;
+import com.reactive.audit.config.ReconciliationProperties;
+import com.reactive.audit.model.BankAccount;
+import com.reactive.audit.model.ReconciliationBreak;
+import com.reactive.audit.model.ReconciliationBreak.Kind;
+import com.reactive.audit.model.ReconciliationCheckpoint;
+import com.reactive.audit.model.Transaction;
+import com.reactive.audit.repositories.BankAccountReactiveRepository;
+import com.reactive.audit.repositories.ReconciliationCheckpointReactiveRepository;
+import com.reactive.audit.repositories.TransactionReactiveRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@AllArgsConstructor
+public class ReconciliationServiceImpl implements ReconciliationService {
+
+    private static final LocalDateTime CHAIN_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final UUID LOWEST_ID = new UUID(0L, 0L);
+
+    @Autowired
+    private BankAccountReactiveRepository bankAccountReactiveRepository;
+
+    @Autowired
+    private TransactionReactiveRepository transactionReactiveRepository;
+
+    @Autowired
+    private ReconciliationCheckpointReactiveRepository reconciliationCheckpointReactiveRepository;
+
+    @Autowired
+    private ReconciliationProperties reconciliationProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AuditSchedulers auditSchedulers;
+
+    /**
+     * Verifies the balance chain of every account, {@code audit.reconciliation.concurrency} accounts at a
+     * time. Each account streams only the transactions after its checkpoint, so a run costs the records
+     * written since the previous one. Transactions newer than {@code settle-delay} are left for the next run.
+     */
+    @Override
+    public Flux<ReconciliationBreak> reconcile() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(reconciliationProperties.getSettleDelay());
+
+        return bankAccountReactiveRepository.findAll()
+                .flatMap(account -> reconcileAccount(account, cutoff), reconciliationProperties.getConcurrency())
+                .doOnNext(reconciliationBreak -> meterRegistry
+                        .counter("audit.reconciliation.breaks", "kind", reconciliationBreak.getKind().name())
+                        .increment());
+    }
+
+    private Flux<ReconciliationBreak> reconcileAccount(BankAccount account, LocalDateTime cutoff) {
+        return reconciliationCheckpointReactiveRepository.findById(account.getId())
+                .defaultIfEmpty(new ReconciliationCheckpoint(account.getId(), null, null, null, 0L, null))
+                .flatMapMany(checkpoint -> {
+                    // Only touched from the sequential concatMap below.
+                    Chain chain = new Chain(checkpoint);
+                    return transactionReactiveRepository.findChainAfter(account.getId(),
+                                    checkpoint.getLastTransactionDate() != null ? checkpoint.getLastTransactionDate() : CHAIN_START,
+                                    checkpoint.getLastTransactionId() != null ? checkpoint.getLastTransactionId() : LOWEST_ID,
+                                    cutoff)
+                            // Chain checks run on the CPU scheduler instead of the driver threads that serve requests.
+                            .publishOn(auditSchedulers.cpu())
+                            .concatMap(transaction -> {
+                                List<ReconciliationBreak> breaks = chain.verify(transaction);
+                                Mono<ReconciliationCheckpoint> save = chain.pending >= reconciliationProperties.getCheckpointEvery()
+                                        ? saveCheckpoint(chain)
+                                        : Mono.empty();
+                                return save.thenMany(Flux.fromIterable(breaks));
+                            })
+                            .concatWith(Mono.defer(() -> chain.pending > 0 ? saveCheckpoint(chain) : Mono.<ReconciliationCheckpoint>empty())
+                                    .then(Mono.defer(() -> verifyAccountBalance(account, chain, cutoff))));
+                });
+    }
+
+    private Mono<ReconciliationCheckpoint> saveCheckpoint(Chain chain) {
+        chain.pending = 0;
+        chain.checkpoint.setUpdatedAt(LocalDateTime.now());
+        return reconciliationCheckpointReactiveRepository.save(chain.checkpoint);
+    }
+
+    // Only comparable when nothing was written after the cutoff and no outbox entry is still
+    // waiting to be drained; otherwise the next run checks it.
+    private Mono<ReconciliationBreak> verifyAccountBalance(BankAccount account, Chain chain, LocalDateTime cutoff) {
+        Long lastBalance = chain.checkpoint.getLastBalance();
+        boolean pendingAudit = account.getPendingTransactions() != null && !account.getPendingTransactions().isEmpty();
+        if (lastBalance == null || lastBalance == account.getBalance() || pendingAudit) {
+            return Mono.empty();
+        }
+        return transactionReactiveRepository.existsByAccountIdAndTransactionDateGreaterThan(account.getId(), cutoff)
+                .filter(newer -> !newer)
+                .map(newer -> new ReconciliationBreak(Kind.BALANCE_MISMATCH, account.getId(),
+                        chain.checkpoint.getLastTransactionId(), chain.checkpoint.getLastTransactionDate(),
+                        lastBalance, account.getBalance()));
+    }
+
+    // Sign applied to the amount of each transaction type; unknown types skip the amount check.
+    private static long directionOf(String type) {
+        if (type == null) {
+            return 0;
+        }
+        return switch (type) {
+            case "DEPOSIT", "TRANSFER_IN", "TRANSFER_REVERSAL" -> 1;
+            case "WITHDRAWAL", "TRANSFER_OUT" -> -1;
+            default -> 0;
+        };
+    }
+
+    private final class Chain {
+
+        private final ReconciliationCheckpoint checkpoint;
+        private int pending;
+
+        private Chain(ReconciliationCheckpoint checkpoint) {
+            this.checkpoint = checkpoint;
+        }
+
+        private List<ReconciliationBreak> verify(Transaction transaction) {
+            List<ReconciliationBreak> breaks = new ArrayList<>(1);
+            Long lastBalance = checkpoint.getLastBalance();
+
+            if (lastBalance != null && lastBalance != transaction.getPreviousBalance()) {
+                breaks.add(breakOf(Kind.CHAIN_GAP, transaction, lastBalance, transaction.getPreviousBalance()));
+            }
+            long direction = directionOf(transaction.getType());
+            if (direction != 0) {
+                long expected = transaction.getPreviousBalance() + direction * transaction.getAmount();
+                if (expected != transaction.getCurrentBalance()) {
+                    breaks.add(breakOf(Kind.AMOUNT_MISMATCH, transaction, expected, transaction.getCurrentBalance()));
+                }
+            }
+            if (transaction.getCurrentBalance() < 0) {
+                breaks.add(breakOf(Kind.NEGATIVE_BALANCE, transaction, 0, transaction.getCurrentBalance()));
+            }
+
+            // The chain continues from what was recorded, so one bad record yields one break, not a cascade.
+            checkpoint.setLastTransactionDate(transaction.getTransactionDate());
+            checkpoint.setLastTransactionId(transaction.getId());
+            checkpoint.setLastBalance(transaction.getCurrentBalance());
+            checkpoint.setVerifiedCount(checkpoint.getVerifiedCount() + 1);
+            pending++;
+            return breaks;
+        }
+
+        private ReconciliationBreak breakOf(Kind kind, Transaction transaction, long expected, long actual) {
+            return new ReconciliationBreak(kind, checkpoint.getAccountId(), transaction.getId(),
+                    transaction.getTransactionDate(), expected, actual);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.reactive.audit.services.accounts;
+
+import com.reactive.audit.DTO.req.TransferRequestDTO;
+import com.reactive.audit.DTO.res.TransferResultDTO;
+import reactor.core.publisher.Flux;
+
+public interface TransferService {
+    Flux<TransferResultDTO> transferBatch(Flux<TransferRequestDTO> transfers);
+}
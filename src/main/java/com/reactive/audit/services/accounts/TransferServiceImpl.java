@@ -0,0 +1,292 @@
+package com.reactive.audit.services.accounts;
+
+import com.reactive.audit.DTO.req.TransferRequestDTO;
+import com.reactive.audit.DTO.res.TransferResultDTO;
+import com.reactive.audit.config.ConsistencyProperties;
+import com.reactive.audit.config.TransferProperties;
+import com.reactive.audit.model.BalanceUpdate;
+import com.reactive.audit.model.BankAccount;
+import com.reactive.audit.model.Ids;
+import com.reactive.audit.model.Transaction;
+import com.reactive.audit.repositories.BankAccountReactiveRepository;
+import com.reactive.audit.repositories.TransactionReactiveRepository;
+import com.reactive.audit.services.ServiceMetrics;
+import com.reactive.audit.services.fraud.FraudRuleEngine;
+import com.reactive.audit.services.transactions.RollingStatsEngine;
+import com.reactive.audit.services.transactions.TransactionListener;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@AllArgsConstructor
+public class TransferServiceImpl implements TransferService {
+
+    private static final String OPERATIONS_METRIC = "audit.accounts.operations";
+    private static final String REVERSAL_FAILED = "Transfer failed and the debit could not be reversed.";
+    private static final String REVERSAL_FAILED_RULE = "TRANSFER_REVERSAL_FAILED";
+    private static final String AUDIT_FAILED = "Transfer applied but its audit records could not be stored.";
+
+    @Autowired
+    private BankAccountReactiveRepository bankAccountReactiveRepository;
+
+    @Autowired
+    private TransactionReactiveRepository transactionReactiveRepository;
+
+    @Autowired
+    private AccountCache accountCache;
+
+    @Autowired
+    private ServiceMetrics serviceMetrics;
+
+    @Autowired
+    private TransferProperties transferProperties;
+
+    @Autowired
+    private List<TransactionListener> transactionListeners;
+
+    @Autowired
+    private AccountLaneExecutor accountLaneExecutor;
+
+    @Autowired
+    private FraudRuleEngine fraudRuleEngine;
+
+    @Autowired
+    private RollingStatsEngine rollingStatsEngine;
+
+    @Autowired
+    private ConsistencyProperties consistencyProperties;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Autowired
+    private AuditOutbox auditOutbox;
+
+    /**
+     * Transfers are spread over a fixed number of lanes by source account. Each lane runs its
+     * transfers one after another, so debits on the same account keep their request order, while
+     * different lanes run concurrently. Each balance update also runs on its account's
+     * {@link AccountLaneExecutor} lane, so it never interleaves with other operations on that
+     * account, and its audit record is dated on that lane.
+     * <p>
+     * Each leg writes its record as {@code audit.consistency.mode} says. With NONE, records are
+     * written with one bulk insert per chunk and each result is emitted once its records are stored;
+     * if the bulk insert fails, the chunk falls back to one insert per record, and a transfer whose
+     * records still cannot be stored is reported as such instead of failing the whole batch. With
+     * TRANSACTION, each leg and its record commit in one Mongo transaction; with OUTBOX, the record
+     * is an outbox entry of the leg's own update. The two legs are never one atomic unit: a failed
+     * credit is undone by the compensating reversal.
+     */
+    @Override
+    public Flux<TransferResultDTO> transferBatch(Flux<TransferRequestDTO> transfers) {
+        int lanes = transferProperties.getConcurrency();
+
+        return transfers.index()
+                .groupBy(transfer -> Math.floorMod(Objects.hashCode(transfer.getT2().getSourceAccountId()), lanes))
+                .flatMap(lane -> lane.concatMap(transfer -> serviceMetrics.timed(
+                        OPERATIONS_METRIC, "transfer", TransferServiceImpl::outcomeOf, transfer(transfer.getT1(), transfer.getT2()))), lanes)
+                .bufferTimeout(transferProperties.getChunkSize(), transferProperties.getChunkWait(), true)
+                .concatMap(this::persistRecords);
+    }
+
+    private Mono<CompletedTransfer> transfer(long index, TransferRequestDTO request) {
+        UUID sourceId = request.getSourceAccountId();
+        UUID targetId = request.getTargetAccountId();
+        long amount = request.getAmount();
+
+        if (sourceId == null || targetId == null) {
+            return Mono.just(rejected(index, request, "Source and target accounts are required."));
+        }
+        if (amount <= 0) {
+            return Mono.just(rejected(index, request, "Invalid transfer amount."));
+        }
+        if (sourceId.equals(targetId)) {
+            return Mono.just(rejected(index, request, "Source and target accounts must differ."));
+        }
+
+        return move("TRANSFER_OUT", sourceId, amount, false)
+                .flatMap(debit -> move("TRANSFER_IN", targetId, amount, true)
+                        .map(credit -> new CompletedTransfer(
+                                result(index, request, true, "Transfer completed.",
+                                        debit.getCurrentBalance(), credit.getCurrentBalance()),
+                                List.of(debit, credit)))
+                        .onErrorResume(e -> compensate(index, request, debit, "Transfer failed."))
+                        .switchIfEmpty(Mono.defer(() -> compensate(index, request, debit, "Target account not found."))))
+                .switchIfEmpty(Mono.defer(() -> bankAccountReactiveRepository.existsById(sourceId)
+                        .map(exists -> rejected(index, request, exists ? "Insufficient funds." : "Source account not found."))))
+                .onErrorResume(e -> Mono.just(rejected(index, request, "Transfer failed.")));
+    }
+
+    // Applies one leg on the account's lane; the record is dated there, in the order the balance moved.
+    // The transaction has to start on the lane as well: the lane does not carry the caller's context.
+    private Mono<Transaction> move(String type, UUID accountId, long amount, boolean credit) {
+        return accountLaneExecutor.execute(accountId, () -> {
+            Mono<Leg> leg = switch (consistencyProperties.getMode()) {
+                case NONE -> balanceUpdate(accountId, amount, credit)
+                        .map(balanceUpdate -> new Leg(balanceUpdate, record(type, balanceUpdate, amount)));
+                case TRANSACTION -> transactionalOperator.transactional(balanceUpdate(accountId, amount, credit)
+                                .map(balanceUpdate -> new Leg(balanceUpdate, record(type, balanceUpdate, amount)))
+                                .flatMap(applied -> transactionReactiveRepository.insert(applied.record()).thenReturn(applied)))
+                        .retryWhen(Retry.max(consistencyProperties.getTransactionRetries())
+                                .filter(BankAccountServiceImpl::isTransientTransactionError));
+                case OUTBOX -> (credit
+                                ? bankAccountReactiveRepository.depositBalanceWithOutbox(accountId, amount, type)
+                                : bankAccountReactiveRepository.withdrawBalanceWithOutbox(accountId, amount, type))
+                        .map(balanceUpdate -> new Leg(balanceUpdate, record(type, balanceUpdate, amount)))
+                        .doOnNext(applied -> auditOutbox.schedule(accountId));
+            };
+            return leg
+                    .doOnNext(applied -> accountCache.put(applied.balanceUpdate().getAccount()))
+                    .map(Leg::record);
+        });
+    }
+
+    private Mono<BalanceUpdate> balanceUpdate(UUID accountId, long amount, boolean credit) {
+        return credit
+                ? bankAccountReactiveRepository.depositBalance(accountId, amount)
+                : bankAccountReactiveRepository.withdrawBalance(accountId, amount);
+    }
+
+    // The credit did not happen, so the debit is reversed; both movements stay in the audit trail.
+    private Mono<CompletedTransfer> compensate(long index, TransferRequestDTO request, Transaction debit, String reason) {
+        UUID sourceId = request.getSourceAccountId();
+        long amount = request.getAmount();
+        return move("TRANSFER_REVERSAL", sourceId, amount, true)
+                .map(reversal -> new CompletedTransfer(
+                        result(index, request, false, reason, reversal.getCurrentBalance(), null),
+                        List.of(debit, reversal)))
+                .switchIfEmpty(Mono.defer(() -> unreversed(index, request, debit, null)))
+                .onErrorResume(e -> unreversed(index, request, debit, e));
+    }
+
+    // The money left the source account and did not come back: the debit is still audited and an alert is raised.
+    private Mono<CompletedTransfer> unreversed(long index, TransferRequestDTO request, Transaction debit, Throwable error) {
+        log.error("Could not reverse debit of {} on account {}", request.getAmount(), request.getSourceAccountId(), error);
+        fraudRuleEngine.raise(debit.getAccountId(), debit.getNumberAccount(), debit.getType(), debit.getAmount(),
+                REVERSAL_FAILED_RULE, "Transfer to " + request.getTargetAccountId() + " failed and the debit could not be reversed.");
+        return Mono.just(new CompletedTransfer(
+                result(index, request, false, REVERSAL_FAILED, debit.getCurrentBalance(), null),
+                List.of(debit)));
+    }
+
+    private Flux<TransferResultDTO> persistRecords(List<CompletedTransfer> chunk) {
+        List<Transaction> records = chunk.stream()
+                .flatMap(completed -> completed.records().stream())
+                .toList();
+
+        // Only NONE leaves the records to the chunk; the other modes wrote them with their leg.
+        Mono<List<CompletedTransfer>> stored = records.isEmpty() || consistencyProperties.getMode() != ConsistencyProperties.Mode.NONE
+                ? Mono.just(chunk)
+                : transactionReactiveRepository.insert(records)
+                        .then(Mono.just(chunk))
+                        .onErrorResume(e -> {
+                            log.warn("Bulk insert of {} transfer records failed; storing them one by one", records.size(), e);
+                            return Flux.fromIterable(chunk).concatMap(this::storeOneByOne).collectList();
+                        });
+
+        return stored.flatMapMany(Flux::fromIterable)
+                .concatMap(completed -> Flux.fromIterable(completed.records())
+                        .concatMap(this::publish)
+                        .then(Mono.just(completed.result())));
+    }
+
+    // Records keep their id, so one already stored by the failed bulk insert shows up as a duplicate key.
+    private Mono<CompletedTransfer> storeOneByOne(CompletedTransfer completed) {
+        return Flux.fromIterable(completed.records())
+                .concatMap(record -> transactionReactiveRepository.insert(record)
+                        .onErrorResume(DuplicateKeyException.class, e -> Mono.just(record))
+                        .onErrorResume(e -> {
+                            log.error("Could not store {} record {} of account {}", record.getType(), record.getId(), record.getAccountId(), e);
+                            return Mono.empty();
+                        }))
+                .collectList()
+                .map(storedRecords -> storedRecords.size() == completed.records().size()
+                        ? completed
+                        : new CompletedTransfer(unaudited(completed.result()), storedRecords));
+    }
+
+    private Mono<Void> publish(Transaction transaction) {
+        rollingStatsEngine.record(transaction.getAccountId(), transaction.getType(), transaction.getAmount());
+        if (consistencyProperties.getMode() == ConsistencyProperties.Mode.OUTBOX) {
+            // AuditOutbox notifies the listeners when it copies the entry.
+            return Mono.empty();
+        }
+        serviceMetrics.recordAmount(transaction.getType(), transaction.getAmount());
+        // Listeners run on the account's lane, as for deposits, so a snapshot rebuild never interleaves with them.
+        return accountLaneExecutor.execute(transaction.getAccountId(), () -> Flux.fromIterable(transactionListeners)
+                        .concatMap(listener -> listener.onTransaction(transaction)
+                                .onErrorResume(e -> {
+                                    log.warn("Transaction listener failed for record {}", transaction.getId(), e);
+                                    return Mono.empty();
+                                }))
+                        .then())
+                .onErrorResume(e -> {
+                    log.warn("Could not notify listeners of record {}", transaction.getId(), e);
+                    return Mono.empty();
+                });
+    }
+
+    private static String outcomeOf(CompletedTransfer completed) {
+        TransferResultDTO result = completed.result();
+        if (result.isSuccess()) {
+            return "success";
+        }
+        return switch (result.getMessage()) {
+            case "Insufficient funds." -> "insufficient_funds";
+            case "Source account not found.", "Target account not found." -> "not_found";
+            case "Invalid transfer amount." -> "invalid_amount";
+            case "Transfer failed." -> "error";
+            case REVERSAL_FAILED -> "reversal_failed";
+            case AUDIT_FAILED -> "audit_failed";
+            default -> "rejected";
+        };
+    }
+
+    private static TransferResultDTO unaudited(TransferResultDTO result) {
+        result.setMessage(AUDIT_FAILED);
+        return result;
+    }
+
+    private static CompletedTransfer rejected(long index, TransferRequestDTO request, String message) {
+        return new CompletedTransfer(result(index, request, false, message, null, null), List.of());
+    }
+
+    private static TransferResultDTO result(long index, TransferRequestDTO request, boolean success, String message,
+                                            Long sourceBalance, Long targetBalance) {
+        return TransferResultDTO.builder()
+                .index(index)
+                .sourceAccountId(request.getSourceAccountId())
+                .targetAccountId(request.getTargetAccountId())
+                .amount(request.getAmount())
+                .success(success)
+                .message(message)
+                .sourceBalance(sourceBalance)
+                .targetBalance(targetBalance)
+                .build();
+    }
+
+    private static Transaction record(String type, BalanceUpdate update, long amount) {
+        BankAccount account = update.getAccount();
+        return new Transaction(Ids.newId(), account.getId(), account.getNumberAccount(), type, amount,
+                update.getPreviousBalance(), update.getCurrentBalance(), LocalDateTime.now());
+    }
+
+    private record CompletedTransfer(TransferResultDTO result, List<Transaction> records) {
+    }
+
+    private record Leg(BalanceUpdate balanceUpdate, Transaction record) {
+    }
+}
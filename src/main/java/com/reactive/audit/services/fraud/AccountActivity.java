@@ -0,0 +1,65 @@
+package com.reactive.audit.services.fraud;
+
+/**
+ * Recent activity of one account: the timestamps of its last operations, a rolling mean of the
+ * amounts and its last deposit. {@link FraudRuleEngine} reads and updates it while holding its
+ * monitor, so rules see a consistent state.
+ */
+public final class AccountActivity {
+
+    /** Upper bound of {@code maxOperations}; older timestamps are overwritten. */
+    public static final int MAX_TRACKED_OPERATIONS = 64;
+
+    // Plain average over the first MEAN_SPAN amounts, then an exponential mean with weight 1/MEAN_SPAN.
+    private static final int MEAN_SPAN = 20;
+
+    private final long[] timestamps = new long[MAX_TRACKED_OPERATIONS];
+    private int next;
+    private int size;
+    private double meanAmount;
+    private long samples;
+    private long lastDepositAt = Long.MIN_VALUE;
+    private long lastDepositAmount;
+
+    /** Operations recorded at or after {@code from}. */
+    public int operationsSince(long from) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (timestamps[i] >= from) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public double getMeanAmount() {
+        return meanAmount;
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    /** Epoch milliseconds of the last deposit, or {@code Long.MIN_VALUE} when there was none. */
+    public long getLastDepositAt() {
+        return lastDepositAt;
+    }
+
+    public long getLastDepositAmount() {
+        return lastDepositAmount;
+    }
+
+    void record(FraudCheck check) {
+        timestamps[next] = check.timestamp();
+        next = (next + 1) % MAX_TRACKED_OPERATIONS;
+        size = Math.min(size + 1, MAX_TRACKED_OPERATIONS);
+
+        samples++;
+        meanAmount += (check.amount() - meanAmount) / Math.min(samples, MEAN_SPAN);
+
+        if (check.isDeposit()) {
+            lastDepositAt = check.timestamp();
+            lastDepositAmount = check.amount();
+        }
+    }
+}
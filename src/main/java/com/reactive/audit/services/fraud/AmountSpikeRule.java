@@ -0,0 +1,24 @@
+package com.reactive.audit.services.fraud;
+
+import com.reactive.audit.DTO.req.FraudRulesDTO;
+import com.reactive.audit.model.Money;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AmountSpikeRule implements FraudRule {
+
+    @Override
+    public String name() {
+        return "amount_spike";
+    }
+
+    @Override
+    public String evaluate(FraudCheck check, AccountActivity activity, FraudRulesDTO rules) {
+        if (activity.getSamples() < rules.getMinSamples()
+                || check.amount() <= activity.getMeanAmount() * rules.getAmountMultiplier()) {
+            return null;
+        }
+        return "Amount is more than " + rules.getAmountMultiplier() + " times the rolling mean of "
+                + Money.format(Math.round(activity.getMeanAmount())) + ".";
+    }
+}
@@ -0,0 +1,17 @@
+package com.reactive.audit.services.fraud;
+
+import java.util.UUID;
+
+/**
+ * A deposit or withdrawal being screened. {@code timestamp} is in epoch milliseconds.
+ */
+public record FraudCheck(UUID accountId, String numberAccount, String type, long amount, long timestamp) {
+
+    public boolean isDeposit() {
+        return "DEPOSIT".equals(type);
+    }
+
+    public boolean isWithdrawal() {
+        return "WITHDRAWAL".equals(type);
+    }
+}
@@ -0,0 +1,17 @@
+package com.reactive.audit.services.fraud;
+
+import com.reactive.audit.DTO.req.FraudRulesDTO;
+
+/**
+ * A fraud rule evaluated inline on every deposit and withdrawal. Rules only read the in-memory
+ * {@link AccountActivity} of the account, which does not include the operation being checked yet.
+ * Every {@code FraudRule} bean is picked up by {@link FraudRuleEngine}.
+ */
+public interface FraudRule {
+
+    /** Name used in alerts, metrics and {@link FraudRulesDTO#getDisabledRules()}. */
+    String name();
+
+    /** Returns why the operation is suspicious, or null when it is not. */
+    String evaluate(FraudCheck check, AccountActivity activity, FraudRulesDTO rules);
+}
@@ -0,0 +1,205 @@
+package com.reactive.audit.services.fraud;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.reactive.audit.DTO.req.FraudRulesDTO;
+import com.reactive.audit.config.FraudProperties;
+import com.reactive.audit.model.FraudAlert;
+import com.reactive.audit.repositories.FraudAlertReactiveRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Screens deposits and withdrawals against the {@link FraudRule} beans. Rules only read the
+ * in-memory {@link AccountActivity} of the {@code numberAccount}, so screening adds no I/O to the
+ * operation. Flagged operations are not blocked: each alert is stored in {@code fraud_alerts} in
+ * the background and published on {@link #alerts()}.
+ * <p>
+ * The thresholds live in one immutable {@link FraudRulesDTO} that {@link #updateRules} swaps
+ * atomically, so a new rule set applies from the next operation without a restart.
+ */
+@Slf4j
+@Component
+public class FraudRuleEngine {
+
+    private final List<FraudRule> fraudRules;
+    private final FraudAlertReactiveRepository fraudAlertReactiveRepository;
+    private final FraudProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier clock;
+    private final AtomicReference<FraudRulesDTO> rules;
+    private final Cache<String, AccountActivity> activities;
+    private final Sinks.Many<FraudAlert> alertSink = Sinks.many().multicast().directBestEffort();
+    private final Timer evaluationTimer;
+
+    @Autowired
+    public FraudRuleEngine(List<FraudRule> fraudRules,
+                           FraudAlertReactiveRepository fraudAlertReactiveRepository,
+                           FraudProperties properties,
+                           MeterRegistry meterRegistry) {
+        this(fraudRules, fraudAlertReactiveRepository, properties, meterRegistry, System::currentTimeMillis);
+    }
+
+    FraudRuleEngine(List<FraudRule> fraudRules,
+                    FraudAlertReactiveRepository fraudAlertReactiveRepository,
+                    FraudProperties properties,
+                    MeterRegistry meterRegistry,
+                    LongSupplier clock) {
+        this.fraudRules = List.copyOf(fraudRules);
+        this.fraudAlertReactiveRepository = fraudAlertReactiveRepository;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.rules = new AtomicReference<>(validated(copyOf(properties.getRules())));
+        this.activities = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumAccounts())
+                .expireAfterAccess(properties.getIdleExpiry())
+                .build();
+        this.evaluationTimer = Timer.builder("audit.fraud.evaluation")
+                .description("Time spent screening one operation")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Screens an applied operation and records it in the account's activity. Returns the alerts
+     * raised, usually none.
+     */
+    public List<FraudAlert> evaluate(String type, UUID accountId, String numberAccount, long amount) {
+        FraudRulesDTO current = rules.get();
+        if (!current.isEnabled() || numberAccount == null) {
+            return List.of();
+        }
+
+        long start = System.nanoTime();
+        FraudCheck check = new FraudCheck(accountId, numberAccount, type, amount, clock.getAsLong());
+        AccountActivity activity = activities.get(numberAccount, key -> new AccountActivity());
+        List<FraudAlert> alerts = List.of();
+        synchronized (activity) {
+            for (FraudRule rule : fraudRules) {
+                if (current.getDisabledRules().contains(rule.name())) {
+                    continue;
+                }
+                String reason = rule.evaluate(check, activity, current);
+                if (reason != null) {
+                    if (alerts.isEmpty()) {
+                        alerts = new ArrayList<>(2);
+                    }
+                    alerts.add(alertOf(check, rule.name(), reason));
+                }
+            }
+            activity.record(check);
+        }
+        evaluationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        alerts.forEach(this::publish);
+        return alerts;
+    }
+
+    /**
+     * Raises an alert that does not come from a rule, such as a transfer whose debit could not be
+     * reversed. It is stored and published like any other alert, even while screening is disabled.
+     */
+    public FraudAlert raise(UUID accountId, String numberAccount, String type, long amount, String rule, String reason) {
+        FraudAlert alert = alertOf(new FraudCheck(accountId, numberAccount, type, amount, clock.getAsLong()), rule, reason);
+        publish(alert);
+        return alert;
+    }
+
+    /** Live alerts. A subscriber that falls behind loses its oldest buffered alerts. */
+    public Flux<FraudAlert> alerts() {
+        return alertSink.asFlux()
+                .onBackpressureBuffer(properties.getSubscriberBufferSize(), alert -> { }, BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    public FraudRulesDTO getRules() {
+        return copyOf(rules.get());
+    }
+
+    public FraudRulesDTO updateRules(FraudRulesDTO newRules) {
+        FraudRulesDTO applied = validated(copyOf(newRules));
+        rules.set(applied);
+        log.info("Fraud rules updated: {}", applied);
+        return copyOf(applied);
+    }
+
+    private void publish(FraudAlert alert) {
+        meterRegistry.counter("audit.fraud.alerts", "rule", alert.getRule()).increment();
+        // Operations on different lanes publish concurrently; the sink only reports FAIL_NON_SERIALIZED
+        // while another emission is in progress, so a short spin delivers the alert instead of dropping it.
+        while (alertSink.tryEmitNext(alert) == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+            Thread.onSpinWait();
+        }
+        fraudAlertReactiveRepository.save(alert).subscribe(
+                saved -> { },
+                error -> log.warn("Could not store fraud alert {} for {}", alert.getRule(), alert.getNumberAccount(), error));
+    }
+
+    private static FraudAlert alertOf(FraudCheck check, String rule, String reason) {
+        FraudAlert alert = new FraudAlert();
+        alert.setAccountId(check.accountId());
+        alert.setNumberAccount(check.numberAccount());
+        alert.setType(check.type());
+        alert.setAmount(check.amount());
+        alert.setRule(rule);
+        alert.setReason(reason);
+        alert.setDetectedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(check.timestamp()), ZoneId.systemDefault()));
+        return alert;
+    }
+
+    private static FraudRulesDTO copyOf(FraudRulesDTO source) {
+        return new FraudRulesDTO(
+                source.isEnabled(),
+                source.getDisabledRules() == null ? new HashSet<>() : new HashSet<>(source.getDisabledRules()),
+                source.getMaxOperations(),
+                source.getVelocityWindow(),
+                source.getAmountMultiplier(),
+                source.getMinSamples(),
+                source.getWithdrawWindow(),
+                source.getWithdrawRatio());
+    }
+
+    private static FraudRulesDTO validated(FraudRulesDTO rules) {
+        if (rules.getMaxOperations() < 1 || rules.getMaxOperations() >= AccountActivity.MAX_TRACKED_OPERATIONS) {
+            throw invalid("maxOperations must be between 1 and " + (AccountActivity.MAX_TRACKED_OPERATIONS - 1) + ".");
+        }
+        if (!isPositive(rules.getVelocityWindow()) || !isPositive(rules.getWithdrawWindow())) {
+            throw invalid("velocityWindow and withdrawWindow must be positive.");
+        }
+        if (rules.getAmountMultiplier() < 1.0 || rules.getMinSamples() < 1) {
+            throw invalid("amountMultiplier must be at least 1 and minSamples at least 1.");
+        }
+        if (rules.getWithdrawRatio() <= 0.0 || rules.getWithdrawRatio() > 1.0) {
+            throw invalid("withdrawRatio must be greater than 0 and at most 1.");
+        }
+        return rules;
+    }
+
+    private static boolean isPositive(Duration duration) {
+        return duration != null && !duration.isNegative() && !duration.isZero();
+    }
+
+    private static ResponseStatusException invalid(String message) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, message);
+    }
+}
@@ -0,0 +1,22 @@
+package com.reactive.audit.services.fraud;
+
+import com.reactive.audit.DTO.req.FraudRulesDTO;
+import org.springframework.stereotype.Component;
+
+@Component
+public class VelocityRule implements FraudRule {
+
+    @Override
+    public String name() {
+        return "velocity";
+    }
+
+    @Override
+    public String evaluate(FraudCheck check, AccountActivity activity, FraudRulesDTO rules) {
+        int operations = activity.operationsSince(check.timestamp() - rules.getVelocityWindow().toMillis()) + 1;
+        if (operations <= rules.getMaxOperations()) {
+            return null;
+        }
+        return operations + " operations within " + rules.getVelocityWindow() + ".";
+    }
+}
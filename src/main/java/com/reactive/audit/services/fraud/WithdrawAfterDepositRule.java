@@ -0,0 +1,24 @@
+package com.reactive.audit.services.fraud;
+
+import com.reactive.audit.DTO.req.FraudRulesDTO;
+import org.springframework.stereotype.Component;
+
+@Component
+public class WithdrawAfterDepositRule implements FraudRule {
+
+    @Override
+    public String name() {
+        return "withdraw_after_deposit";
+    }
+
+    @Override
+    public String evaluate(FraudCheck check, AccountActivity activity, FraudRulesDTO rules) {
+        if (!check.isWithdrawal()
+                || activity.getLastDepositAt() == Long.MIN_VALUE
+                || check.timestamp() - activity.getLastDepositAt() > rules.getWithdrawWindow().toMillis()
+                || check.amount() < activity.getLastDepositAmount() * rules.getWithdrawRatio()) {
+            return null;
+        }
+        return "Withdrawal of most of a deposit made " + (check.timestamp() - activity.getLastDepositAt()) + " ms earlier.";
+    }
+}
@@ -0,0 +1,44 @@
+package com.reactive.audit.services.transactions;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.reactive.audit.config.AnalyticsProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache of aggregation results keyed by query. The cached value is the replaying
+ * {@code Flux} itself, so polls that arrive while an aggregation is still running share it, and
+ * polls within {@code audit.analytics.cache-ttl} are answered without going to Mongo. Failed
+ * aggregations are dropped so the next poll runs them again.
+ */
+@Component
+public class AnalyticsResultCache {
+
+    private final Cache<String, Flux<?>> results;
+
+    public AnalyticsResultCache(AnalyticsProperties properties, MeterRegistry meterRegistry) {
+        this.results = Caffeine.newBuilder()
+                .maximumSize(properties.getCacheMaximumSize())
+                .expireAfterWrite(properties.getCacheTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, "analytics");
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Flux<T> get(String key, Supplier<Flux<T>> query) {
+        return Flux.defer(() -> (Flux<T>) results.get(key, k -> {
+            AtomicReference<Flux<T>> result = new AtomicReference<>();
+            result.set(Flux.defer(query)
+                    .doOnError(e -> results.asMap().remove(k, result.get()))
+                    .cache());
+            return result.get();
+        }));
+    }
+}
@@ -0,0 +1,99 @@
+package com.reactive.audit.services.transactions;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.reactive.audit.DTO.res.RollingStatsDTO;
+import com.reactive.audit.config.RollingStatsProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Live statistics over the last {@code audit.stats.window}, globally and per account, updated once
+ * per applied balance operation, after its writes are committed, so aborted or retried
+ * transactions are not counted. Each scope is a {@link RollingWindow} of {@code window / bucket}
+ * buckets; recording a transaction is a few atomic adds with no allocation (a new account allocates
+ * its window once). Accounts without activity for a whole window are dropped, and at most
+ * {@code audit.stats.maximum-accounts} are tracked.
+ */
+@Component
+public class RollingStatsEngine {
+
+    private final long bucketMillis;
+    private final int buckets;
+    private final LongSupplier clock;
+    private final RollingWindow global;
+    private final Cache<UUID, RollingWindow> accounts;
+    private final Function<UUID, RollingWindow> newWindow;
+
+    @Autowired
+    public RollingStatsEngine(RollingStatsProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::currentTimeMillis);
+    }
+
+    RollingStatsEngine(RollingStatsProperties properties, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.bucketMillis = properties.getBucket().toMillis();
+        this.buckets = (int) Math.max(1, properties.getWindow().toMillis() / bucketMillis);
+        this.clock = clock;
+        this.global = new RollingWindow(buckets);
+        this.accounts = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumAccounts())
+                .expireAfterAccess(properties.getWindow())
+                .build();
+        this.newWindow = accountId -> new RollingWindow(buckets);
+
+        Gauge.builder("audit.stats.accounts", accounts, Cache::estimatedSize)
+                .description("Accounts with live rolling statistics")
+                .register(meterRegistry);
+    }
+
+    public void record(UUID accountId, String type, long amount) {
+        long bucket = clock.getAsLong() / bucketMillis;
+        int direction = directionOf(type);
+        global.record(bucket, direction, amount);
+        if (accountId != null) {
+            accounts.get(accountId, newWindow).record(bucket, direction, amount);
+        }
+    }
+
+    /**
+     * Statistics of one account, or the global ones when {@code accountId} is null. An account
+     * with no transaction in the window reports zeros.
+     */
+    public RollingStatsDTO snapshot(UUID accountId) {
+        long[] totals = new long[RollingWindow.fields()];
+        RollingWindow window = accountId == null ? global : accounts.getIfPresent(accountId);
+        if (window != null) {
+            window.sum(clock.getAsLong() / bucketMillis, totals);
+        }
+
+        long seconds = Math.max(1, buckets * bucketMillis / 1000);
+        long count = totals[0] + totals[2];
+        return new RollingStatsDTO(
+                accountId,
+                seconds,
+                totals[0],
+                totals[2],
+                (double) totals[0] / seconds,
+                (double) totals[2] / seconds,
+                count == 0 ? 0.0 : (double) (totals[1] + totals[3]) / count,
+                totals[4]);
+    }
+
+    // Same classification as reconciliation: credits count as deposits, debits as withdrawals.
+    private static int directionOf(String type) {
+        if (type == null) {
+            return 0;
+        }
+        return switch (type) {
+            case "DEPOSIT", "TRANSFER_IN", "TRANSFER_REVERSAL" -> 1;
+            case "WITHDRAWAL", "TRANSFER_OUT" -> -1;
+            default -> 0;
+        };
+    }
+}
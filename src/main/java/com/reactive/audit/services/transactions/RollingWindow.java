@@ -0,0 +1,98 @@
+package com.reactive.audit.services.transactions;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed ring of time buckets holding primitive counters. Recording an event touches one bucket
+ * with atomic adds and allocates nothing, so any number of threads can record concurrently.
+ * <p>
+ * A bucket is reused once the ring wraps around. The first writer of a new bucket claims it by
+ * moving its stamp to {@code ROTATING}, clears the counters and then publishes the new stamp;
+ * writers that arrive meanwhile spin until it is published, so no event lands in a stale bucket.
+ */
+final class RollingWindow {
+
+    private static final long ROTATING = Long.MIN_VALUE;
+
+    private static final int DEPOSIT_COUNT = 0;
+    private static final int DEPOSIT_SUM = 1;
+    private static final int WITHDRAWAL_COUNT = 2;
+    private static final int WITHDRAWAL_SUM = 3;
+    private static final int MAX_AMOUNT = 4;
+    private static final int FIELDS = 5;
+
+    private final int buckets;
+    private final AtomicLongArray stamps;
+    private final AtomicLongArray counters;
+
+    RollingWindow(int buckets) {
+        this.buckets = buckets;
+        this.stamps = new AtomicLongArray(buckets);
+        this.counters = new AtomicLongArray(buckets * FIELDS);
+        for (int i = 0; i < buckets; i++) {
+            stamps.set(i, -1L);
+        }
+    }
+
+    /**
+     * Records one event in {@code bucket} (time divided by the bucket length). {@code direction}
+     * is positive for money in and negative for money out; zero only updates the maximum.
+     */
+    void record(long bucket, int direction, long amount) {
+        int base = claim(bucket) * FIELDS;
+        if (direction > 0) {
+            counters.incrementAndGet(base + DEPOSIT_COUNT);
+            counters.addAndGet(base + DEPOSIT_SUM, amount);
+        } else if (direction < 0) {
+            counters.incrementAndGet(base + WITHDRAWAL_COUNT);
+            counters.addAndGet(base + WITHDRAWAL_SUM, amount);
+        }
+        counters.accumulateAndGet(base + MAX_AMOUNT, amount, Math::max);
+    }
+
+    /**
+     * Sums the buckets in {@code (currentBucket - buckets, currentBucket]} into {@code totals}:
+     * deposit count, deposit sum, withdrawal count, withdrawal sum and maximum amount.
+     */
+    void sum(long currentBucket, long[] totals) {
+        for (int slot = 0; slot < buckets; slot++) {
+            long stamp = stamps.get(slot);
+            if (stamp == ROTATING || stamp <= currentBucket - buckets || stamp > currentBucket) {
+                continue;
+            }
+            int base = slot * FIELDS;
+            totals[DEPOSIT_COUNT] += counters.get(base + DEPOSIT_COUNT);
+            totals[DEPOSIT_SUM] += counters.get(base + DEPOSIT_SUM);
+            totals[WITHDRAWAL_COUNT] += counters.get(base + WITHDRAWAL_COUNT);
+            totals[WITHDRAWAL_SUM] += counters.get(base + WITHDRAWAL_SUM);
+            totals[MAX_AMOUNT] = Math.max(totals[MAX_AMOUNT], counters.get(base + MAX_AMOUNT));
+        }
+    }
+
+    static int fields() {
+        return FIELDS;
+    }
+
+    private int claim(long bucket) {
+        int slot = (int) Math.floorMod(bucket, (long) buckets);
+        while (true) {
+            long stamp = stamps.get(slot);
+            if (stamp == bucket) {
+                return slot;
+            }
+            if (stamp != ROTATING && stamp < bucket && stamps.compareAndSet(slot, stamp, ROTATING)) {
+                int base = slot * FIELDS;
+                for (int field = 0; field < FIELDS; field++) {
+                    counters.set(base + field, 0L);
+                }
+                stamps.set(slot, bucket);
+                return slot;
+            }
+            if (stamp > bucket) {
+                // The slot already moved on to a later bucket; a late event counts there.
+                return slot;
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
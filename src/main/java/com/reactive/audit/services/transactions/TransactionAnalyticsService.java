@@ -0,0 +1,17 @@
+package com.reactive.audit.services.transactions;
+
+import com.reactive.audit.DTO.res.BalanceDistributionDTO;
+import com.reactive.audit.DTO.res.DailyVolumeDTO;
+import com.reactive.audit.DTO.res.TypeTotalsDTO;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+public interface TransactionAnalyticsService {
+
+    Flux<TypeTotalsDTO> getTotalsByType(LocalDateTime from, LocalDateTime to);
+
+    Flux<DailyVolumeDTO> getDailyVolume(LocalDateTime from, LocalDateTime to);
+
+    Flux<BalanceDistributionDTO> getBalanceDistribution();
+}
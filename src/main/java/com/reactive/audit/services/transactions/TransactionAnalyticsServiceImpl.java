@@ -0,0 +1,67 @@
+package com.reactive.audit.services.transactions;
+
+import com.reactive.audit.DTO.res.BalanceDistributionDTO;
+import com.reactive.audit.DTO.res.DailyVolumeDTO;
+import com.reactive.audit.DTO.res.TypeTotalsDTO;
+import com.reactive.audit.repositories.BankAccountReactiveRepository;
+import com.reactive.audit.repositories.TransactionReactiveRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+/**
+ * Dashboard aggregations. Grouping runs in Mongo and the per-group results are streamed back
+ * through {@link AnalyticsResultCache}, so repeated polls of the same range share one aggregation.
+ */
+@Service
+@AllArgsConstructor
+public class TransactionAnalyticsServiceImpl implements TransactionAnalyticsService {
+
+    private static final LocalDateTime RANGE_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime RANGE_END = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    @Autowired
+    private TransactionReactiveRepository transactionReactiveRepository;
+
+    @Autowired
+    private BankAccountReactiveRepository bankAccountReactiveRepository;
+
+    @Autowired
+    private AnalyticsResultCache analyticsResultCache;
+
+    @Override
+    public Flux<TypeTotalsDTO> getTotalsByType(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = from == null ? RANGE_START : from;
+        LocalDateTime end = to == null ? RANGE_END : to;
+        if (!start.isBefore(end)) {
+            return Flux.error(invalidRange());
+        }
+        return analyticsResultCache.get("totals-by-type:" + start + ":" + end,
+                () -> transactionReactiveRepository.totalsByType(start, end));
+    }
+
+    @Override
+    public Flux<DailyVolumeDTO> getDailyVolume(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = from == null ? RANGE_START : from;
+        LocalDateTime end = to == null ? RANGE_END : to;
+        if (!start.isBefore(end)) {
+            return Flux.error(invalidRange());
+        }
+        return analyticsResultCache.get("daily-volume:" + start + ":" + end,
+                () -> transactionReactiveRepository.dailyVolume(start, end));
+    }
+
+    @Override
+    public Flux<BalanceDistributionDTO> getBalanceDistribution() {
+        return analyticsResultCache.get("balance-distribution", bankAccountReactiveRepository::balanceDistribution);
+    }
+
+    private static ResponseStatusException invalidRange() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must be before 'to'.");
+    }
+}
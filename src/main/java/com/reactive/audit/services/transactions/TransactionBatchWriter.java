@@ -0,0 +1,137 @@
+package com.reactive.audit.services.transactions;
+
+import com.reactive.audit.config.TransactionBatchProperties;
+import com.reactive.audit.model.Transaction;
+import com.reactive.audit.repositories.TransactionReactiveRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import reactor.core.Exceptions;
+import reactor.core.Scannable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+import reactor.util.retry.Retry;
+
+import java.util.List;
+
+@Component
+public class TransactionBatchWriter {
+
+    private final TransactionReactiveRepository transactionReactiveRepository;
+    private final TransactionBatchProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Sinks.Many<PendingTransaction> buffer;
+
+    private final Timer flushTimer;
+    private final DistributionSummary batchSize;
+    private final Counter failedFlushes;
+    private final Counter overflows;
+
+    public TransactionBatchWriter(TransactionReactiveRepository transactionReactiveRepository,
+                                  TransactionBatchProperties properties,
+                                  MeterRegistry meterRegistry) {
+        this.transactionReactiveRepository = transactionReactiveRepository;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.buffer = Sinks.many().unicast()
+                .onBackpressureBuffer(Queues.<PendingTransaction>get(properties.getBufferCapacity()).get());
+
+        this.flushTimer = Timer.builder("audit.transactions.batch.flush")
+                .description("Time spent inserting one batch of transactions")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("audit.transactions.batch.size")
+                .description("Number of transactions written per flush")
+                .register(meterRegistry);
+        this.failedFlushes = Counter.builder("audit.transactions.batch.failures")
+                .description("Flushes that failed and were reported back to every caller in the batch")
+                .register(meterRegistry);
+        this.overflows = Counter.builder("audit.transactions.batch.overflows")
+                .description("Submissions rejected because the buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("audit.transactions.batch.buffered", buffer, TransactionBatchWriter::bufferedCount)
+                .description("Transactions waiting in the buffer")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        buffer.asFlux()
+                .bufferTimeout(properties.getMaxBatchSize(), properties.getMaxWait(), true)
+                .flatMap(this::flush, properties.getFlushConcurrency())
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        buffer.tryEmitComplete();
+    }
+
+    public Mono<Transaction> submit(Transaction transaction) {
+        return Mono.defer(() -> {
+                    Sinks.One<Transaction> acknowledgement = Sinks.one();
+                    Sinks.EmitResult result = emit(new PendingTransaction(transaction, acknowledgement));
+
+                    if (result == Sinks.EmitResult.FAIL_OVERFLOW) {
+                        overflows.increment();
+                        return Mono.error(Exceptions.failWithOverflow("Transaction batch buffer is full."));
+                    }
+                    if (result.isFailure()) {
+                        return Mono.error(new IllegalStateException("Transaction batch buffer rejected the write: " + result));
+                    }
+                    return acknowledgement.asMono();
+                })
+                .retryWhen(Retry.backoff(properties.getMaxOfferRetries(), properties.getOfferBackoff())
+                        .filter(Exceptions::isOverflow)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    private Sinks.EmitResult emit(PendingTransaction pending) {
+        Sinks.EmitResult result;
+        while ((result = buffer.tryEmitNext(pending)) == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+            Thread.onSpinWait();
+        }
+        return result;
+    }
+
+    private Mono<Void> flush(List<PendingTransaction> batch) {
+        List<Transaction> transactions = batch.stream()
+                .map(PendingTransaction::transaction)
+                .toList();
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        return transactionReactiveRepository.insert(transactions)
+                .then()
+                .doOnSuccess(ignored -> {
+                    sample.stop(flushTimer);
+                    batchSize.record(batch.size());
+                    batch.forEach(pending -> pending.acknowledgement().tryEmitValue(pending.transaction()));
+                })
+                .doOnError(error -> {
+                    failedFlushes.increment();
+                    batch.forEach(pending -> pending.acknowledgement().tryEmitError(error));
+                })
+                .onErrorResume(error -> Mono.empty());
+    }
+
+    private static double bufferedCount(Sinks.Many<PendingTransaction> sink) {
+        Integer buffered = Scannable.from(sink).scan(Scannable.Attr.BUFFERED);
+        return buffered == null ? 0 : buffered;
+    }
+
+    private record PendingTransaction(Transaction transaction, Sinks.One<Transaction> acknowledgement) {
+    }
+}
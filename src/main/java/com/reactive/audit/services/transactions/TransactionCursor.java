@@ -0,0 +1,45 @@
+package com.reactive.audit.services.transactions;
+
+import com.reactive.audit.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.UUID;
+
+/**
+ * Keyset position in the {@code (transactionDate, id)} ordering, encoded as
+ * {@code <transactionDate>_<id>} so clients can pass it back verbatim.
+ */
+@Getter
+@AllArgsConstructor
+public class TransactionCursor {
+
+    private static final String SEPARATOR = "_";
+
+    private final LocalDateTime transactionDate;
+    private final UUID id;
+
+    public static TransactionCursor from(Transaction transaction) {
+        return new TransactionCursor(transaction.getTransactionDate(), transaction.getId());
+    }
+
+    public static TransactionCursor parse(String cursor) {
+        int separator = cursor.lastIndexOf(SEPARATOR);
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        try {
+            return new TransactionCursor(
+                    LocalDateTime.parse(cursor.substring(0, separator)),
+                    UUID.fromString(cursor.substring(separator + 1)));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    public String encode() {
+        return transactionDate + SEPARATOR + id;
+    }
+}
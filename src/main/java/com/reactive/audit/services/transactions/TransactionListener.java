@@ -0,0 +1,12 @@
+package com.reactive.audit.services.transactions;
+
+import com.reactive.audit.model.Transaction;
+import reactor.core.publisher.Mono;
+
+/**
+ * Called after a transaction record has been stored. Implementations keep derived data
+ * (snapshots, statistics, ...) up to date.
+ */
+public interface TransactionListener {
+    Mono<Void> onTransaction(Transaction transaction);
+}
@@ -1,15 +1,41 @@
 package com.reactive.audit.services.transactions;
 
 import com.reactive.audit.DTO.req.TransactionRequestDTO;
+import com.reactive.audit.DTO.res.RollingStatsDTO;
+import com.reactive.audit.DTO.res.TransactionHistoryDTO;
 import com.reactive.audit.DTO.res.TransactionResponseDTO;
 import com.reactive.audit.model.Transaction;
+import org.springframework.http.codec.ServerSentEvent;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+import java.util.UUID;
+
 public interface TransactionService {
-    Mono<TransactionResponseDTO> getAllTransactions();
+    Mono<TransactionResponseDTO> getTransactionsPage(String cursor, int size);
+
+    Flux<Transaction> streamAllTransactions();
 
-    Flux<Transaction> streamTransactions(String numberAccount);
+    Flux<ServerSentEvent<Transaction>> streamTransactions(String numberAccount, String resumeToken);
+
+    Flux<TransactionHistoryDTO> getHistory(String numberAccount, LocalDateTime from, LocalDateTime to,
+                                           String type, int limit, String after);
 
     Mono<TransactionResponseDTO> createTransaction(TransactionRequestDTO transactionRequestDTO);
+
+    /**
+     * Stores the record without notifying listeners or counting it; inside a Mongo transaction the
+     * caller publishes it with {@link #publishTransaction} once the transaction has committed.
+     */
+    Mono<Transaction> insertTransaction(TransactionRequestDTO transactionRequestDTO);
+
+    /**
+     * Notifies the transaction listeners and records the amount metric for a stored record.
+     */
+    Mono<Void> publishTransaction(Transaction transaction);
+
+    Mono<RollingStatsDTO> getRollingStats(UUID accountId);
+
+    Flux<ServerSentEvent<RollingStatsDTO>> streamRollingStats(UUID accountId);
 }
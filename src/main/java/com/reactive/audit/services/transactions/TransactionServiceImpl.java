@@ -1,40 +1,148 @@
 package com.reactive.audit.services.transactions;
 
 import com.reactive.audit.DTO.req.TransactionRequestDTO;
+import com.reactive.audit.DTO.res.CursorPageDTO;
+import com.reactive.audit.DTO.res.RollingStatsDTO;
+import com.reactive.audit.DTO.res.TransactionHistoryDTO;
 import com.reactive.audit.DTO.res.TransactionResponseDTO;
+import com.reactive.audit.config.RollingStatsProperties;
 import com.reactive.audit.model.Transaction;
 import com.reactive.audit.repositories.TransactionReactiveRepository;
+import com.reactive.audit.services.ServiceMetrics;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
 
 @Service
 @AllArgsConstructor
 public class TransactionServiceImpl implements TransactionService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final String OPERATIONS_METRIC = "audit.transactions.operations";
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime HISTORY_END = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    // Sorts before every stored id, so the first page only keeps transactionDate < to.
+    private static final UUID LOWEST_ID = new UUID(0L, 0L);
+
     @Autowired
     private TransactionReactiveRepository transactionReactiveRepository;
 
+    @Autowired
+    private TransactionBatchWriter transactionBatchWriter;
+
+    @Autowired
+    private TransactionStreamHub transactionStreamHub;
+
+    @Autowired
+    private ServiceMetrics serviceMetrics;
+
+    @Autowired
+    private List<TransactionListener> transactionListeners;
+
+    @Autowired
+    private RollingStatsEngine rollingStatsEngine;
+
+    @Autowired
+    private RollingStatsProperties rollingStatsProperties;
+
     @Override
-    public Mono<TransactionResponseDTO> getAllTransactions() {
-        return transactionReactiveRepository.findAll()
-                .collectList()
-                .map(transactions -> TransactionResponseDTO.buildSuccess("Transactions found.", transactions));
+    public Mono<TransactionResponseDTO> getTransactionsPage(String cursor, int size) {
+        return serviceMetrics.timed(OPERATIONS_METRIC, "page", TransactionServiceImpl::outcomeOf, page(cursor, size));
+    }
+
+    private Mono<TransactionResponseDTO> page(String cursor, int size) {
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            return Mono.just(TransactionResponseDTO.buildError("Page size must be between 1 and " + MAX_PAGE_SIZE + "."));
+        }
 
+        TransactionCursor after;
+        try {
+            after = cursor == null ? null : TransactionCursor.parse(cursor);
+        } catch (IllegalArgumentException e) {
+            return Mono.just(TransactionResponseDTO.buildError("Invalid cursor."));
+        }
+
+        Pageable page = PageRequest.of(0, size, Sort.by("transactionDate", "id"));
+        Flux<Transaction> transactions = after == null
+                ? transactionReactiveRepository.findAllBy(page)
+                : transactionReactiveRepository.findAllAfter(after.getTransactionDate(), after.getId(), page);
+
+        return transactions.collectList()
+                .map(items -> TransactionResponseDTO.buildSuccess("Transactions found.", new CursorPageDTO<>(
+                        items,
+                        items.size() < size ? null : TransactionCursor.from(items.get(items.size() - 1)).encode())));
     }
 
     @Override
-    public Flux<Transaction> streamTransactions(String numberAccount) {
-        return transactionReactiveRepository.findWithTailableCursorByNumberAccount(numberAccount);
+    public Flux<Transaction> streamAllTransactions() {
+        return transactionReactiveRepository.findAll();
     }
 
+    @Override
+    public Flux<ServerSentEvent<Transaction>> streamTransactions(String numberAccount, String resumeToken) {
+        return transactionStreamHub.subscribe(numberAccount, resumeToken)
+                .map(event -> ServerSentEvent.builder(event.getTransaction())
+                        .id(event.getResumeToken())
+                        .build());
+    }
+
+
+    @Override
+    public Flux<TransactionHistoryDTO> getHistory(String numberAccount, LocalDateTime from, LocalDateTime to,
+                                                  String type, int limit, String after) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_PAGE_SIZE + "."));
+        }
+
+        TransactionCursor position;
+        try {
+            position = after == null
+                    ? new TransactionCursor(to == null ? HISTORY_END : to, LOWEST_ID)
+                    : TransactionCursor.parse(after);
+        } catch (IllegalArgumentException e) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor."));
+        }
+
+        LocalDateTime start = from == null ? HISTORY_START : from;
+        Pageable page = PageRequest.of(0, limit);
+        Flux<TransactionHistoryDTO> history = type == null
+                ? transactionReactiveRepository.findHistory(numberAccount, start, position.getTransactionDate(), position.getId(), page)
+                : transactionReactiveRepository.findHistoryByType(numberAccount, start, position.getTransactionDate(), position.getId(), type, page);
+
+        return history.map(item -> {
+            item.setCursor(new TransactionCursor(item.getTransactionDate(), item.getId()).encode());
+            return item;
+        });
+    }
 
     @Override
     public Mono<TransactionResponseDTO> createTransaction(TransactionRequestDTO transaction) {
+        return serviceMetrics.timed(OPERATIONS_METRIC, "create", TransactionServiceImpl::outcomeOf, create(transaction));
+    }
+
+    private Mono<TransactionResponseDTO> create(TransactionRequestDTO transaction) {
+        return insertTransaction(transaction)
+                .flatMap(savedTransaction -> publishTransaction(savedTransaction).thenReturn(savedTransaction))
+                .map(savedTransaction -> TransactionResponseDTO.buildSuccess("Transaction created successfully.", savedTransaction));
+    }
+
+    @Override
+    public Mono<Transaction> insertTransaction(TransactionRequestDTO transaction) {
         Transaction newTransaction = new Transaction();
         newTransaction.setAccountId(transaction.getAccountId());
         newTransaction.setNumberAccount(transaction.getNumberAccount());
@@ -44,7 +152,45 @@ public class TransactionServiceImpl implements TransactionService {
         newTransaction.setPreviousBalance(transaction.getPreviousBalance());
         newTransaction.setTransactionDate(LocalDateTime.now());
 
-        return transactionReactiveRepository.save(newTransaction)
-                .map(savedTransaction -> TransactionResponseDTO.buildSuccess("Transaction created successfully.", savedTransaction));
+        return persist(newTransaction);
+    }
+
+    @Override
+    public Mono<Void> publishTransaction(Transaction transaction) {
+        return Flux.fromIterable(transactionListeners)
+                .concatMap(listener -> listener.onTransaction(transaction))
+                .then(Mono.fromRunnable(() -> serviceMetrics.recordAmount(transaction.getType(), transaction.getAmount())));
+    }
+
+    @Override
+    public Mono<RollingStatsDTO> getRollingStats(UUID accountId) {
+        return Mono.fromSupplier(() -> rollingStatsEngine.snapshot(accountId));
+    }
+
+    // Snapshots are cheap to compute, so each subscriber polls the engine on its own interval.
+    @Override
+    public Flux<ServerSentEvent<RollingStatsDTO>> streamRollingStats(UUID accountId) {
+        return Flux.interval(Duration.ZERO, rollingStatsProperties.getPublishInterval())
+                .onBackpressureDrop()
+                .map(tick -> ServerSentEvent.builder(rollingStatsEngine.snapshot(accountId))
+                        .event("stats")
+                        .build());
+    }
+
+    private static String outcomeOf(TransactionResponseDTO response) {
+        return response.isSuccess() ? "success" : "rejected";
+    }
+
+    // Batched inserts run outside the caller's session, so inside a Mongo transaction the record is saved directly.
+    private Mono<Transaction> persist(Transaction transaction) {
+        if (!transactionBatchWriter.isEnabled()) {
+            return transactionReactiveRepository.save(transaction);
+        }
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .map(TransactionSynchronizationManager::isActualTransactionActive)
+                .onErrorReturn(NoTransactionException.class, false)
+                .flatMap(inTransaction -> inTransaction
+                        ? transactionReactiveRepository.save(transaction)
+                        : transactionBatchWriter.submit(transaction));
     }
 }
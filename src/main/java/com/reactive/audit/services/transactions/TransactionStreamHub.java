@@ -0,0 +1,87 @@
+package com.reactive.audit.services.transactions;
+
+import com.reactive.audit.config.TransactionStreamProperties;
+import com.reactive.audit.model.TransactionChangeEvent;
+import com.reactive.audit.repositories.TransactionChangeStream;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Component
+public class TransactionStreamHub {
+
+    private final TransactionChangeStream transactionChangeStream;
+    private final TransactionStreamProperties properties;
+    private final Map<String, Flux<TransactionChangeEvent>> hubs = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final AtomicInteger bufferedEvents = new AtomicInteger();
+    private final Counter droppedEvents;
+
+    public TransactionStreamHub(TransactionChangeStream transactionChangeStream,
+                                TransactionStreamProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.transactionChangeStream = transactionChangeStream;
+        this.properties = properties;
+
+        Gauge.builder("audit.streams.hubs", hubs, Map::size)
+                .description("Accounts with a shared upstream change stream")
+                .register(meterRegistry);
+        Gauge.builder("audit.streams.subscribers", subscribers, AtomicInteger::get)
+                .description("SSE subscribers attached to a transaction stream")
+                .register(meterRegistry);
+        Gauge.builder("audit.streams.buffered", bufferedEvents, AtomicInteger::get)
+                .description("Events queued in subscriber buffers waiting to be written")
+                .register(meterRegistry);
+        this.droppedEvents = Counter.builder("audit.streams.events.dropped")
+                .description("Events dropped for subscribers that could not keep up")
+                .register(meterRegistry);
+    }
+
+    // The hub is looked up at subscribe time: one looked up earlier may have been released in between.
+    public Flux<TransactionChangeEvent> subscribe(String numberAccount, String resumeToken) {
+        // A resumed subscriber needs its own replay from the token, so only live subscribers share a hub.
+        return Flux.defer(() -> buffered(resumeToken == null
+                        ? hubs.computeIfAbsent(numberAccount, this::createHub)
+                        : transactionChangeStream.watch(numberAccount, resumeToken)))
+                .doOnSubscribe(subscription -> subscribers.incrementAndGet())
+                .doFinally(signal -> subscribers.decrementAndGet());
+    }
+
+    private Flux<TransactionChangeEvent> buffered(Flux<TransactionChangeEvent> source) {
+        AtomicInteger pending = new AtomicInteger();
+        return source
+                .doOnNext(event -> adjustBuffered(pending, 1))
+                .onBackpressureBuffer(properties.getSubscriberBufferSize(),
+                        dropped -> {
+                            adjustBuffered(pending, -1);
+                            droppedEvents.increment();
+                        },
+                        properties.getOverflowStrategy())
+                .doOnNext(event -> adjustBuffered(pending, -1))
+                .doFinally(signal -> bufferedEvents.addAndGet(-pending.getAndSet(0)));
+    }
+
+    private void adjustBuffered(AtomicInteger pending, int delta) {
+        pending.addAndGet(delta);
+        bufferedEvents.addAndGet(delta);
+    }
+
+    private Flux<TransactionChangeEvent> createHub(String numberAccount) {
+        AtomicReference<Flux<TransactionChangeEvent>> hub = new AtomicReference<>();
+        hub.set(transactionChangeStream.watch(numberAccount, null)
+                // A subscriber that got the hub just before it was released reconnects it; map it again so
+                // later subscribers join that upstream instead of opening a second one.
+                .doOnSubscribe(subscription -> hubs.putIfAbsent(numberAccount, hub.get()))
+                .doFinally(signal -> hubs.remove(numberAccount, hub.get()))
+                .publish()
+                .refCount(1, properties.getGracePeriod()));
+        return hub.get();
+    }
+}
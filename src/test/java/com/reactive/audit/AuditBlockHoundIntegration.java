@@ -0,0 +1,20 @@
+package com.reactive.audit;
+
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.integration.BlockHoundIntegration;
+
+/**
+ * Blocking calls the tests accept on non-blocking threads. BlockHound is installed for every test
+ * run by {@code blockhound-junit-platform} and picks this class up through {@code META-INF/services}.
+ */
+public class AuditBlockHoundIntegration implements BlockHoundIntegration {
+
+    @Override
+    public void applyTo(BlockHound.Builder builder) {
+        builder
+                // Console logging takes the appender lock; accepted for log statements.
+                .allowBlockingCallsInside("ch.qos.logback.core.OutputStreamAppender", "writeBytes")
+                // Caffeine's maintenance lock is held for microseconds while applying reads and writes.
+                .allowBlockingCallsInside("com.github.benmanes.caffeine.cache.BoundedLocalCache", "performCleanUp");
+    }
+}
@@ -0,0 +1,156 @@
+package com.reactive.audit;
+
+import com.reactive.audit.DTO.req.TransactionRequestDTO;
+import com.reactive.audit.DTO.res.TransactionResponseDTO;
+import com.reactive.audit.config.AccountCacheProperties;
+import com.reactive.audit.config.AccountLaneProperties;
+import com.reactive.audit.config.AuditSchedulers;
+import com.reactive.audit.config.ConsistencyProperties;
+import com.reactive.audit.config.FraudProperties;
+import com.reactive.audit.config.OptimisticLockProperties;
+import com.reactive.audit.config.RollingStatsProperties;
+import com.reactive.audit.config.SchedulerProperties;
+import com.reactive.audit.model.BalanceUpdate;
+import com.reactive.audit.model.BankAccount;
+import com.reactive.audit.model.FraudAlert;
+import com.reactive.audit.model.Transaction;
+import com.reactive.audit.repositories.BankAccountReactiveRepository;
+import com.reactive.audit.repositories.FraudAlertReactiveRepository;
+import com.reactive.audit.services.ServiceMetrics;
+import com.reactive.audit.services.accounts.AccountCache;
+import com.reactive.audit.services.accounts.AccountLaneExecutor;
+import com.reactive.audit.services.accounts.BankAccountServiceImpl;
+import com.reactive.audit.services.accounts.OptimisticRetry;
+import com.reactive.audit.services.fraud.FraudRuleEngine;
+import com.reactive.audit.services.transactions.RollingStatsEngine;
+import com.reactive.audit.services.transactions.TransactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.blockhound.BlockingOperationError;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BlockingCallsTest {
+
+    private final AuditSchedulers auditSchedulers = new AuditSchedulers(new SchedulerProperties());
+
+    @AfterEach
+    void tearDown() {
+        auditSchedulers.dispose();
+    }
+
+    @Test
+    void testBlockHound_DetectsBlockingOnNonBlockingThreads() {
+        // Act & Assert: Dormir en un hilo parallel se detecta como llamada bloqueante
+        StepVerifier.create(Mono.fromCallable(() -> {
+                            Thread.sleep(1);
+                            return 1;
+                        })
+                        .subscribeOn(Schedulers.parallel()))
+                .expectError(BlockingOperationError.class)
+                .verify();
+    }
+
+    @Test
+    void testNewDocuments_GenerateIdsWithoutBlocking() {
+        // Act & Assert: Crear documentos en un hilo no bloqueante no toca SecureRandom
+        StepVerifier.create(Mono.fromCallable(() -> new UUID[]{
+                                new BankAccount().getId(), new Transaction().getId(), new FraudAlert().getId()})
+                        .subscribeOn(auditSchedulers.cpu()))
+                .assertNext(ids -> {
+                    for (UUID id : ids) {
+                        assertEquals(7, id.version());
+                    }
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testBlockingScheduler_AllowsBlockingCalls() {
+        // Act & Assert
+        StepVerifier.create(Mono.fromCallable(() -> {
+                            Thread.sleep(1);
+                            return Thread.currentThread().getName();
+                        })
+                        .subscribeOn(auditSchedulers.blocking()))
+                .assertNext(thread -> assertTrue(thread.startsWith("audit-blocking")))
+                .verifyComplete();
+    }
+
+    @Test
+    void testBlockingScheduler_AppliesConfiguredCaps() throws InterruptedException {
+        // Arrange: Un solo hilo y una sola tarea en cola
+        SchedulerProperties properties = new SchedulerProperties();
+        properties.setBlockingThreadCap(1);
+        properties.setBlockingQueueCap(1);
+        AuditSchedulers capped = new AuditSchedulers(properties);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+
+        try {
+            // Act: La primera tarea ocupa el hilo y la segunda espera en la cola
+            capped.blocking().schedule(() -> {
+                running.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+            capped.blocking().schedule(() -> { });
+
+            // Assert: Superados ambos topes, la tercera se rechaza en lugar de crear otro hilo
+            assertThrows(RejectedExecutionException.class, () -> capped.blocking().schedule(() -> { }));
+        } finally {
+            release.countDown();
+            capped.dispose();
+        }
+    }
+
+    @Test
+    void testDeposit_ThroughLaneAndCacheWithoutBlocking() {
+        // Arrange: Repositorios simulados; carril, caché, métricas y motores reales
+        UUID accountId = UUID.randomUUID();
+        BankAccount account = new BankAccount(accountId, "1234567890", 150L, "SAVINGS");
+        BankAccountReactiveRepository bankAccountReactiveRepository = mock(BankAccountReactiveRepository.class);
+        when(bankAccountReactiveRepository.depositBalance(accountId, 50L))
+                .thenReturn(Mono.just(new BalanceUpdate(account, 100L, 150L)));
+        TransactionService transactionService = mock(TransactionService.class);
+        when(transactionService.createTransaction(any(TransactionRequestDTO.class)))
+                .thenReturn(Mono.just(TransactionResponseDTO.buildSuccess("Transaction created successfully.", null)));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BankAccountServiceImpl bankAccountService = new BankAccountServiceImpl(bankAccountReactiveRepository, null,
+                transactionService,
+                new AccountCache(new AccountCacheProperties(), meterRegistry),
+                new ServiceMetrics(meterRegistry),
+                new AccountLaneExecutor(new AccountLaneProperties(), meterRegistry),
+                new OptimisticRetry(new OptimisticLockProperties(), meterRegistry),
+                new ConsistencyProperties(), null, null,
+                new FraudRuleEngine(List.of(), mock(FraudAlertReactiveRepository.class), new FraudProperties(), meterRegistry),
+                new RollingStatsEngine(new RollingStatsProperties(), meterRegistry));
+
+        // Act & Assert: El depósito y la lectura posterior desde la caché corren en hilos parallel
+        StepVerifier.create(bankAccountService.depositMoney(accountId, 50L).subscribeOn(Schedulers.parallel()))
+                .assertNext(response -> assertTrue(response.isSuccess(), response.getMessage()))
+                .verifyComplete();
+        StepVerifier.create(bankAccountService.getAccount(accountId).subscribeOn(Schedulers.parallel()))
+                .assertNext(response -> assertEquals(150L, ((BankAccount) response.getData()).getBalance()))
+                .verifyComplete();
+
+        verify(bankAccountReactiveRepository, never()).findById(any(UUID.class));
+    }
+}
@@ -0,0 +1,85 @@
+package com.reactive.audit.config;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.reactive.audit.model.BankAccount;
+import com.reactive.audit.repositories.BankAccountAnalyticsOperationsImpl;
+import com.reactive.audit.repositories.BankAccountBalanceOperationsImpl;
+import com.reactive.audit.repositories.BankAccountReactiveRepository;
+import org.bson.Document;
+import org.bson.UuidRepresentation;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks on a real MongoDB that a legacy double balance is neither mixed with minor units nor
+ * silently accepted at startup. Only runs when {@code MONGO_URI} is set.
+ */
+@EnabledIfEnvironmentVariable(named = "MONGO_URI", matches = ".+")
+class LegacyDataMigrationTest {
+
+    private static final String DATABASE = "audit_migration_check_" + System.currentTimeMillis();
+
+    private static MongoClient mongoClient;
+    private static ReactiveMongoTemplate template;
+    private static BankAccountReactiveRepository bankAccountReactiveRepository;
+
+    @BeforeAll
+    static void setUp() {
+        mongoClient = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(System.getenv("MONGO_URI")))
+                .uuidRepresentation(UuidRepresentation.JAVA_LEGACY)
+                .build());
+
+        template = new ReactiveMongoTemplate(mongoClient, DATABASE);
+        bankAccountReactiveRepository = new ReactiveMongoRepositoryFactory(template).getRepository(
+                BankAccountReactiveRepository.class,
+                RepositoryFragments.just(new BankAccountBalanceOperationsImpl(template), new BankAccountAnalyticsOperationsImpl(template)));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        Mono.from(mongoClient.getDatabase(DATABASE).drop()).block();
+        mongoClient.close();
+    }
+
+    @Test
+    void testLegacyDoubleBalance_RefusedUntilMigrated() {
+        // Arrange: Una cuenta escrita por la versión anterior, con el saldo en unidades mayores
+        UUID accountId = UUID.randomUUID();
+        template.insert(new Document("_id", template.getConverter().convertToMongoType(accountId))
+                        .append("numberAccount", "1234567890")
+                        .append("balance", 10.5)
+                        .append("type", "SAVINGS"),
+                template.getCollectionName(BankAccount.class)).block();
+        LegacyDataMigration migration = new LegacyDataMigration(template, false, Duration.ofMinutes(1));
+
+        // Act & Assert: El $inc no toca el double y el arranque sin migración falla
+        StepVerifier.create(bankAccountReactiveRepository.depositBalance(accountId, 100L)).verifyComplete();
+        assertThrows(IllegalStateException.class, migration::afterSingletonsInstantiated);
+
+        // Tras migrar, la cuenta opera en unidades menores
+        migration.migrate().block();
+        StepVerifier.create(bankAccountReactiveRepository.depositBalance(accountId, 100L))
+                .assertNext(update -> {
+                    assertEquals(1050L, update.getPreviousBalance());
+                    assertEquals(1150L, update.getCurrentBalance());
+                })
+                .verifyComplete();
+        StepVerifier.create(migration.legacyMoneyFields()).verifyComplete();
+    }
+}
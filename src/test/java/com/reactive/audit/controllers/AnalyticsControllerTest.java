@@ -0,0 +1,90 @@
+package com.reactive.audit.controllers;
+
+import com.reactive.audit.DTO.res.BalanceDistributionDTO;
+import com.reactive.audit.DTO.res.TypeTotalsDTO;
+import com.reactive.audit.services.transactions.TransactionAnalyticsService;
+import lombok.AllArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.Mockito.*;
+
+@WebFluxTest(AnalyticsController.class)
+@AllArgsConstructor
+class AnalyticsControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockitoBean
+    private TransactionAnalyticsService transactionAnalyticsService;
+
+    @Test
+    void testGetTotalsByType_StreamsGroups() {
+        // Arrange
+        LocalDateTime from = LocalDateTime.of(2025, 1, 16, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 1, 17, 0, 0);
+        TypeTotalsDTO deposits = new TypeTotalsDTO("DEPOSIT", 2L, 400L, 200.0);
+        TypeTotalsDTO withdrawals = new TypeTotalsDTO("WITHDRAWAL", 1L, 40L, 40.0);
+        when(transactionAnalyticsService.getTotalsByType(from, to)).thenReturn(Flux.just(deposits, withdrawals));
+
+        // Act
+        Flux<TypeTotalsDTO> body = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/analytics/transactions/by-type")
+                        .queryParam("from", "2025-01-16T00:00:00")
+                        .queryParam("to", "2025-01-17T00:00:00")
+                        .build())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(TypeTotalsDTO.class)
+                .getResponseBody();
+
+        // Assert: Un grupo por línea
+        StepVerifier.create(body)
+                .expectNext(deposits, withdrawals)
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetTotalsByType_InvalidRange() {
+        // Arrange
+        when(transactionAnalyticsService.getTotalsByType(any(), any()))
+                .thenReturn(Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must be before 'to'.")));
+
+        // Act & Assert
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/analytics/transactions/by-type")
+                        .queryParam("from", "2025-01-17T00:00:00")
+                        .queryParam("to", "2025-01-16T00:00:00")
+                        .build())
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testGetBalanceDistribution_Success() {
+        // Arrange
+        BalanceDistributionDTO savings = new BalanceDistributionDTO("SAVINGS", 2L, 400L, 200.0, 100L, 300L);
+        when(transactionAnalyticsService.getBalanceDistribution()).thenReturn(Flux.just(savings));
+
+        // Act & Assert
+        webTestClient.get()
+                .uri("/api/analytics/accounts/balances")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BalanceDistributionDTO.class)
+                .containsExactly(savings);
+    }
+}
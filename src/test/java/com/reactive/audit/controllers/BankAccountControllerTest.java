@@ -1,22 +1,30 @@
 package com.reactive.audit.controllers;
 
 import com.reactive.audit.DTO.req.BankAccountRequestDTO;
+import com.reactive.audit.DTO.res.BalanceAtDTO;
 import com.reactive.audit.DTO.res.BankAccountResponseDTO;
+import com.reactive.audit.DTO.res.CursorPageDTO;
 import com.reactive.audit.model.BankAccount;
+import com.reactive.audit.services.accounts.BalanceSnapshotService;
 import com.reactive.audit.services.accounts.BankAccountService;
+import com.reactive.audit.services.accounts.IdempotencyService;
 import lombok.AllArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -31,34 +39,72 @@ class BankAccountControllerTest {
     @MockitoBean
     private BankAccountService bankAccountService;
 
+    @MockitoBean
+    private BalanceSnapshotService balanceSnapshotService;
+
+    @MockitoBean
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void runOperationsThroughIdempotency() {
+        // El servicio de idempotencia simplemente ejecuta la operación recibida
+        when(idempotencyService.execute(any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<Mono<BankAccountResponseDTO>>>getArgument(2).get());
+    }
 
     @Test
     void  testStreamBalance_Success() {
         //        //Arrange: Configuración del mock para el flujo de balances
-        Flux<Double> mockFlux = Flux.just(100.0, 150.0, 200.0);
+        Flux<ServerSentEvent<String>> mockFlux = Flux.just("100", "150", "200")
+                .map(balance -> ServerSentEvent.builder(balance).id("token-" + balance).build());
 
-        when(bankAccountService.streamBalanceByAccountNumber("123456789"))
+        when(bankAccountService.streamBalanceByAccountNumber("123456789", null))
                 .thenReturn(mockFlux);
 
         // Act: Realización de la acción
-        Flux<Double> responseBody = webTestClient.get()
+        Flux<String> responseBody = webTestClient.get()
                 .uri(uriBuilder -> uriBuilder.path("/api/accounts/balance-stream")
                         .queryParam("numberAccount", "123456789")
                         .build())
                 .exchange()
                 .expectStatus().isOk()  // Verifica el estado HTTP
                 .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)  // Verifica que el tipo de contenido sea compatible
-                .returnResult(Double.class)  // Esperamos un flujo de objetos Double
+                .returnResult(String.class)  // El saldo llega como texto en unidades menores
                 .getResponseBody();  // Obtenemos el cuerpo del flujo
 
         // Assert: Validación del flujo de datos
         StepVerifier.create(responseBody)
-                .expectNext(100.0)  // Esperamos que el primer balance sea 100.0
-                .expectNext(150.0)  // Luego, esperamos 150.0
-                .expectNext(200.0)  // Y finalmente, 200.0
+                .expectNext("100")  // Esperamos que el primer balance sea 100
+                .expectNext("150")  // Luego, esperamos 150
+                .expectNext("200")  // Y finalmente, 200
                 .verifyComplete();  // Verifica que el flujo se complete sin errores
 
-        verify(bankAccountService, times(1)).streamBalanceByAccountNumber("123456789");  // Verifica que el servicio haya sido llamado una vez
+        verify(bankAccountService, times(1)).streamBalanceByAccountNumber("123456789", null);  // Verifica que el servicio haya sido llamado una vez
+    }
+
+    @Test
+    void testStreamBalance_ResumesFromLastEventId() {
+        // Arrange: El navegador reconecta enviando el último id recibido
+        when(bankAccountService.streamBalanceByAccountNumber("123456789", "token-150"))
+                .thenReturn(Flux.just(ServerSentEvent.builder("200").id("token-200").build()));
+
+        // Act
+        Flux<String> responseBody = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/accounts/balance-stream")
+                        .queryParam("numberAccount", "123456789")
+                        .build())
+                .header("Last-Event-ID", "token-150")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseBody();
+
+        // Assert: El token se pasa al servicio para reanudar el change stream
+        StepVerifier.create(responseBody)
+                .expectNext("200")
+                .verifyComplete();
+
+        verify(bankAccountService, times(1)).streamBalanceByAccountNumber("123456789", "token-150");
     }
 
 
@@ -66,12 +112,12 @@ class BankAccountControllerTest {
     void testGetAllAccounts_Success() {
         // Arrange: Configuración de datos y mocks
         List<BankAccount> mockAccounts = List.of(
-                new BankAccount(UUID.randomUUID(), "1234567890", 1000.0, "SAVINGS"),
-                new BankAccount(UUID.randomUUID(), "0987654321", 2000.0, "CHECKING")
+                new BankAccount(UUID.randomUUID(), "1234567890", 1000L, "SAVINGS"),
+                new BankAccount(UUID.randomUUID(), "0987654321", 2000L, "CHECKING")
         );
-        BankAccountResponseDTO mockResponse = BankAccountResponseDTO.buildSuccess("Accounts found.", mockAccounts);
+        BankAccountResponseDTO mockResponse = BankAccountResponseDTO.buildSuccess("Accounts found.", new CursorPageDTO<>(mockAccounts, null));
 
-        when(bankAccountService.getAllAccounts()).thenReturn(Mono.just(mockResponse));
+        when(bankAccountService.getAccountsPage(null, 100)).thenReturn(Mono.just(mockResponse));
 
         // Act: Realización de la acción
         WebTestClient.ResponseSpec responseSpec = webTestClient.get()
@@ -80,15 +126,56 @@ class BankAccountControllerTest {
 
         // Assert: Validación de los resultados
         responseSpec.expectStatus().isOk()  // Verifica que el estado HTTP sea 200 OK
-                .expectBody(BankAccountResponseDTO.class)  // Verifica que la respuesta sea de tipo BankAccountResponseDTO
-                .value(response -> {
-                    assertTrue(response.isSuccess());  // Verifica que el campo 'success' sea verdadero
-                    assertEquals("Accounts found.", response.getMessage());  // Verifica que el mensaje sea el esperado
-                    assertNotNull(response.getData());  // Verifica que los datos no sean nulos
-                    assertEquals(2, ((List<?>) response.getData()).size());  // Verifica que la lista de cuentas tenga 2 elementos
-                });
+                .expectBody()
+                .jsonPath("$.success").isEqualTo(true)
+                .jsonPath("$.message").isEqualTo("Accounts found.")
+                .jsonPath("$.data.items.length()").isEqualTo(2)  // Verifica que la página tenga 2 cuentas
+                .jsonPath("$.data.nextCursor").isEmpty();  // Última página: sin cursor siguiente
+
+        verify(bankAccountService, times(1)).getAccountsPage(null, 100);  // Verifica que el método del servicio haya sido llamado una vez
+    }
+
+    @Test
+    void testGetAllAccounts_InvalidCursor() {
+        // Arrange: El servicio rechaza el cursor
+        when(bankAccountService.getAccountsPage("not-a-cursor", 100))
+                .thenReturn(Mono.just(BankAccountResponseDTO.buildError("Invalid cursor.")));
+
+        // Act
+        WebTestClient.ResponseSpec responseSpec = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/accounts").queryParam("cursor", "not-a-cursor").build())
+                .exchange();
+
+        // Assert
+        responseSpec.expectStatus().isBadRequest()
+                .expectBody(BankAccountResponseDTO.class)
+                .value(response -> assertEquals("Invalid cursor.", response.getMessage()));
+    }
+
+    @Test
+    void testStreamAllAccounts_Ndjson() {
+        // Arrange: El servicio emite las cuentas a medida que llegan
+        BankAccount account1 = new BankAccount(UUID.randomUUID(), "1234567890", 1000L, "SAVINGS");
+        BankAccount account2 = new BankAccount(UUID.randomUUID(), "0987654321", 2000L, "CHECKING");
+        when(bankAccountService.streamAllAccounts()).thenReturn(Flux.just(account1, account2));
+
+        // Act: Solicitud con Accept NDJSON
+        Flux<BankAccount> responseBody = webTestClient.get()
+                .uri("/api/accounts")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(BankAccount.class)
+                .getResponseBody();
+
+        // Assert: Cada documento llega como una línea independiente
+        StepVerifier.create(responseBody)
+                .expectNext(account1)
+                .expectNext(account2)
+                .verifyComplete();
 
-        verify(bankAccountService, times(1)).getAllAccounts();  // Verifica que el método del servicio haya sido llamado una vez
+        verify(bankAccountService, never()).getAccountsPage(any(), anyInt());
     }
 
 
@@ -97,7 +184,7 @@ class BankAccountControllerTest {
         // Arrange: Configuración de la solicitud válida
         BankAccountRequestDTO validRequest = BankAccountRequestDTO.builder()
                 .numberAccount("1234567890")
-                .balance(1500.0)
+                .balance(1500L)
                 .type("CHECKING")
                 .build();
 
@@ -105,7 +192,7 @@ class BankAccountControllerTest {
         BankAccount createdAccount = new BankAccount(
                 UUID.randomUUID(),
                 "1234567890",
-                1500.0,
+                1500L,
                 "CHECKING"
         );
 
@@ -127,7 +214,7 @@ class BankAccountControllerTest {
                 .expectBody()
                 .jsonPath("$.data.id").isNotEmpty()
                 .jsonPath("$.data.numberAccount").isEqualTo("1234567890")
-                .jsonPath("$.data.balance").isEqualTo(1500.0)
+                .jsonPath("$.data.balance").isEqualTo(1500L)
                 .jsonPath("$.data.type").isEqualTo("CHECKING");
 
         // Verifica que el servicio fue llamado una vez
@@ -140,7 +227,7 @@ class BankAccountControllerTest {
         // Arrange: Configuración de la solicitud inválida (por ejemplo, número de cuenta ya existe)
         BankAccountRequestDTO invalidRequest = BankAccountRequestDTO.builder()
                 .numberAccount("1234567890")  // Número de cuenta que ya existe
-                .balance(1500.0)
+                .balance(1500L)
                 .type("CHECKING")
                 .build();
 
@@ -175,7 +262,7 @@ class BankAccountControllerTest {
         UUID accountId = UUID.randomUUID();  // ID de cuenta simulado
         BankAccountRequestDTO validRequest = BankAccountRequestDTO.builder()
                 .numberAccount("1234567890")
-                .balance(1500.0)
+                .balance(1500L)
                 .type("CHECKING")
                 .build();
 
@@ -183,7 +270,7 @@ class BankAccountControllerTest {
         BankAccount updatedAccount = new BankAccount(
                 accountId,
                 "1234567890",
-                1500.0,
+                1500L,
                 "CHECKING"
         );
 
@@ -218,7 +305,7 @@ class BankAccountControllerTest {
         UUID accountId = UUID.randomUUID();  // ID de cuenta que no existe
         BankAccountRequestDTO validRequest = BankAccountRequestDTO.builder()
                 .numberAccount("1234567890")
-                .balance(1500.0)
+                .balance(1500L)
                 .type("CHECKING")
                 .build();
 
@@ -247,6 +334,42 @@ class BankAccountControllerTest {
         verify(bankAccountService, times(1)).updateAccount(eq(accountId), any(BankAccountRequestDTO.class));
     }
 
+    @Test
+    void testGetAccount_Success() {
+        // Arrange
+        UUID accountId = UUID.randomUUID();
+        BankAccount account = new BankAccount(accountId, "123456789", 100L, "SAVINGS");
+        when(bankAccountService.getAccount(accountId))
+                .thenReturn(Mono.just(BankAccountResponseDTO.buildSuccess("Account found.", account)));
+
+        // Act & Assert
+        webTestClient.get()
+                .uri("/api/accounts/{accountId}", accountId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BankAccountResponseDTO.class)
+                .value(response -> {
+                    assertTrue(response.isSuccess());
+                    assertEquals("Account found.", response.getMessage());
+                });
+
+        verify(bankAccountService, times(1)).getAccount(accountId);
+    }
+
+    @Test
+    void testGetAccount_NotFound() {
+        // Arrange
+        UUID accountId = UUID.randomUUID();
+        when(bankAccountService.getAccount(accountId))
+                .thenReturn(Mono.just(BankAccountResponseDTO.buildError("Account not found.")));
+
+        // Act & Assert
+        webTestClient.get()
+                .uri("/api/accounts/{accountId}", accountId)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
     @Test
     void testDeleteAccount_Success() {
         // Arrange: Crear una cuenta para simular la eliminación
@@ -310,7 +433,7 @@ class BankAccountControllerTest {
     void testDepositMoney_Success() {
         // Arrange: Definir un ID de cuenta y un monto válido
         UUID accountId = UUID.randomUUID();  // ID simulado de la cuenta
-        double depositAmount = 100.0;  // Monto del depósito
+        long depositAmount = 100L;  // Monto del depósito
 
         // Crear una respuesta de éxito que simule el depósito
         BankAccountResponseDTO mockResponse = BankAccountResponseDTO.buildSuccess("Deposit successful.", null);
@@ -343,7 +466,7 @@ class BankAccountControllerTest {
     void testDepositMoney_BadRequest() {
         // Arrange: Definir un ID de cuenta y un monto negativo
         UUID accountId = UUID.randomUUID();  // ID simulado de la cuenta
-        double depositAmount = -100.0;  // Monto negativo (depósito no válido)
+        long depositAmount = -100L;  // Monto negativo (depósito no válido)
 
         // Crear una respuesta de error que simule el fallo en el depósito
         BankAccountResponseDTO mockResponse = BankAccountResponseDTO.buildError("Amount must be positive.");
@@ -377,7 +500,7 @@ class BankAccountControllerTest {
     void testWithdrawMoney_Success() {
         // Arrange: Definir un ID de cuenta y un monto válido
         UUID accountId = UUID.randomUUID();  // ID simulado de la cuenta
-        double withdrawAmount = 100.0;  // Monto del retiro
+        long withdrawAmount = 100L;  // Monto del retiro
 
         // Crear una respuesta de éxito que simule el retiro
         BankAccountResponseDTO mockResponse = BankAccountResponseDTO.buildSuccess("Withdrawal successful.", null);
@@ -411,7 +534,7 @@ class BankAccountControllerTest {
     void testWithdrawMoney_BadRequest() {
         // Arrange: Definir un ID de cuenta y un monto negativo
         UUID accountId = UUID.randomUUID();  // ID simulado de la cuenta
-        double withdrawAmount = -100.0;  // Monto negativo (retiro no válido)
+        long withdrawAmount = -100L;  // Monto negativo (retiro no válido)
 
         // Crear una respuesta de error que simule el fallo en el retiro
         BankAccountResponseDTO mockResponse = BankAccountResponseDTO.buildError("Amount must be positive.");
@@ -439,4 +562,58 @@ class BankAccountControllerTest {
 
         verify(bankAccountService, times(1)).withdrawMoney(eq(accountId), eq(withdrawAmount));  // Verifica que el servicio fue llamado una vez
     }
-}
\ No newline at end of file
+
+    @Test
+    void testDepositMoney_PassesIdempotencyKey() {
+        // Arrange
+        UUID accountId = UUID.randomUUID();
+        when(bankAccountService.depositMoney(eq(accountId), eq(100L)))
+                .thenReturn(Mono.just(BankAccountResponseDTO.buildSuccess("Deposit successful.", null)));
+
+        // Act
+        webTestClient.post()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/api/accounts/deposit/{accountId}")
+                        .queryParam("amount", 100L)
+                        .build(accountId))
+                .header("Idempotency-Key", "retry-1")
+                .exchange()
+                .expectStatus().isOk();
+
+        // Assert: La clave y la huella de la petición llegan al servicio de idempotencia
+        verify(idempotencyService, times(1)).execute(eq("retry-1"), eq("deposit:" + accountId + ":100"), any());
+    }
+
+    @Test
+    void testGetBalanceAt_Success() {
+        // Arrange
+        UUID accountId = UUID.randomUUID();
+        LocalDateTime ts = LocalDateTime.of(2025, 1, 16, 10, 0, 0);
+        when(balanceSnapshotService.getBalanceAt(accountId, ts))
+                .thenReturn(Mono.just(BankAccountResponseDTO.buildSuccess("Balance found.", new BalanceAtDTO(accountId, ts, 250L))));
+
+        // Act & Assert
+        webTestClient.get()
+                .uri("/api/accounts/{accountId}/balance-at?ts={ts}", accountId, "2025-01-16T10:00:00")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data.balance").isEqualTo(250L);
+
+        verify(balanceSnapshotService, times(1)).getBalanceAt(accountId, ts);
+    }
+
+    @Test
+    void testGetBalanceAt_AccountNotFound() {
+        // Arrange
+        UUID accountId = UUID.randomUUID();
+        when(balanceSnapshotService.getBalanceAt(eq(accountId), any(LocalDateTime.class)))
+                .thenReturn(Mono.just(BankAccountResponseDTO.buildError("Account not found.")));
+
+        // Act & Assert
+        webTestClient.get()
+                .uri("/api/accounts/{accountId}/balance-at?ts={ts}", accountId, "2025-01-16T10:00:00")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
@@ -0,0 +1,91 @@
+package com.reactive.audit.controllers;
+
+import com.reactive.audit.DTO.req.FraudRulesDTO;
+import com.reactive.audit.model.FraudAlert;
+import com.reactive.audit.services.fraud.FraudRuleEngine;
+import lombok.AllArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@WebFluxTest(FraudController.class)
+@AllArgsConstructor
+class FraudControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockitoBean
+    private FraudRuleEngine fraudRuleEngine;
+
+    @Test
+    void testStreamAlerts_Sse() {
+        // Arrange
+        FraudAlert alert = new FraudAlert(UUID.randomUUID(), UUID.randomUUID(), "1234567890", "WITHDRAWAL",
+                9_500L, "withdraw_after_deposit", "Withdrawal of most of a deposit made 30000 ms earlier.",
+                LocalDateTime.of(2025, 1, 16, 10, 0));
+        when(fraudRuleEngine.alerts()).thenReturn(Flux.just(alert));
+
+        // Act
+        Flux<FraudAlert> responseBody = webTestClient.get()
+                .uri("/api/fraud/alerts/stream")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .returnResult(FraudAlert.class)
+                .getResponseBody();
+
+        // Assert
+        StepVerifier.create(responseBody)
+                .expectNext(alert)
+                .verifyComplete();
+    }
+
+    @Test
+    void testUpdateRules_AppliesNewThresholds() {
+        // Arrange
+        FraudRulesDTO rules = new FraudRulesDTO();
+        rules.setMaxOperations(20);
+        when(fraudRuleEngine.updateRules(rules)).thenReturn(rules);
+
+        // Act & Assert
+        webTestClient.put()
+                .uri("/api/fraud/rules")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(rules)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.maxOperations").isEqualTo(20);
+
+        verify(fraudRuleEngine, times(1)).updateRules(rules);
+    }
+
+    @Test
+    void testUpdateRules_InvalidRulesAreRejected() {
+        // Arrange
+        when(fraudRuleEngine.updateRules(any(FraudRulesDTO.class)))
+                .thenThrow(new ResponseStatusException(HttpStatus.BAD_REQUEST, "withdrawRatio must be greater than 0 and at most 1."));
+
+        // Act & Assert
+        webTestClient.put()
+                .uri("/api/fraud/rules")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new FraudRulesDTO())
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
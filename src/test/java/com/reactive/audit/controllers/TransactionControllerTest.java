@@ -1,13 +1,18 @@
 package com.reactive.audit.controllers;
 
+import com.reactive.audit.DTO.res.CursorPageDTO;
+import com.reactive.audit.DTO.res.RollingStatsDTO;
+import com.reactive.audit.DTO.res.TransactionHistoryDTO;
 import com.reactive.audit.DTO.res.TransactionResponseDTO;
 import com.reactive.audit.model.Transaction;
+import com.reactive.audit.services.transactions.TransactionCursor;
 import com.reactive.audit.services.transactions.TransactionService;
 import lombok.AllArgsConstructor;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
@@ -17,6 +22,7 @@ import reactor.test.StepVerifier;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -39,9 +45,9 @@ class TransactionControllerTest {
                 UUID.randomUUID(),
                 "1234567890",
                 "DEPOSIT",
-                500.0,
-                1000.0,
-                1500.0,
+                500L,
+                1000L,
+                1500L,
                 LocalDateTime.now()
         );
         Transaction transaction2 = new Transaction(
@@ -49,34 +55,92 @@ class TransactionControllerTest {
                 UUID.randomUUID(),
                 "0987654321",
                 "WITHDRAWAL",
-                200.0,
-                1500.0,
-                1300.0,
+                200L,
+                1500L,
+                1300L,
                 LocalDateTime.now()
         );
 
-        // Simulamos que el servicio devuelve una lista de transacciones
+        // Simulamos que el servicio devuelve una página de transacciones
         List<Transaction> mockTransactions = List.of(transaction1, transaction2);
-        TransactionResponseDTO mockResponse = TransactionResponseDTO.buildSuccess("Transactions found.", mockTransactions);
+        TransactionResponseDTO mockResponse = TransactionResponseDTO.buildSuccess("Transactions found.",
+                new CursorPageDTO<>(mockTransactions, TransactionCursor.from(transaction2).encode()));
 
-        when(transactionService.getAllTransactions()).thenReturn(Mono.just(mockResponse));
+        when(transactionService.getTransactionsPage(null, 2)).thenReturn(Mono.just(mockResponse));
 
         // Act: Realizar la solicitud GET
         WebTestClient.ResponseSpec responseSpec = webTestClient.get()
-                .uri("/api/transactions")
+                .uri(uriBuilder -> uriBuilder.path("/api/transactions").queryParam("size", 2).build())
                 .exchange();
 
         // Assert: Validación de la respuesta
         responseSpec.expectStatus().isOk()  // Verifica que el estado HTTP sea 200
-                .expectBody(TransactionResponseDTO.class)  // Verifica que la respuesta sea del tipo esperado
-                .value(response -> {
-                    assertTrue(response.isSuccess());  // Verifica que el campo 'success' sea verdadero
-                    assertEquals("Transactions found.", response.getMessage());  // Verifica que el mensaje sea correcto
-                    assertNotNull(response.getData());  // Verifica que 'data' no sea nulo
-                    assertFalse(((List<?>) response.getData()).isEmpty());  // Verifica que haya transacciones
-                });
-
-        verify(transactionService, times(1)).getAllTransactions();// Verifica que el servicio fue llamado una vez
+                .expectBody()
+                .jsonPath("$.success").isEqualTo(true)  // Verifica que el campo 'success' sea verdadero
+                .jsonPath("$.message").isEqualTo("Transactions found.")  // Verifica que el mensaje sea correcto
+                .jsonPath("$.data.items.length()").isEqualTo(2)  // Verifica que haya transacciones
+                .jsonPath("$.data.nextCursor").isEqualTo(TransactionCursor.from(transaction2).encode());  // Cursor de la página siguiente
+
+        verify(transactionService, times(1)).getTransactionsPage(null, 2);// Verifica que el servicio fue llamado una vez
+    }
+
+    @Test
+    void testStreamAllTransactions_Ndjson() {
+        // Arrange: El servicio emite las transacciones a medida que llegan
+        Transaction transaction = new Transaction(
+                UUID.randomUUID(),
+                UUID.randomUUID(),
+                "1234567890",
+                "DEPOSIT",
+                500L,
+                1000L,
+                1500L,
+                LocalDateTime.now()
+        );
+        when(transactionService.streamAllTransactions()).thenReturn(Flux.just(transaction));
+
+        // Act: Solicitud con Accept NDJSON
+        Flux<Transaction> responseBody = webTestClient.get()
+                .uri("/api/transactions")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Transaction.class)
+                .getResponseBody();
+
+        // Assert
+        StepVerifier.create(responseBody)
+                .expectNext(transaction)
+                .verifyComplete();
+    }
+
+    @Test
+    void testStreamAllTransactions_WritesAsTheCursorIsRead() {
+        // Arrange: Una colección grande generada de forma perezosa, como la entregaría el cursor de Mongo
+        int total = 1_000_000;
+        UUID accountId = UUID.randomUUID();
+        AtomicLong generated = new AtomicLong();
+        when(transactionService.streamAllTransactions()).thenReturn(Flux.range(0, total)
+                .map(i -> new Transaction(UUID.randomUUID(), accountId, "1234567890", "DEPOSIT", 1L, i, i + 1L, LocalDateTime.now()))
+                .doOnNext(transaction -> generated.incrementAndGet()));
+
+        // Act: El cliente lee las primeras líneas y corta la conexión
+        Flux<Transaction> responseBody = webTestClient.get()
+                .uri("/api/transactions")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Transaction.class)
+                .getResponseBody();
+
+        StepVerifier.create(responseBody)
+                .expectNextCount(10)
+                .thenCancel()
+                .verify();
+
+        // Assert: Las líneas llegan antes de leer toda la colección, que nunca se acumula en memoria
+        assertTrue(generated.get() < total, "The whole collection was read before the first line was written");
     }
 
     @Test
@@ -87,9 +151,9 @@ class TransactionControllerTest {
                 UUID.randomUUID(),
                 "1234567890",
                 "DEPOSIT",
-                500.0,
-                1000.0,
-                1500.0,
+                500L,
+                1000L,
+                1500L,
                 LocalDateTime.now()
         );
         Transaction transaction2 = new Transaction(
@@ -97,17 +161,19 @@ class TransactionControllerTest {
                 UUID.randomUUID(),
                 "1234567890",
                 "WITHDRAWAL",
-                200.0,
-                1500.0,
-                1300.0,
+                200L,
+                1500L,
+                1300L,
                 LocalDateTime.now()
         );
 
-        // Creamos un Flux de transacciones
-        Flux<Transaction> mockFlux = Flux.just(transaction1, transaction2);
+        // Creamos un Flux de eventos con su token de reanudación
+        Flux<ServerSentEvent<Transaction>> mockFlux = Flux.just(
+                ServerSentEvent.builder(transaction1).id("1").build(),
+                ServerSentEvent.builder(transaction2).id("2").build());
 
         // Simulamos que el servicio devuelve el flujo de transacciones
-        when(transactionService.streamTransactions("1234567890")).thenReturn(mockFlux);
+        when(transactionService.streamTransactions("1234567890", null)).thenReturn(mockFlux);
 
         // Act: Realización de la solicitud GET con el parámetro 'numberAccount'
         Flux<Transaction> responseBody = webTestClient.get()
@@ -126,6 +192,76 @@ class TransactionControllerTest {
                 .expectNext(transaction2)  // Luego, esperamos 'transaction2'
                 .verifyComplete();  // Verifica que el flujo se complete sin errores
 
-        verify(transactionService, times(1)).streamTransactions("1234567890");  // Verifica que el servicio fue llamado una vez
+        verify(transactionService, times(1)).streamTransactions("1234567890", null);  // Verifica que el servicio fue llamado una vez
+    }
+
+    @Test
+    void testGetHistory_StreamsFilteredPage() {
+        // Arrange
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 2, 1, 0, 0);
+        TransactionHistoryDTO item = new TransactionHistoryDTO(UUID.randomUUID(), "DEPOSIT", 50L, 100L, 150L,
+                LocalDateTime.of(2025, 1, 20, 9, 30), "2025-01-20T09:30_cursor");
+        when(transactionService.getHistory("1234567890", from, to, "DEPOSIT", 20, null)).thenReturn(Flux.just(item));
+
+        // Act
+        Flux<TransactionHistoryDTO> responseBody = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/transactions/1234567890/history")
+                        .queryParam("from", "2025-01-01T00:00:00")
+                        .queryParam("to", "2025-02-01T00:00:00")
+                        .queryParam("type", "DEPOSIT")
+                        .queryParam("limit", 20)
+                        .build())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(TransactionHistoryDTO.class)
+                .getResponseBody();
+
+        // Assert
+        StepVerifier.create(responseBody)
+                .expectNext(item)
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetRollingStats_Global() {
+        // Arrange
+        RollingStatsDTO stats = new RollingStatsDTO(null, 300, 30, 15, 0.1, 0.05, 2_500.0, 9_000L);
+        when(transactionService.getRollingStats(null)).thenReturn(Mono.just(stats));
+
+        // Act & Assert
+        webTestClient.get()
+                .uri("/api/transactions/stats")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(RollingStatsDTO.class)
+                .isEqualTo(stats);
+    }
+
+    @Test
+    void testStreamRollingStats_PerAccount() {
+        // Arrange
+        UUID accountId = UUID.randomUUID();
+        RollingStatsDTO stats = new RollingStatsDTO(accountId, 300, 3, 0, 0.01, 0.0, 100.0, 200L);
+        when(transactionService.streamRollingStats(accountId))
+                .thenReturn(Flux.just(ServerSentEvent.builder(stats).event("stats").build()));
+
+        // Act
+        Flux<RollingStatsDTO> responseBody = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/transactions/stats/stream")
+                        .queryParam("accountId", accountId)
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .returnResult(RollingStatsDTO.class)
+                .getResponseBody();
+
+        // Assert
+        StepVerifier.create(responseBody)
+                .expectNext(stats)
+                .verifyComplete();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,69 @@
+package com.reactive.audit.controllers;
+
+import com.reactive.audit.DTO.req.TransferRequestDTO;
+import com.reactive.audit.DTO.res.TransferResultDTO;
+import com.reactive.audit.services.accounts.TransferService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@WebFluxTest(TransferController.class)
+class TransferControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockitoBean
+    private TransferService transferService;
+
+    @Test
+    void testTransferBatch_StreamsResults() {
+        // Arrange: El servicio consume el arreglo como flujo y responde un resultado por elemento
+        UUID sourceId = UUID.randomUUID();
+        UUID targetId = UUID.randomUUID();
+        when(transferService.transferBatch(any())).thenAnswer(invocation -> invocation.<Flux<TransferRequestDTO>>getArgument(0)
+                .index()
+                .map(transfer -> TransferResultDTO.builder()
+                        .index(transfer.getT1())
+                        .sourceAccountId(transfer.getT2().getSourceAccountId())
+                        .targetAccountId(transfer.getT2().getTargetAccountId())
+                        .amount(transfer.getT2().getAmount())
+                        .success(true)
+                        .message("Transfer completed.")
+                        .build()));
+
+        // Act
+        Flux<TransferResultDTO> responseBody = webTestClient.post()
+                .uri("/api/accounts/transfers/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(List.of(
+                        new TransferRequestDTO(sourceId, targetId, 10L),
+                        new TransferRequestDTO(sourceId, targetId, 20L)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(TransferResultDTO.class)
+                .getResponseBody();
+
+        // Assert
+        StepVerifier.create(responseBody)
+                .assertNext(result -> assertEquals(10L, result.getAmount()))
+                .assertNext(result -> {
+                    assertEquals(1, result.getIndex());
+                    assertEquals(20L, result.getAmount());
+                })
+                .verifyComplete();
+    }
+}
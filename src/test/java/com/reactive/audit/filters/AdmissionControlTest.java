@@ -0,0 +1,122 @@
+package com.reactive.audit.filters;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testAcquire_QueuedRequestGetsReleasedPermit() {
+        // Arrange: Un único permiso, ya ocupado
+        AdmissionControl admission = new AdmissionControl(1, 10, Duration.ofSeconds(5), meterRegistry);
+        AdmissionControl.Permit first = admission.acquire().block();
+        assertEquals(AdmissionControl.Admission.ADMITTED, first.admission());
+
+        // Act & Assert: La segunda petición espera hasta que se libera el permiso
+        StepVerifier.create(admission.acquire())
+                .then(() -> assertEquals(1, admission.queued()))
+                .then(first::release)
+                .assertNext(permit -> assertEquals(AdmissionControl.Admission.ADMITTED, permit.admission()))
+                .verifyComplete();
+
+        assertEquals(1, admission.inFlight());
+        assertEquals(0, admission.queued());
+        assertEquals(1, meterRegistry.get("audit.ratelimit.queue.wait").timer().count());
+    }
+
+    @Test
+    void testAcquire_ShedsWhenQueueIsFull() {
+        // Arrange: Sin cola disponible
+        AdmissionControl admission = new AdmissionControl(1, 0, Duration.ofSeconds(5), meterRegistry);
+        admission.acquire().block();
+
+        // Act & Assert
+        StepVerifier.create(admission.acquire())
+                .assertNext(permit -> assertEquals(AdmissionControl.Admission.QUEUE_FULL, permit.admission()))
+                .verifyComplete();
+        assertEquals(0, admission.queued());
+    }
+
+    @Test
+    void testAcquire_ShedsAfterQueueBudget() {
+        // Arrange
+        AdmissionControl admission = new AdmissionControl(1, 10, Duration.ofMillis(50), meterRegistry);
+        AdmissionControl.Permit first = admission.acquire().block();
+
+        // Act & Assert: Nadie libera el permiso a tiempo
+        StepVerifier.create(admission.acquire())
+                .assertNext(permit -> assertEquals(AdmissionControl.Admission.TIMED_OUT, permit.admission()))
+                .verifyComplete();
+
+        // Assert: El permiso liberado después no se pierde en la petición descartada
+        first.release();
+        assertEquals(0, admission.inFlight());
+        assertEquals(0, admission.queued());
+    }
+
+    @Test
+    void testAcquire_CancelledWaiterLeavesQueue() {
+        // Arrange
+        AdmissionControl admission = new AdmissionControl(1, 10, Duration.ofSeconds(5), meterRegistry);
+        AdmissionControl.Permit first = admission.acquire().block();
+
+        // Act: El cliente se desconecta mientras espera
+        Disposable waiting = admission.acquire().subscribe();
+        waiting.dispose();
+        first.release();
+
+        // Assert
+        assertEquals(0, admission.inFlight());
+        assertEquals(0, admission.queued());
+    }
+
+    @Test
+    void testAcquire_CancelAfterQueuedAdmissionReleasesOnce() {
+        // Arrange: La segunda petición espera en cola y luego recibe el permiso
+        AdmissionControl admission = new AdmissionControl(1, 10, Duration.ofSeconds(5), meterRegistry);
+        AdmissionControl.Permit first = admission.acquire().block();
+        AtomicReference<AdmissionControl.Permit> admitted = new AtomicReference<>();
+        Disposable request = admission.acquire()
+                .flatMap(permit -> {
+                    admitted.set(permit);
+                    return Mono.never().doFinally(signal -> permit.release());
+                })
+                .subscribe();
+        first.release();
+        assertEquals(AdmissionControl.Admission.ADMITTED, admitted.get().admission());
+        assertEquals(1, admission.inFlight());
+
+        // Act: El cliente se desconecta mientras la petición admitida está en curso
+        request.dispose();
+
+        // Assert: El permiso vuelve una sola vez, aunque lo liberen la cancelación y el doFinally
+        assertEquals(0, admission.inFlight());
+        admitted.get().release();
+        assertEquals(0, admission.inFlight());
+    }
+
+    @Test
+    void testRelease_IsIdempotent() {
+        // Arrange
+        AdmissionControl admission = new AdmissionControl(2, 10, Duration.ofSeconds(5), meterRegistry);
+        AdmissionControl.Permit first = admission.acquire().block();
+        admission.acquire().block();
+
+        // Act
+        first.release();
+        first.release();
+
+        // Assert: La segunda liberación no devuelve el permiso de otra petición
+        assertEquals(1, admission.inFlight());
+    }
+}
@@ -0,0 +1,123 @@
+package com.reactive.audit.filters;
+
+import com.reactive.audit.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger forwarded = new AtomicInteger();
+    private final WebFilterChain chain = exchange -> Mono.fromRunnable(forwarded::incrementAndGet);
+
+    @Test
+    void testFilter_ClientBucketRejectsBurst() {
+        // Arrange: Dos peticiones por cliente como máximo
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setClientCapacity(2);
+        properties.setClientRefillPerSecond(1);
+        RateLimitFilter filter = new RateLimitFilter(properties, meterRegistry);
+
+        // Act: Tres depósitos seguidos del mismo cliente en cuentas distintas
+        MockServerWebExchange rejected = null;
+        for (int i = 0; i < 3; i++) {
+            rejected = deposit(UUID.randomUUID(), "client-a");
+            StepVerifier.create(filter.filter(rejected, chain)).verifyComplete();
+        }
+
+        // Assert
+        assertEquals(2, forwarded.get());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        assertEquals("1", rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(1.0, meterRegistry.get("audit.ratelimit.rejected").tag("reason", "client").counter().count());
+
+        // Act & Assert: Otro cliente tiene su propio bucket
+        StepVerifier.create(filter.filter(deposit(UUID.randomUUID(), "client-b"), chain)).verifyComplete();
+        assertEquals(3, forwarded.get());
+    }
+
+    @Test
+    void testFilter_AccountBucketAppliesAcrossClients() {
+        // Arrange
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setAccountCapacity(1);
+        properties.setAccountRefillPerSecond(1);
+        RateLimitFilter filter = new RateLimitFilter(properties, meterRegistry);
+        UUID accountId = UUID.randomUUID();
+
+        // Act
+        StepVerifier.create(filter.filter(deposit(accountId, "client-a"), chain)).verifyComplete();
+        MockServerWebExchange second = MockServerWebExchange.from(MockServerHttpRequest
+                .post("/api/accounts/withdraw/" + accountId).header("X-Client-Id", "client-b").build());
+        StepVerifier.create(filter.filter(second, chain)).verifyComplete();
+
+        // Assert
+        assertEquals(1, forwarded.get());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, second.getResponse().getStatusCode());
+        assertEquals(1.0, meterRegistry.get("audit.ratelimit.rejected").tag("reason", "account").counter().count());
+    }
+
+    @Test
+    void testFilter_ConcurrencyCapShedsAfterBudget() {
+        // Arrange: Un único permiso ocupado por una petición que no termina
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMaxConcurrent(1);
+        properties.setQueueBudget(Duration.ofMillis(50));
+        RateLimitFilter filter = new RateLimitFilter(properties, meterRegistry);
+        Sinks.Empty<Void> slowRequest = Sinks.empty();
+
+        StepVerifier.create(filter.filter(deposit(UUID.randomUUID(), "client-a"), exchange -> slowRequest.asMono()))
+                .then(() -> {
+                    // Act: La segunda petición espera en la cola más que el presupuesto
+                    MockServerWebExchange queued = deposit(UUID.randomUUID(), "client-b");
+                    StepVerifier.create(filter.filter(queued, chain)).verifyComplete();
+
+                    // Assert
+                    assertEquals(HttpStatus.TOO_MANY_REQUESTS, queued.getResponse().getStatusCode());
+                    assertEquals(1.0, meterRegistry.get("audit.ratelimit.rejected").tag("reason", "queue_timeout").counter().count());
+                })
+                .then(slowRequest::tryEmitEmpty)
+                .verifyComplete();
+
+        // Assert: El permiso se libera al terminar la petición lenta
+        assertEquals(0.0, meterRegistry.get("audit.ratelimit.in_flight").gauge().value());
+    }
+
+    @Test
+    void testFilter_OtherRoutesAreNotLimited() {
+        // Arrange
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setClientCapacity(1);
+        RateLimitFilter filter = new RateLimitFilter(properties, meterRegistry);
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            StepVerifier.create(filter.filter(MockServerWebExchange.from(MockServerHttpRequest
+                    .get("/api/accounts/" + UUID.randomUUID()).header("X-Client-Id", "client-a").build()), chain)).verifyComplete();
+        }
+
+        // Assert
+        assertEquals(5, forwarded.get());
+    }
+
+    private static MockServerWebExchange deposit(UUID accountId, String client) {
+        return MockServerWebExchange.from(MockServerHttpRequest
+                .post("/api/accounts/deposit/" + accountId)
+                .header("X-Client-Id", client)
+                .build());
+    }
+}
@@ -0,0 +1,74 @@
+package com.reactive.audit.filters;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void testTryAcquire_BurstUpToCapacityThenRefill() {
+        // Arrange: 5 tokens, uno nuevo cada 100 ms
+        TokenBucket bucket = new TokenBucket(5, 10);
+        long now = 42 * SECOND;
+
+        // Act & Assert: La ráfaga inicial usa toda la capacidad
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0L, bucket.tryAcquire(now));
+        }
+        long wait = bucket.tryAcquire(now);
+        assertEquals(SECOND / 10, wait);
+
+        // Act & Assert: Tras la espera indicada hay exactamente un token más
+        assertEquals(0L, bucket.tryAcquire(now + wait));
+        assertTrue(bucket.tryAcquire(now + wait) > 0);
+
+        // Act & Assert: Un bucket inactivo vuelve a llenarse sin superar la capacidad
+        long later = now + 10 * SECOND;
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0L, bucket.tryAcquire(later));
+        }
+        assertTrue(bucket.tryAcquire(later) > 0);
+    }
+
+    @Test
+    void testTryAcquire_ConcurrentCallersNeverExceedCapacity() throws InterruptedException {
+        // Arrange: Muchos hilos compiten por 100 tokens en el mismo instante
+        TokenBucket bucket = new TokenBucket(100, 1);
+        long now = SECOND;
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // Act
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < 1_000; i++) {
+                    if (bucket.tryAcquire(now) == 0L) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(100, granted.get());
+    }
+}
@@ -0,0 +1,42 @@
+package com.reactive.audit.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdsTest {
+
+    @Test
+    void testNewId_IsVersion7WithTimestamp() {
+        // Arrange
+        long millis = 1_737_021_600_000L;
+
+        // Act
+        UUID id = Ids.newId(millis, ThreadLocalRandom.current());
+
+        // Assert: Versión 7, variante RFC y los primeros 48 bits son el instante en milisegundos
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertEquals(millis, id.getMostSignificantBits() >>> 16);
+    }
+
+    @Test
+    void testNewId_OrderedByTimeAndUnique() {
+        // Act
+        UUID earlier = Ids.newId(1_000L, ThreadLocalRandom.current());
+        UUID later = Ids.newId(1_001L, ThreadLocalRandom.current());
+        Set<UUID> ids = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            ids.add(Ids.newId());
+        }
+
+        // Assert
+        assertTrue(earlier.compareTo(later) < 0);
+        assertEquals(100_000, ids.size());
+    }
+}
@@ -0,0 +1,105 @@
+package com.reactive.audit.repositories;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.reactive.audit.DTO.res.BalanceDistributionDTO;
+import com.reactive.audit.DTO.res.DailyVolumeDTO;
+import com.reactive.audit.DTO.res.TypeTotalsDTO;
+import com.reactive.audit.model.BankAccount;
+import com.reactive.audit.model.Transaction;
+import org.bson.UuidRepresentation;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the analytics pipelines against a real MongoDB. Only runs when {@code MONGO_URI} is set.
+ */
+@EnabledIfEnvironmentVariable(named = "MONGO_URI", matches = ".+")
+class AnalyticsAggregationTest {
+
+    private static final String DATABASE = "audit_analytics_check_" + System.currentTimeMillis();
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 1, 16, 9, 0);
+
+    private static MongoClient mongoClient;
+    private static BankAccountReactiveRepository bankAccountReactiveRepository;
+    private static TransactionReactiveRepository transactionReactiveRepository;
+
+    @BeforeAll
+    static void setUp() {
+        mongoClient = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(System.getenv("MONGO_URI")))
+                .uuidRepresentation(UuidRepresentation.JAVA_LEGACY)
+                .build());
+
+        ReactiveMongoTemplate template = new ReactiveMongoTemplate(mongoClient, DATABASE);
+        ReactiveMongoRepositoryFactory factory = new ReactiveMongoRepositoryFactory(template);
+        bankAccountReactiveRepository = factory.getRepository(BankAccountReactiveRepository.class,
+                RepositoryFragments.just(new BankAccountBalanceOperationsImpl(template), new BankAccountAnalyticsOperationsImpl(template)));
+        transactionReactiveRepository = factory.getRepository(TransactionReactiveRepository.class,
+                RepositoryFragments.just(new TransactionAnalyticsOperationsImpl(template)));
+
+        // Dos cuentas de ahorro, una corriente y movimientos repartidos en dos días
+        UUID accountId = UUID.randomUUID();
+        Flux.concat(
+                        bankAccountReactiveRepository.save(new BankAccount(accountId, "0000000001", 100L, "SAVINGS")),
+                        bankAccountReactiveRepository.save(new BankAccount(UUID.randomUUID(), "0000000002", 300L, "SAVINGS")),
+                        bankAccountReactiveRepository.save(new BankAccount(UUID.randomUUID(), "0000000003", 50L, "CHECKING")))
+                .blockLast();
+        transactionReactiveRepository.saveAll(List.of(
+                        transaction(accountId, "DEPOSIT", 100L, DAY),
+                        transaction(accountId, "DEPOSIT", 300L, DAY.plusHours(2)),
+                        transaction(accountId, "WITHDRAWAL", 40L, DAY.plusDays(1)),
+                        transaction(accountId, "DEPOSIT", 999L, DAY.plusDays(5))))
+                .blockLast();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        Mono.from(mongoClient.getDatabase(DATABASE).drop()).block();
+        mongoClient.close();
+    }
+
+    @Test
+    void testTotalsByType_GroupsInsideRange() {
+        List<TypeTotalsDTO> totals = transactionReactiveRepository.totalsByType(DAY, DAY.plusDays(2)).collectList().block();
+
+        assertEquals(List.of(new TypeTotalsDTO("DEPOSIT", 2L, 400L, 200.0), new TypeTotalsDTO("WITHDRAWAL", 1L, 40L, 40.0)), totals);
+    }
+
+    @Test
+    void testDailyVolume_OneBucketPerDay() {
+        List<DailyVolumeDTO> days = transactionReactiveRepository.dailyVolume(DAY, DAY.plusDays(2)).collectList().block();
+
+        assertEquals(List.of(
+                new DailyVolumeDTO("2025-01-16", 2L, 400L, 400L, 0L),
+                new DailyVolumeDTO("2025-01-17", 1L, 40L, 0L, 40L)), days);
+    }
+
+    @Test
+    void testBalanceDistribution_PerAccountType() {
+        List<BalanceDistributionDTO> distribution = bankAccountReactiveRepository.balanceDistribution().collectList().block();
+
+        assertEquals(List.of(
+                new BalanceDistributionDTO("CHECKING", 1L, 50L, 50.0, 50L, 50L),
+                new BalanceDistributionDTO("SAVINGS", 2L, 400L, 200.0, 100L, 300L)), distribution);
+    }
+
+    private static Transaction transaction(UUID accountId, String type, long amount, LocalDateTime date) {
+        return new Transaction(UUID.randomUUID(), accountId, "0000000001", type, amount, 0L, amount, date);
+    }
+}
@@ -0,0 +1,40 @@
+package com.reactive.audit.repositories;
+
+import com.reactive.audit.model.Transaction;
+import com.reactive.audit.model.TransactionChangeEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Fuente de eventos en proceso que imita un change stream de Mongo: filtra por cuenta
+ * y permite reanudar desde un token (la posición del evento en el log).
+ */
+public class InMemoryTransactionChangeStream implements TransactionChangeStream {
+
+    private final List<TransactionChangeEvent> log = new CopyOnWriteArrayList<>();
+    private final Sinks.Many<TransactionChangeEvent> live = Sinks.many().multicast().directBestEffort();
+
+    public synchronized TransactionChangeEvent publish(Transaction transaction) {
+        TransactionChangeEvent event = new TransactionChangeEvent(String.valueOf(log.size() + 1), transaction);
+        log.add(event);
+        live.tryEmitNext(event);
+        return event;
+    }
+
+    public int activeWatchers() {
+        return live.currentSubscriberCount();
+    }
+
+    @Override
+    public Flux<TransactionChangeEvent> watch(String numberAccount, String resumeToken) {
+        Flux<TransactionChangeEvent> events = resumeToken == null
+                ? live.asFlux()
+                : Flux.defer(() -> Flux.fromIterable(List.copyOf(log.subList(Integer.parseInt(resumeToken), log.size()))))
+                        .concatWith(live.asFlux());
+
+        return events.filter(event -> numberAccount.equals(event.getTransaction().getNumberAccount()));
+    }
+}
@@ -0,0 +1,195 @@
+package com.reactive.audit.repositories;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.reactive.audit.DTO.req.BankAccountRequestDTO;
+import com.reactive.audit.config.AccountCacheProperties;
+import com.reactive.audit.config.AccountLaneProperties;
+import com.reactive.audit.config.OptimisticLockProperties;
+import com.reactive.audit.model.BalanceUpdate;
+import com.reactive.audit.model.BankAccount;
+import com.reactive.audit.services.ServiceMetrics;
+import com.reactive.audit.services.accounts.AccountCache;
+import com.reactive.audit.services.accounts.AccountLaneExecutor;
+import com.reactive.audit.services.accounts.BankAccountServiceImpl;
+import com.reactive.audit.services.accounts.OptimisticRetry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.UuidRepresentation;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Races balance updates against each other and against versioned read-modify-save writes, including
+ * {@code updateAccount} itself, on a real MongoDB and checks that no deposit is lost and no withdrawal
+ * overdraws. Only runs when {@code MONGO_URI} is set.
+ */
+@EnabledIfEnvironmentVariable(named = "MONGO_URI", matches = ".+")
+class OptimisticConcurrencyTest {
+
+    private static final String DATABASE = "audit_concurrency_check_" + System.currentTimeMillis();
+
+    private static MongoClient mongoClient;
+    private static BankAccountReactiveRepository bankAccountReactiveRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeAll
+    static void setUp() {
+        mongoClient = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(System.getenv("MONGO_URI")))
+                .uuidRepresentation(UuidRepresentation.JAVA_LEGACY)
+                .build());
+
+        ReactiveMongoTemplate template = new ReactiveMongoTemplate(mongoClient, DATABASE);
+        bankAccountReactiveRepository = new ReactiveMongoRepositoryFactory(template).getRepository(
+                BankAccountReactiveRepository.class,
+                RepositoryFragments.just(new BankAccountBalanceOperationsImpl(template), new BankAccountAnalyticsOperationsImpl(template)));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        Mono.from(mongoClient.getDatabase(DATABASE).drop()).block();
+        mongoClient.close();
+    }
+
+    @Test
+    void testStaleSave_FailsInsteadOfOverwritingDeposit() {
+        // Arrange: Lectura previa a un depósito
+        BankAccount account = bankAccountReactiveRepository.save(newAccount()).block();
+        BankAccount stale = bankAccountReactiveRepository.findById(account.getId()).block();
+        bankAccountReactiveRepository.depositBalance(account.getId(), 100L).block();
+
+        // Act & Assert: Guardar la copia antigua ya no pisa el depósito
+        stale.setType("CHECKING");
+        StepVerifier.create(bankAccountReactiveRepository.save(stale))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+
+        assertEquals(100L, bankAccountReactiveRepository.findById(account.getId()).block().getBalance());
+    }
+
+    @Test
+    void testConcurrentDeposits_NoLostUpdates() {
+        // Arrange: 1000 depósitos concurrentes mezclados con escrituras read-modify-save con reintentos
+        BankAccount account = bankAccountReactiveRepository.save(newAccount()).block();
+        UUID accountId = account.getId();
+        OptimisticLockProperties properties = new OptimisticLockProperties();
+        properties.setMaxRetries(100);
+        properties.setMinBackoff(Duration.ofMillis(1));
+        properties.setMaxBackoff(Duration.ofMillis(20));
+        OptimisticRetry optimisticRetry = new OptimisticRetry(properties, meterRegistry);
+
+        Flux<Object> deposits = Flux.range(0, 1000)
+                .flatMap(i -> bankAccountReactiveRepository.depositBalance(accountId, 100L), 64)
+                .cast(Object.class);
+        Flux<Object> renames = Flux.range(0, 50)
+                .flatMap(i -> optimisticRetry.execute("update", () -> bankAccountReactiveRepository.findById(accountId)
+                        .flatMap(current -> {
+                            current.setType(i % 2 == 0 ? "SAVINGS" : "CHECKING");
+                            return bankAccountReactiveRepository.save(current);
+                        })), 8)
+                .cast(Object.class);
+
+        // Act
+        Flux.merge(deposits, renames).blockLast(Duration.ofMinutes(1));
+
+        // Assert: Ningún depósito se perdió y cada escritura avanzó la versión exactamente una vez
+        BankAccount stored = bankAccountReactiveRepository.findById(accountId).block();
+        assertEquals(100_000L, stored.getBalance());
+        assertEquals(account.getVersion() + 1050, stored.getVersion());
+    }
+
+    @Test
+    void testConcurrentDepositsAndAccountUpdates_BalanceIsNeverOverwritten() {
+        // Arrange: Depósitos directos compiten con updateAccount, que trae un saldo en la petición
+        BankAccount account = bankAccountReactiveRepository.save(newAccount()).block();
+        UUID accountId = account.getId();
+        OptimisticLockProperties properties = new OptimisticLockProperties();
+        properties.setMaxRetries(100);
+        properties.setMinBackoff(Duration.ofMillis(1));
+        properties.setMaxBackoff(Duration.ofMillis(20));
+        BankAccountServiceImpl bankAccountService = new BankAccountServiceImpl(bankAccountReactiveRepository, null, null,
+                new AccountCache(new AccountCacheProperties(), meterRegistry), new ServiceMetrics(meterRegistry),
+                new AccountLaneExecutor(new AccountLaneProperties(), meterRegistry), new OptimisticRetry(properties, meterRegistry),
+                null, null, null, null, null);
+
+        Flux<Object> deposits = Flux.range(0, 1000)
+                .flatMap(i -> bankAccountReactiveRepository.depositBalance(accountId, 100L), 64)
+                .cast(Object.class);
+        Flux<Object> updates = Flux.range(0, 50)
+                .flatMap(i -> bankAccountService.updateAccount(accountId, BankAccountRequestDTO.builder()
+                        .numberAccount(account.getNumberAccount())
+                        .balance(0L)
+                        .type(i % 2 == 0 ? "SAVINGS" : "CHECKING")
+                        .build()), 8)
+                .doOnNext(response -> assertTrue(response.isSuccess(), response.getMessage()))
+                .cast(Object.class);
+
+        // Act
+        Flux.merge(deposits, updates).blockLast(Duration.ofMinutes(1));
+
+        // Assert: El saldo de la petición nunca pisa los depósitos, ni en los reintentos
+        BankAccount stored = bankAccountReactiveRepository.findById(accountId).block();
+        assertEquals(100_000L, stored.getBalance());
+        assertEquals(account.getVersion() + 1050, stored.getVersion());
+    }
+
+    @Test
+    void testConcurrentDepositsAndWithdrawals_GuardKeepsBalanceExact() {
+        // Arrange: Una cuenta con 100 y más retiros de los que puede cubrir
+        BankAccount account = bankAccountReactiveRepository.save(newAccount()).block();
+        UUID accountId = account.getId();
+        bankAccountReactiveRepository.depositBalance(accountId, 100L).block();
+        int deposits = 500;
+        int withdrawals = 800;
+
+        // Act: Depósitos y retiros concurrentes contra el findAndModify real
+        List<BalanceUpdate> updates = Flux.range(0, deposits + withdrawals)
+                .flatMap(i -> (i % 2 == 0 && i / 2 < deposits
+                        ? bankAccountReactiveRepository.depositBalance(accountId, 1L)
+                        : bankAccountReactiveRepository.withdrawBalance(accountId, 1L))
+                        .subscribeOn(Schedulers.parallel()), 64)
+                .collectList()
+                .block(Duration.ofMinutes(1));
+
+        // Assert: Ningún movimiento se pierde, el saldo nunca baja de cero y cada
+        // actualización parte del saldo que dejó la anterior
+        long appliedWithdrawals = updates.stream()
+                .filter(update -> update.getCurrentBalance() < update.getPreviousBalance())
+                .count();
+        assertEquals(deposits, updates.size() - appliedWithdrawals);
+        assertTrue(updates.stream().allMatch(update -> update.getCurrentBalance() >= 0));
+        List<BalanceUpdate> inVersionOrder = updates.stream()
+                .sorted(Comparator.comparing(update -> update.getAccount().getVersion()))
+                .toList();
+        for (int i = 1; i < inVersionOrder.size(); i++) {
+            assertEquals(inVersionOrder.get(i - 1).getCurrentBalance(), inVersionOrder.get(i).getPreviousBalance());
+        }
+
+        long expected = 100L + deposits - appliedWithdrawals;
+        assertEquals(expected, bankAccountReactiveRepository.findById(accountId).block().getBalance());
+    }
+
+    private static BankAccount newAccount() {
+        return new BankAccount(UUID.randomUUID(), UUID.randomUUID().toString().substring(0, 10), 0L, "SAVINGS");
+    }
+}
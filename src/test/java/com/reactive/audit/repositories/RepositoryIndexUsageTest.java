@@ -0,0 +1,147 @@
+package com.reactive.audit.repositories;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.reactive.audit.config.MongoIndexInitializer;
+import com.reactive.audit.model.BankAccount;
+import com.reactive.audit.model.Transaction;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.UuidRepresentation;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the repository query methods against a real MongoDB, captures the {@code find} commands
+ * they send and fails if the winning plan of any of them is a collection scan.
+ * Only runs when {@code MONGO_URI} is set.
+ */
+@EnabledIfEnvironmentVariable(named = "MONGO_URI", matches = ".+")
+class RepositoryIndexUsageTest {
+
+    private static final List<BsonDocument> findCommands = new CopyOnWriteArrayList<>();
+    private static final String DATABASE = "audit_index_check_" + System.currentTimeMillis();
+
+    private static MongoClient mongoClient;
+    private static BankAccountReactiveRepository bankAccountReactiveRepository;
+    private static TransactionReactiveRepository transactionReactiveRepository;
+
+    @BeforeAll
+    static void setUp() {
+        CommandListener captureFinds = new CommandListener() {
+            @Override
+            public void commandStarted(CommandStartedEvent event) {
+                if ("find".equals(event.getCommandName())) {
+                    findCommands.add(event.getCommand().clone());
+                }
+            }
+        };
+        mongoClient = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(System.getenv("MONGO_URI")))
+                .uuidRepresentation(UuidRepresentation.JAVA_LEGACY)
+                .addCommandListener(captureFinds)
+                .build());
+
+        ReactiveMongoTemplate template = new ReactiveMongoTemplate(mongoClient, DATABASE);
+        new MongoIndexInitializer(template).ensureIndexes().blockLast();
+
+        ReactiveMongoRepositoryFactory factory = new ReactiveMongoRepositoryFactory(template);
+        bankAccountReactiveRepository = factory.getRepository(BankAccountReactiveRepository.class,
+                RepositoryFragments.just(new BankAccountBalanceOperationsImpl(template), new BankAccountAnalyticsOperationsImpl(template)));
+        transactionReactiveRepository = factory.getRepository(TransactionReactiveRepository.class,
+                RepositoryFragments.just(new TransactionAnalyticsOperationsImpl(template)));
+
+        // Algunos documentos para que el planificador tenga candidatos reales
+        Flux.range(0, 50)
+                .flatMap(i -> bankAccountReactiveRepository.save(new BankAccount(UUID.randomUUID(), String.format("%010d", i), 100L, "SAVINGS"))
+                        .flatMap(account -> transactionReactiveRepository.save(new Transaction(UUID.randomUUID(), account.getId(),
+                                account.getNumberAccount(), "DEPOSIT", 1L, 99L, 100L, LocalDateTime.now()))))
+                .blockLast();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        Mono.from(mongoClient.getDatabase(DATABASE).drop()).block();
+        mongoClient.close();
+    }
+
+    @BeforeEach
+    void clearCapturedCommands() {
+        findCommands.clear();
+    }
+
+    @Test
+    void testBankAccountQueries_UseIndexes() {
+        UUID after = UUID.randomUUID();
+        bankAccountReactiveRepository.findAllBy(PageRequest.of(0, 10, Sort.by("id"))).blockLast();
+        bankAccountReactiveRepository.findByIdGreaterThan(after, PageRequest.of(0, 10, Sort.by("id"))).blockLast();
+        bankAccountReactiveRepository.findById(after).block();
+        bankAccountReactiveRepository.findWithPendingTransactions().blockLast();
+
+        assertNoCollectionScans();
+    }
+
+    @Test
+    void testTransactionQueries_UseIndexes() {
+        Sort keyset = Sort.by("transactionDate", "id");
+        transactionReactiveRepository.findAllBy(PageRequest.of(0, 10, keyset)).blockLast();
+        transactionReactiveRepository.findAllAfter(LocalDateTime.now().minusDays(1), UUID.randomUUID(), PageRequest.of(0, 10, keyset)).blockLast();
+        transactionReactiveRepository.findHistory("0000000001", LocalDateTime.now().minusDays(30), LocalDateTime.now(),
+                new UUID(0L, 0L), PageRequest.of(0, 10)).blockLast();
+        transactionReactiveRepository.findHistoryByType("0000000001", LocalDateTime.now().minusDays(30), LocalDateTime.now(),
+                new UUID(0L, 0L), "DEPOSIT", PageRequest.of(0, 10)).blockLast();
+        UUID accountId = UUID.randomUUID();
+        transactionReactiveRepository.findBalanceChanges(accountId, LocalDateTime.now().minusDays(30), LocalDateTime.now()).blockLast();
+        transactionReactiveRepository.findByAccountIdOrderByTransactionDateAsc(accountId).blockLast();
+        transactionReactiveRepository.findChainAfter(accountId, LocalDateTime.now().minusDays(30), new UUID(0L, 0L), LocalDateTime.now()).blockLast();
+        transactionReactiveRepository.existsByAccountIdAndTransactionDateGreaterThan(accountId, LocalDateTime.now().minusDays(1)).block();
+
+        assertNoCollectionScans();
+    }
+
+    private void assertNoCollectionScans() {
+        assertFalse(findCommands.isEmpty(), "No find command was captured");
+        for (BsonDocument find : findCommands) {
+            BsonDocument command = find.clone();
+            List.of("$db", "lsid", "$clusterTime", "$readPreference", "txnNumber").forEach(command::remove);
+
+            Document explain = Mono.from(mongoClient.getDatabase(DATABASE).runCommand(
+                    new BsonDocument("explain", command).append("verbosity", new BsonString("queryPlanner")))).block();
+
+            Object winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan");
+            assertFalse(containsStage(winningPlan, "COLLSCAN"), "COLLSCAN for " + command.toJson());
+        }
+    }
+
+    private static boolean containsStage(Object plan, String stage) {
+        if (plan instanceof Document document) {
+            return stage.equals(document.get("stage")) || document.values().stream().anyMatch(value -> containsStage(value, stage));
+        }
+        if (plan instanceof List<?> list) {
+            return list.stream().anyMatch(value -> containsStage(value, stage));
+        }
+        return false;
+    }
+}
@@ -0,0 +1,169 @@
+package com.reactive.audit.services.accounts;
+
+import com.reactive.audit.config.AccountCacheProperties;
+import com.reactive.audit.model.BankAccount;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AccountCache accountCache = new AccountCache(new AccountCacheProperties(), meterRegistry);
+
+    @Test
+    void testFindById_LoadsOnceThenHits() {
+        // Arrange
+        UUID accountId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(accountCache.findById(accountId, id -> {
+                        loads.incrementAndGet();
+                        return Mono.just(new BankAccount(id, "123456789", 100L, "SAVINGS"));
+                    }))
+                    .expectNextMatches(account -> account.getBalance() == 100L)
+                    .verifyComplete();
+        }
+
+        // Assert: Una carga y la relación hit/miss exportada
+        assertEquals(1, loads.get());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "accounts").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "accounts").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void testFindById_ReturnsCopies() {
+        // Arrange
+        UUID accountId = UUID.randomUUID();
+        accountCache.put(new BankAccount(accountId, "123456789", 100L, "SAVINGS"));
+
+        // Act: Mutar la instancia devuelta no debe alterar la caché
+        accountCache.findById(accountId, id -> Mono.empty()).block().setBalance(0L);
+
+        // Assert
+        StepVerifier.create(accountCache.findById(accountId, id -> Mono.empty()))
+                .expectNextMatches(account -> account.getBalance() == 100L)
+                .verifyComplete();
+    }
+
+    @Test
+    void testFindById_ConcurrentMissesShareOneLoad() {
+        // Arrange: Una carga lenta que aún no ha terminado
+        UUID accountId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+        Sinks.One<BankAccount> slowLoad = Sinks.one();
+        Function<UUID, Mono<BankAccount>> loader = id -> {
+            loads.incrementAndGet();
+            return slowLoad.asMono();
+        };
+
+        // Act: Tres lecturas simultáneas de la misma cuenta
+        StepVerifier.create(Flux.merge(
+                        accountCache.findById(accountId, loader),
+                        accountCache.findById(accountId, loader),
+                        accountCache.findById(accountId, loader)).collectList())
+                .then(() -> slowLoad.tryEmitValue(new BankAccount(accountId, "123456789", 100L, "SAVINGS")))
+                .assertNext(accounts -> {
+                    // Cada lector recibe su propia copia
+                    assertEquals(3, accounts.size());
+                    assertNotSame(accounts.get(0), accounts.get(1));
+                })
+                .verifyComplete();
+
+        // Assert: Un solo viaje a Mongo y dos ahorrados
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("audit.accounts.reads").tag("source", "mongo").counter().count());
+        assertEquals(2.0, meterRegistry.get("audit.accounts.reads").tag("source", "coalesced").counter().count());
+    }
+
+    @Test
+    void testFindById_WriteReleasesInFlightLoad() {
+        // Arrange: Una lectura en curso cuando llega una escritura
+        AccountCacheProperties properties = new AccountCacheProperties();
+        properties.setEnabled(false);
+        AccountCache uncached = new AccountCache(properties, new SimpleMeterRegistry());
+        UUID accountId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+        Function<UUID, Mono<BankAccount>> loader = id -> {
+            loads.incrementAndGet();
+            return Mono.never();
+        };
+        uncached.findById(accountId, loader).subscribe();
+
+        // Act
+        uncached.put(new BankAccount(accountId, "123456789", 50L, "SAVINGS"));
+        uncached.findById(accountId, loader).subscribe();
+
+        // Assert: La lectura posterior a la escritura no se une a la anterior
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testSlowLoadCannotOverwriteLaterWrite() {
+        // Arrange: Una lectura empieza antes de la escritura y termina después
+        UUID accountId = UUID.randomUUID();
+        Sinks.One<BankAccount> slowLoad = Sinks.one();
+        Mono<BankAccount> read = accountCache.findById(accountId, id -> slowLoad.asMono());
+
+        StepVerifier.create(read)
+                .then(() -> {
+                    accountCache.put(new BankAccount(accountId, "123456789", 50L, "SAVINGS"));
+                    slowLoad.tryEmitValue(new BankAccount(accountId, "123456789", 100L, "SAVINGS"));
+                })
+                .expectNextMatches(account -> account.getBalance() == 100L)
+                .verifyComplete();
+
+        // Assert: La versión más nueva permanece en caché
+        StepVerifier.create(accountCache.findById(accountId, id -> Mono.error(new IllegalStateException("unexpected load"))))
+                .expectNextMatches(account -> account.getBalance() == 50L)
+                .verifyComplete();
+    }
+
+    @Test
+    void testInvalidate_ForcesReload() {
+        // Arrange
+        UUID accountId = UUID.randomUUID();
+        accountCache.put(new BankAccount(accountId, "123456789", 100L, "SAVINGS"));
+
+        // Act
+        accountCache.invalidate(accountId);
+
+        // Assert: La cuenta eliminada ya no se sirve desde la caché
+        StepVerifier.create(accountCache.findById(accountId, id -> Mono.empty()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testDisabled_PassesThrough() {
+        // Arrange
+        AccountCacheProperties properties = new AccountCacheProperties();
+        properties.setEnabled(false);
+        AccountCache disabled = new AccountCache(properties, new SimpleMeterRegistry());
+        UUID accountId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+        disabled.put(new BankAccount(accountId, "123456789", 100L, "SAVINGS"));
+
+        // Act
+        for (int i = 0; i < 2; i++) {
+            disabled.findById(accountId, id -> {
+                loads.incrementAndGet();
+                return Mono.just(new BankAccount(id, "123456789", 75L, "SAVINGS"));
+            }).block();
+        }
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,131 @@
+package com.reactive.audit.services.accounts;
+
+import com.reactive.audit.config.AccountLaneProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountLaneExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AccountLaneExecutor executor(int lanes, int queueCapacity) {
+        AccountLaneProperties properties = new AccountLaneProperties();
+        properties.setCount(lanes);
+        properties.setQueueCapacity(queueCapacity);
+        return new AccountLaneExecutor(properties, meterRegistry);
+    }
+
+    @Test
+    void testExecute_SameKeyRunsInOrderWithoutOverlap() {
+        // Arrange: La primera operación es la más lenta
+        AccountLaneExecutor executor = executor(4, 64);
+        List<Integer> completed = new CopyOnWriteArrayList<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        // Act: Se suscriben en paralelo desde varios hilos
+        StepVerifier.create(Flux.range(0, 20)
+                        .flatMap(i -> executor.execute("account-1", () -> Mono.fromRunnable(() -> maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max))
+                                        .then(Mono.delay(Duration.ofMillis(i == 0 ? 50 : 1)))
+                                        .doOnNext(tick -> {
+                                            running.decrementAndGet();
+                                            completed.add(i);
+                                        })
+                                        .thenReturn(i))
+                                .subscribeOn(Schedulers.parallel()), 20))
+                .expectNextCount(20)
+                .verifyComplete();
+
+        // Assert: Nunca hubo dos operaciones a la vez sobre la misma cuenta
+        assertEquals(1, maxRunning.get());
+        assertEquals(20, completed.size());
+    }
+
+    @Test
+    void testExecute_KeepsSubmissionOrderPerKey() {
+        // Arrange
+        AccountLaneExecutor executor = executor(4, 64);
+        List<Integer> completed = new CopyOnWriteArrayList<>();
+
+        // Act: Suscripción secuencial, la primera tarda más
+        StepVerifier.create(Flux.range(0, 5)
+                        .flatMapSequential(i -> executor.execute("account-1",
+                                () -> Mono.delay(Duration.ofMillis(i == 0 ? 50 : 1)).doOnNext(tick -> completed.add(i)).thenReturn(i))))
+                .expectNext(0, 1, 2, 3, 4)
+                .verifyComplete();
+
+        // Assert
+        assertEquals(List.of(0, 1, 2, 3, 4), completed);
+    }
+
+    @Test
+    void testExecute_DifferentLanesRunInParallel() {
+        // Arrange: La clave 0 queda ocupada indefinidamente en su carril
+        AccountLaneExecutor executor = executor(2, 64);
+        Sinks.One<String> stuck = Sinks.one();
+        executor.execute(0, stuck::asMono).subscribe();
+
+        // Act & Assert: La clave 1 usa otro carril y no espera
+        StepVerifier.create(executor.execute(1, () -> Mono.just("done")))
+                .expectNext("done")
+                .verifyComplete();
+
+        stuck.tryEmitValue("released");
+    }
+
+    @Test
+    void testExecute_FailureDoesNotStopTheLane() {
+        // Arrange
+        AccountLaneExecutor executor = executor(1, 64);
+
+        // Act & Assert: El error llega al llamador y el carril sigue atendiendo
+        StepVerifier.create(executor.execute("account-1", () -> Mono.error(new IllegalStateException("boom"))))
+                .expectErrorMessage("boom")
+                .verify();
+        StepVerifier.create(executor.execute("account-1", () -> Mono.empty()))
+                .verifyComplete();
+        StepVerifier.create(executor.execute("account-1", () -> Mono.just(1)))
+                .expectNext(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void testExecute_FullLaneRejectsAndExportsDepth() {
+        // Arrange: Un carril bloqueado con capacidad pequeña
+        AccountLaneExecutor executor = executor(1, 8);
+        Sinks.One<Integer> stuck = Sinks.one();
+        executor.execute("account-1", stuck::asMono).subscribe();
+
+        // Act: Se encolan operaciones hasta que el carril las rechaza
+        AtomicInteger rejected = new AtomicInteger();
+        for (int i = 0; i < 32; i++) {
+            executor.execute("account-1", () -> Mono.just(1))
+                    .subscribe(value -> { }, error -> {
+                        assertInstanceOf(ResponseStatusException.class, error);
+                        rejected.incrementAndGet();
+                    });
+        }
+
+        // Assert
+        assertTrue(rejected.get() > 0);
+        assertEquals(rejected.get(), meterRegistry.get("audit.lanes.rejected").counter().count());
+        assertEquals(33 - rejected.get(), meterRegistry.get("audit.lanes.depth").tag("lane", "0").gauge().value());
+
+        // Al liberar el carril se vacía la cola
+        stuck.tryEmitValue(1);
+        assertEquals(0.0, meterRegistry.get("audit.lanes.depth").tag("lane", "0").gauge().value());
+    }
+}
@@ -0,0 +1,146 @@
+package com.reactive.audit.services.accounts;
+
+import com.reactive.audit.config.AccountCacheProperties;
+import com.reactive.audit.config.AccountLaneProperties;
+import com.reactive.audit.config.ConsistencyProperties;
+import com.reactive.audit.model.BankAccount;
+import com.reactive.audit.model.PendingTransaction;
+import com.reactive.audit.model.Transaction;
+import com.reactive.audit.repositories.BankAccountReactiveRepository;
+import com.reactive.audit.repositories.TransactionReactiveRepository;
+import com.reactive.audit.services.ServiceMetrics;
+import com.reactive.audit.services.transactions.TransactionListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditOutboxTest {
+
+    @InjectMocks
+    private AuditOutbox auditOutbox;
+
+    @Mock
+    private BankAccountReactiveRepository bankAccountReactiveRepository;
+
+    @Mock
+    private TransactionReactiveRepository transactionReactiveRepository;
+
+    @Mock
+    private TransactionListener transactionListener;
+
+    @Spy
+    private List<TransactionListener> transactionListeners = new ArrayList<>();
+
+    @Spy
+    private AccountLaneExecutor accountLaneExecutor = new AccountLaneExecutor(new AccountLaneProperties(), new SimpleMeterRegistry());
+
+    @Spy
+    private AccountCache accountCache = new AccountCache(new AccountCacheProperties(), new SimpleMeterRegistry());
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private ServiceMetrics serviceMetrics = new ServiceMetrics(meterRegistry);
+
+    @Spy
+    private ConsistencyProperties consistencyProperties = new ConsistencyProperties();
+
+    private final UUID accountId = UUID.randomUUID();
+
+    @Test
+    void testDrain_CopiesEntriesAndRemovesThem() {
+        // Arrange: Una cuenta con dos entradas pendientes
+        transactionListeners.add(transactionListener);
+        PendingTransaction deposit = pending("DEPOSIT", 100L, 0L, 100L);
+        PendingTransaction withdrawal = pending("WITHDRAWAL", 30L, 100L, 70L);
+        givenAccount(List.of(deposit, withdrawal));
+        when(transactionReactiveRepository.insert(any(Transaction.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(transactionListener.onTransaction(any(Transaction.class))).thenReturn(Mono.empty());
+        when(bankAccountReactiveRepository.removePendingTransactions(any(UUID.class), any())).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(auditOutbox.drain(accountId))
+                .expectNext(2L)
+                .verifyComplete();
+
+        // Los registros conservan el id de la entrada, en el orden en que se escribieron
+        ArgumentCaptor<Transaction> inserted = ArgumentCaptor.forClass(Transaction.class);
+        verify(transactionReactiveRepository, times(2)).insert(inserted.capture());
+        assertEquals(deposit.getTransactionId(), inserted.getAllValues().get(0).getId());
+        assertEquals(70L, inserted.getAllValues().get(1).getCurrentBalance());
+        assertEquals("123456789", inserted.getAllValues().get(1).getNumberAccount());
+        verify(transactionListener, times(2)).onTransaction(any(Transaction.class));
+        verify(bankAccountReactiveRepository).removePendingTransactions(accountId,
+                List.of(deposit.getTransactionId(), withdrawal.getTransactionId()));
+    }
+
+    @Test
+    void testDrain_SkipsEntriesAlreadyInserted() {
+        // Arrange: Un drenado anterior insertó el registro pero no llegó a quitar la entrada
+        transactionListeners.add(transactionListener);
+        PendingTransaction deposit = pending("DEPOSIT", 100L, 0L, 100L);
+        givenAccount(List.of(deposit));
+        when(transactionReactiveRepository.insert(any(Transaction.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key")));
+        when(bankAccountReactiveRepository.removePendingTransactions(any(UUID.class), any())).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(auditOutbox.drain(accountId))
+                .expectNext(1L)
+                .verifyComplete();
+
+        // Los listeners no ven dos veces el mismo registro, pero la entrada se retira igualmente
+        verify(transactionListener, never()).onTransaction(any(Transaction.class));
+        verify(bankAccountReactiveRepository).removePendingTransactions(accountId, List.of(deposit.getTransactionId()));
+    }
+
+    @Test
+    void testSweep_DrainsAccountsWithPendingEntries() {
+        // Arrange
+        BankAccount account = givenAccount(List.of(pending("DEPOSIT", 50L, 0L, 50L)));
+        when(bankAccountReactiveRepository.findWithPendingTransactions()).thenReturn(Flux.just(account));
+        when(transactionReactiveRepository.insert(any(Transaction.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(bankAccountReactiveRepository.removePendingTransactions(any(UUID.class), any())).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(auditOutbox.sweep())
+                .expectNext(1L)
+                .verifyComplete();
+
+        assertEquals(1.0, meterRegistry.get("audit.outbox.drained").counter().count());
+    }
+
+    private BankAccount givenAccount(List<PendingTransaction> pending) {
+        BankAccount account = new BankAccount(accountId, "123456789", pending.get(pending.size() - 1).getCurrentBalance(), "SAVINGS");
+        account.setPendingTransactions(pending);
+        when(bankAccountReactiveRepository.findById(accountId)).thenReturn(Mono.just(account));
+        return account;
+    }
+
+    private static PendingTransaction pending(String type, long amount, long previousBalance, long currentBalance) {
+        return new PendingTransaction(UUID.randomUUID(), type, amount, previousBalance, currentBalance, LocalDateTime.now());
+    }
+}
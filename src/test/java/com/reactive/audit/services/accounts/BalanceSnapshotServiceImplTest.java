@@ -0,0 +1,184 @@
+package com.reactive.audit.services.accounts;
+
+import com.reactive.audit.DTO.res.BalanceAtDTO;
+import com.reactive.audit.config.AccountLaneProperties;
+import com.reactive.audit.config.SnapshotProperties;
+import com.reactive.audit.model.BalanceSnapshot;
+import com.reactive.audit.model.BankAccount;
+import com.reactive.audit.model.Transaction;
+import com.reactive.audit.repositories.BalanceSnapshotReactiveRepository;
+import com.reactive.audit.repositories.BankAccountReactiveRepository;
+import com.reactive.audit.repositories.TransactionReactiveRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceSnapshotServiceImplTest {
+
+    @InjectMocks
+    private BalanceSnapshotServiceImpl balanceSnapshotService;
+
+    @Mock
+    private BalanceSnapshotReactiveRepository balanceSnapshotReactiveRepository;
+
+    @Mock
+    private TransactionReactiveRepository transactionReactiveRepository;
+
+    @Mock
+    private BankAccountReactiveRepository bankAccountReactiveRepository;
+
+    @Spy
+    private SnapshotProperties snapshotProperties = new SnapshotProperties();
+
+    @Spy
+    private AccountLaneExecutor accountLaneExecutor = new AccountLaneExecutor(new AccountLaneProperties(), new SimpleMeterRegistry());
+
+    private final UUID accountId = UUID.randomUUID();
+
+    @Test
+    void testGetBalanceAt_SameDayReplaysShortTail() {
+        // Arrange: Instantánea del mismo día con saldo de apertura 100
+        LocalDateTime ts = LocalDateTime.of(2025, 1, 16, 12, 0);
+        when(balanceSnapshotReactiveRepository.findFirstByAccountIdAndDayLessThanEqualOrderByDayDesc(accountId, "2025-01-16"))
+                .thenReturn(Mono.just(snapshot("2025-01-16", 100L, 400L)));
+        when(transactionReactiveRepository.findBalanceChanges(accountId, LocalDateTime.of(2025, 1, 16, 0, 0), ts))
+                .thenReturn(Flux.just(transaction(100L, 150L, ts.minusHours(2)), transaction(150L, 130L, ts.minusHours(1))));
+
+        // Act & Assert: 100 + 50 - 20
+        StepVerifier.create(balanceSnapshotService.getBalanceAt(accountId, ts))
+                .assertNext(response -> assertEquals(130L, ((BalanceAtDTO) response.getData()).getBalance()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetBalanceAt_EarlierDayUsesClosingBalance() {
+        // Arrange
+        LocalDateTime ts = LocalDateTime.of(2025, 1, 20, 8, 0);
+        when(balanceSnapshotReactiveRepository.findFirstByAccountIdAndDayLessThanEqualOrderByDayDesc(accountId, "2025-01-20"))
+                .thenReturn(Mono.just(snapshot("2025-01-16", 100L, 400L)));
+
+        // Act & Assert: Sin transacciones posteriores, no hace falta leer ninguna
+        StepVerifier.create(balanceSnapshotService.getBalanceAt(accountId, ts))
+                .assertNext(response -> assertEquals(400L, ((BalanceAtDTO) response.getData()).getBalance()))
+                .verifyComplete();
+
+        verifyNoInteractions(transactionReactiveRepository);
+    }
+
+    @Test
+    void testGetBalanceAt_BeforeFirstTransactionUsesOpeningBalance() {
+        // Arrange
+        LocalDateTime ts = LocalDateTime.of(2025, 1, 1, 8, 0);
+        when(balanceSnapshotReactiveRepository.findFirstByAccountIdAndDayLessThanEqualOrderByDayDesc(accountId, "2025-01-01"))
+                .thenReturn(Mono.empty());
+        when(balanceSnapshotReactiveRepository.findFirstByAccountIdAndDayGreaterThanOrderByDayAsc(accountId, "2025-01-01"))
+                .thenReturn(Mono.just(snapshot("2025-01-16", 100L, 400L)));
+
+        // Act & Assert
+        StepVerifier.create(balanceSnapshotService.getBalanceAt(accountId, ts))
+                .assertNext(response -> assertEquals(100L, ((BalanceAtDTO) response.getData()).getBalance()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetBalanceAt_AccountNotFound() {
+        // Arrange
+        when(balanceSnapshotReactiveRepository.findFirstByAccountIdAndDayLessThanEqualOrderByDayDesc(eq(accountId), anyString()))
+                .thenReturn(Mono.empty());
+        when(balanceSnapshotReactiveRepository.findFirstByAccountIdAndDayGreaterThanOrderByDayAsc(eq(accountId), anyString()))
+                .thenReturn(Mono.empty());
+        when(bankAccountReactiveRepository.findById(accountId)).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(balanceSnapshotService.getBalanceAt(accountId, LocalDateTime.now()))
+                .assertNext(response -> {
+                    assertFalse(response.isSuccess());
+                    assertEquals("Account not found.", response.getMessage());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testOnTransaction_FailureDoesNotPropagate() {
+        // Arrange
+        Transaction transaction = transaction(100L, 150L, LocalDateTime.now());
+        when(balanceSnapshotReactiveRepository.applyTransaction(transaction)).thenReturn(Mono.error(new IllegalStateException("down")));
+
+        // Act & Assert
+        StepVerifier.create(balanceSnapshotService.onTransaction(transaction))
+                .verifyComplete();
+    }
+
+    @Test
+    void testRebuildSnapshots_OneSnapshotPerDay() {
+        // Arrange: Tres transacciones repartidas en dos días
+        when(bankAccountReactiveRepository.findAll()).thenReturn(Flux.just(new BankAccount(accountId, "1234567890", 0L, "SAVINGS")));
+        when(balanceSnapshotReactiveRepository.deleteByAccountId(accountId)).thenReturn(Mono.empty());
+        when(transactionReactiveRepository.findByAccountIdOrderByTransactionDateAsc(accountId)).thenReturn(Flux.just(
+                transaction(0L, 100L, LocalDateTime.of(2025, 1, 16, 9, 0)),
+                transaction(100L, 80L, LocalDateTime.of(2025, 1, 16, 18, 0)),
+                transaction(80L, 200L, LocalDateTime.of(2025, 1, 17, 9, 0))));
+        when(balanceSnapshotReactiveRepository.saveAll(anyList()))
+                .thenAnswer(invocation -> Flux.fromIterable(invocation.<List<BalanceSnapshot>>getArgument(0)));
+
+        // Act
+        StepVerifier.create(balanceSnapshotService.rebuildSnapshots())
+                .assertNext(response -> assertEquals(2L, response.getData()))
+                .verifyComplete();
+
+        // Assert
+        ArgumentCaptor<List<BalanceSnapshot>> saved = ArgumentCaptor.forClass(List.class);
+        verify(balanceSnapshotReactiveRepository).saveAll(saved.capture());
+        BalanceSnapshot first = saved.getValue().get(0);
+        assertEquals("2025-01-16", first.getDay());
+        assertEquals(0L, first.getOpeningBalance());
+        assertEquals(80L, first.getClosingBalance());
+        assertEquals(2, first.getTransactionCount());
+        assertEquals(200L, saved.getValue().get(1).getClosingBalance());
+    }
+
+    @Test
+    void testRebuildSnapshots_WaitsForOperationsOnTheAccountLane() {
+        // Arrange: Una operación en curso ocupa el carril de la cuenta
+        Sinks.One<String> inFlight = Sinks.one();
+        accountLaneExecutor.execute(accountId, inFlight::asMono).subscribe();
+        when(bankAccountReactiveRepository.findAll()).thenReturn(Flux.just(new BankAccount(accountId, "1234567890", 0L, "SAVINGS")));
+        when(balanceSnapshotReactiveRepository.deleteByAccountId(accountId)).thenReturn(Mono.empty());
+        when(transactionReactiveRepository.findByAccountIdOrderByTransactionDateAsc(accountId)).thenReturn(Flux.empty());
+
+        // Act & Assert: Las instantáneas no se borran hasta que la operación termina
+        StepVerifier.create(balanceSnapshotService.rebuildSnapshots())
+                .then(() -> verify(balanceSnapshotReactiveRepository, never()).deleteByAccountId(accountId))
+                .then(() -> inFlight.tryEmitValue("done"))
+                .assertNext(response -> assertEquals(0L, response.getData()))
+                .verifyComplete();
+        verify(balanceSnapshotReactiveRepository).deleteByAccountId(accountId);
+    }
+
+    private BalanceSnapshot snapshot(String day, long openingBalance, long closingBalance) {
+        return new BalanceSnapshot(BalanceSnapshot.idOf(accountId, day), accountId, day, openingBalance, closingBalance,
+                closingBalance - openingBalance, 1, null, null);
+    }
+
+    private Transaction transaction(long previousBalance, long currentBalance, LocalDateTime date) {
+        return new Transaction(UUID.randomUUID(), accountId, "1234567890", "DEPOSIT",
+                Math.abs(currentBalance - previousBalance), previousBalance, currentBalance, date);
+    }
+}
@@ -1,23 +1,45 @@
 package com.reactive.audit.services.accounts;
 
+import com.reactive.audit.config.AccountCacheProperties;
+import com.mongodb.MongoException;
+import com.reactive.audit.config.AccountLaneProperties;
+import com.reactive.audit.config.ConsistencyProperties;
+import com.reactive.audit.config.OptimisticLockProperties;
+import com.reactive.audit.config.RollingStatsProperties;
+import com.reactive.audit.config.TransactionStreamProperties;
 import com.reactive.audit.DTO.req.BankAccountRequestDTO;
 import com.reactive.audit.DTO.req.TransactionRequestDTO;
 import com.reactive.audit.DTO.res.BankAccountResponseDTO;
+import com.reactive.audit.DTO.res.CursorPageDTO;
 import com.reactive.audit.DTO.res.TransactionResponseDTO;
+import com.reactive.audit.model.BalanceUpdate;
 import com.reactive.audit.model.BankAccount;
 import com.reactive.audit.model.Transaction;
 import com.reactive.audit.repositories.BankAccountReactiveRepository;
-import com.reactive.audit.repositories.TransactionReactiveRepository;
+import com.reactive.audit.repositories.InMemoryTransactionChangeStream;
+import com.reactive.audit.services.ServiceMetrics;
+import com.reactive.audit.services.fraud.FraudRuleEngine;
+import com.reactive.audit.services.transactions.RollingStatsEngine;
 import com.reactive.audit.services.transactions.TransactionServiceImpl;
+import com.reactive.audit.services.transactions.TransactionStreamHub;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -34,88 +56,194 @@ class BankAccountServiceImplTest {
     @Mock
     private TransactionServiceImpl transactionService;
 
-    @Mock
-    private TransactionReactiveRepository transactionReactiveRepository;
+    private final InMemoryTransactionChangeStream transactionChangeStream = new InMemoryTransactionChangeStream();
+
+    @Spy
+    private TransactionStreamHub transactionStreamHub = new TransactionStreamHub(
+            transactionChangeStream, new TransactionStreamProperties(), new SimpleMeterRegistry());
 
     @Mock
     private BankAccountReactiveRepository bankAccountReactiveRepository;
 
-    @Test
-    void testStreamBalanceByAccountNumber_Success() {
-        Flux<Transaction> mockFlux = Flux.just(
-                new Transaction(UUID.randomUUID(), UUID.randomUUID(), "123456789", "DEPOSIT", 50.0, 50.0, 100.0, LocalDateTime.now()),
-                new Transaction(UUID.randomUUID(), UUID.randomUUID(), "123456789", "DEPOSIT", 50.0, 100.0, 150.0, LocalDateTime.now()),
-                new Transaction(UUID.randomUUID(), UUID.randomUUID(), "123456789", "DEPOSIT", 50.0, 150.0, 200.0, LocalDateTime.now())
-        );
+    @Spy
+    private AccountCache accountCache = new AccountCache(new AccountCacheProperties(), new SimpleMeterRegistry());
 
-        // Configurar el comportamiento del mock
-        when(transactionReactiveRepository.findWithTailableCursorByNumberAccount("123456789"))
-                .thenReturn(mockFlux);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
-        // Act: Llamar al método del servicio
-        Flux<Double> responseBody = bankAccountService.streamBalanceByAccountNumber("123456789");
+    @Spy
+    private ServiceMetrics serviceMetrics = new ServiceMetrics(meterRegistry);
 
-        // Assert: Verificar los valores emitidos por el flujo
-        StepVerifier.create(responseBody)
-                .expectNext(100.0) // Primer balance
-                .expectNext(150.0) // Segundo balance
-                .expectNext(200.0) // Tercer balance
-                .verifyComplete(); // Verificar que el flujo se complete sin errores
+    @Spy
+    private AccountLaneExecutor accountLaneExecutor = new AccountLaneExecutor(new AccountLaneProperties(), new SimpleMeterRegistry());
 
-        // Verificar que el mock fue invocado
-        verify(transactionReactiveRepository, times(1))
-                .findWithTailableCursorByNumberAccount("123456789");
-    }
+    @Spy
+    private OptimisticRetry optimisticRetry = new OptimisticRetry(fastRetries(), meterRegistry);
+
+    @Spy
+    private ConsistencyProperties consistencyProperties = new ConsistencyProperties();
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    @Mock
+    private AuditOutbox auditOutbox;
+
+    @Mock
+    private FraudRuleEngine fraudRuleEngine;
+
+    @Spy
+    private RollingStatsEngine rollingStatsEngine = new RollingStatsEngine(new RollingStatsProperties(), new SimpleMeterRegistry());
 
     @Test
-    void testStreamBalanceByAccountNumber_NoTransactions() {
-        // Arrange: Configurar el mock para devolver un Flux vacío
-        when(transactionReactiveRepository.findWithTailableCursorByNumberAccount("123456789"))
-                .thenReturn(Flux.empty());
-
-        // Act: Llamar al método del servicio
-        Flux<Double> responseBody = bankAccountService.streamBalanceByAccountNumber("123456789");
-
-        // Assert: Verificar que el servicio emite un error con el mensaje esperado
-        StepVerifier.create(responseBody)
-                .expectErrorMatches(throwable -> throwable instanceof RuntimeException &&
-                        throwable.getMessage().equals("No transactions found for account 123456789"))
+    void testStreamBalanceByAccountNumber_Success() {
+        // Act & Assert: Solo llegan los saldos de la cuenta observada, cada uno con su token de reanudación
+        StepVerifier.create(bankAccountService.streamBalanceByAccountNumber("123456789", null))
+                .then(() -> {
+                    transactionChangeStream.publish(newTransaction("123456789", 50L, 100L));
+                    transactionChangeStream.publish(newTransaction("999999999", 10L, 10L));
+                    transactionChangeStream.publish(newTransaction("123456789", 100L, 150L));
+                })
+                .assertNext(event -> {
+                    assertEquals("100", event.data());
+                    assertEquals("1", event.id());
+                })
+                .assertNext(event -> {
+                    assertEquals("150", event.data());
+                    assertEquals("3", event.id());
+                })
+                .thenCancel()
                 .verify();
+    }
 
-        // Verificar que el mock fue invocado
-        verify(transactionReactiveRepository, times(1))
-                .findWithTailableCursorByNumberAccount("123456789");
+    @Test
+    void testStreamBalanceByAccountNumber_ResumesAfterToken() {
+        // Arrange: Eventos emitidos mientras el cliente estaba desconectado
+        transactionChangeStream.publish(newTransaction("123456789", 50L, 100L));
+        transactionChangeStream.publish(newTransaction("123456789", 100L, 150L));
+        transactionChangeStream.publish(newTransaction("123456789", 150L, 200L));
+
+        // Act & Assert: Al reanudar con el último id recibido no se pierde ni se repite nada
+        StepVerifier.create(bankAccountService.streamBalanceByAccountNumber("123456789", "1"))
+                .assertNext(event -> assertEquals("150", event.data()))
+                .assertNext(event -> assertEquals("200", event.data()))
+                .thenCancel()
+                .verify();
     }
 
     @Test
-    void testGetAllAccounts_Success() {
-        // Arrange: Configuración del mock con una lista de cuentas simuladas
+    void testGetAccountsPage_FirstPage() {
+        // Arrange: Configuración del mock con una página completa de cuentas
         List<BankAccount> mockAccounts = List.of(
-                new BankAccount(UUID.randomUUID(), "123456789", 1000.0, "SAVINGS"),
-                new BankAccount(UUID.randomUUID(), "987654321", 500.0, "CHECKING")
+                new BankAccount(UUID.randomUUID(), "123456789", 1000L, "SAVINGS"),
+                new BankAccount(UUID.randomUUID(), "987654321", 500L, "CHECKING")
         );
 
-        when(bankAccountReactiveRepository.findAll()).thenReturn(Flux.fromIterable(mockAccounts));
+        when(bankAccountReactiveRepository.findAllBy(PageRequest.of(0, 2, Sort.by("id"))))
+                .thenReturn(Flux.fromIterable(mockAccounts));
 
         // Act: Llamada al método del servicio
-        Mono<BankAccountResponseDTO> responseMono = bankAccountService.getAllAccounts();
+        Mono<BankAccountResponseDTO> responseMono = bankAccountService.getAccountsPage(null, 2);
 
         // Assert: Verificar que el resultado contiene los datos esperados
         StepVerifier.create(responseMono)
                 .assertNext(response -> {
                     assertTrue(response.isSuccess());
                     assertEquals("Accounts found.", response.getMessage());
-                    assertEquals(2, ((List<?>) response.getData()).size());
 
-                    // Validar los detalles de las cuentas retornadas
-                    List<BankAccount> responseAccounts = (List<BankAccount>) response.getData();
-                    assertEquals("123456789", responseAccounts.get(0).getNumberAccount());
-                    assertEquals("987654321", responseAccounts.get(1).getNumberAccount());
+                    // Validar los detalles de las cuentas retornadas y el cursor siguiente
+                    CursorPageDTO<?> page = (CursorPageDTO<?>) response.getData();
+                    assertEquals(mockAccounts, page.getItems());
+                    assertEquals(mockAccounts.get(1).getId().toString(), page.getNextCursor());
+                })
+                .verifyComplete();
+
+        // Verificar que nunca se lee la colección completa
+        verify(bankAccountReactiveRepository, never()).findAll();
+    }
+
+    @Test
+    void testGetAccountsPage_LastPageFromCursor() {
+        // Arrange: Una página incompleta después del cursor
+        UUID cursor = UUID.randomUUID();
+        BankAccount lastAccount = new BankAccount(UUID.randomUUID(), "123456789", 1000L, "SAVINGS");
+
+        when(bankAccountReactiveRepository.findByIdGreaterThan(cursor, PageRequest.of(0, 2, Sort.by("id"))))
+                .thenReturn(Flux.just(lastAccount));
+
+        // Act
+        Mono<BankAccountResponseDTO> responseMono = bankAccountService.getAccountsPage(cursor.toString(), 2);
+
+        // Assert: Sin cursor siguiente cuando la página no está llena
+        StepVerifier.create(responseMono)
+                .assertNext(response -> {
+                    CursorPageDTO<?> page = (CursorPageDTO<?>) response.getData();
+                    assertEquals(List.of(lastAccount), page.getItems());
+                    assertNull(page.getNextCursor());
                 })
                 .verifyComplete();
+    }
+
+    @Test
+    void testGetAccountsPage_InvalidCursorAndSize() {
+        // Act & Assert: Parámetros inválidos no llegan al repositorio
+        StepVerifier.create(bankAccountService.getAccountsPage("not-a-uuid", 10))
+                .assertNext(response -> assertEquals("Invalid cursor.", response.getMessage()))
+                .verifyComplete();
 
-        // Verificar que el repositorio fue llamado una vez
-        verify(bankAccountReactiveRepository, times(1)).findAll();
+        StepVerifier.create(bankAccountService.getAccountsPage(null, 0))
+                .assertNext(response -> assertFalse(response.isSuccess()))
+                .verifyComplete();
+
+        verifyNoInteractions(bankAccountReactiveRepository);
+    }
+
+    @Test
+    void testStreamAllAccounts_Success() {
+        // Arrange
+        BankAccount account = new BankAccount(UUID.randomUUID(), "123456789", 1000L, "SAVINGS");
+        when(bankAccountReactiveRepository.findAll()).thenReturn(Flux.just(account));
+
+        // Act & Assert: Las cuentas se emiten sin agruparlas en una lista
+        StepVerifier.create(bankAccountService.streamAllAccounts())
+                .expectNext(account)
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetAccount_ConcurrentReadsShareOneFindById() {
+        // Arrange: findById tarda en responder
+        UUID accountId = UUID.randomUUID();
+        Sinks.One<BankAccount> pendingRead = Sinks.one();
+        when(bankAccountReactiveRepository.findById(accountId)).thenReturn(pendingRead.asMono());
+
+        // Act: Una ráfaga de lecturas idénticas desde un panel
+        StepVerifier.create(Flux.range(0, 10)
+                        .flatMap(i -> bankAccountService.getAccount(accountId))
+                        .collectList())
+                .then(() -> pendingRead.tryEmitValue(new BankAccount(accountId, "123456789", 100L, "SAVINGS")))
+                .assertNext(responses -> {
+                    assertEquals(10, responses.size());
+                    assertTrue(responses.stream().allMatch(BankAccountResponseDTO::isSuccess));
+                })
+                .verifyComplete();
+
+        // Assert: Un único viaje a Mongo
+        verify(bankAccountReactiveRepository, times(1)).findById(accountId);
+    }
+
+    @Test
+    void testGetAccount_AccountNotFound() {
+        // Arrange
+        UUID accountId = UUID.randomUUID();
+        when(bankAccountReactiveRepository.findById(accountId)).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(bankAccountService.getAccount(accountId))
+                .assertNext(response -> {
+                    assertFalse(response.isSuccess());
+                    assertEquals("Account not found.", response.getMessage());
+                })
+                .verifyComplete();
     }
 
     @Test
@@ -123,14 +251,14 @@ class BankAccountServiceImplTest {
         // Arrange: Datos de entrada y simulación de la cuenta guardada
         BankAccountRequestDTO requestDTO = BankAccountRequestDTO.builder()
                 .numberAccount("123456789")
-                .balance(1000.0)
+                .balance(1000L)
                 .type("SAVINGS")
                 .build();
 
         BankAccount savedAccount = new BankAccount(
                 UUID.randomUUID(),
                 "123456789",
-                1000.0,
+                1000L,
                 "SAVINGS"
         );
 
@@ -148,7 +276,7 @@ class BankAccountServiceImplTest {
 
                     // Validar detalles de la cuenta creada
                     assertEquals("123456789", responseAccount.getNumberAccount());
-                    assertEquals(1000.0, responseAccount.getBalance());
+                    assertEquals(1000L, responseAccount.getBalance());
                     assertEquals("SAVINGS", responseAccount.getType());
                 })
                 .verifyComplete();
@@ -163,21 +291,21 @@ class BankAccountServiceImplTest {
         UUID accountId = UUID.randomUUID();
         BankAccountRequestDTO requestDTO = BankAccountRequestDTO.builder()
                 .numberAccount("987654321")
-                .balance(5000.0)
+                .balance(5000L)
                 .type("CHECKING")
                 .build();
 
         BankAccount existingAccount = new BankAccount(
                 accountId,
                 "123456789",
-                1000.0,
+                1000L,
                 "SAVINGS"
         );
 
         BankAccount updatedAccount = new BankAccount(
                 accountId,
                 "987654321",
-                5000.0,
+                5000L,
                 "CHECKING"
         );
 
@@ -196,7 +324,7 @@ class BankAccountServiceImplTest {
 
                     // Validar detalles de la cuenta actualizada
                     assertEquals("987654321", responseAccount.getNumberAccount());
-                    assertEquals(5000.0, responseAccount.getBalance());
+                    assertEquals(5000L, responseAccount.getBalance());
                     assertEquals("CHECKING", responseAccount.getType());
                 })
                 .verifyComplete();
@@ -206,13 +334,144 @@ class BankAccountServiceImplTest {
         verify(bankAccountReactiveRepository, times(1)).save(existingAccount);
     }
 
+    @Test
+    void testUpdateAccount_KeepsStoredBalance() {
+        // Arrange: La petición trae un saldo distinto al almacenado
+        UUID accountId = UUID.randomUUID();
+        when(bankAccountReactiveRepository.findById(accountId))
+                .thenReturn(Mono.just(new BankAccount(accountId, "123456789", 1000L, "SAVINGS", 3L)));
+        when(bankAccountReactiveRepository.save(any(BankAccount.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        // Act & Assert: Solo cambian número y tipo; el saldo solo se mueve con operaciones auditadas
+        StepVerifier.create(bankAccountService.updateAccount(accountId, BankAccountRequestDTO.builder()
+                        .numberAccount("987654321").balance(5000L).type("CHECKING").build()))
+                .assertNext(response -> {
+                    BankAccount saved = (BankAccount) response.getData();
+                    assertEquals("987654321", saved.getNumberAccount());
+                    assertEquals("CHECKING", saved.getType());
+                    assertEquals(1000L, saved.getBalance());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testCreateAccount_DuplicateNumberAccount() {
+        // Arrange: El índice único rechaza el número de cuenta
+        when(bankAccountReactiveRepository.save(any(BankAccount.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key error")));
+
+        // Act & Assert: Se responde con un error de negocio, no con un 500
+        StepVerifier.create(bankAccountService.createAccount(BankAccountRequestDTO.builder()
+                        .numberAccount("123456789").balance(1000L).type("SAVINGS").build()))
+                .assertNext(response -> {
+                    assertFalse(response.isSuccess());
+                    assertEquals("Account number already exists.", response.getMessage());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testUpdateAccount_DuplicateNumberAccount() {
+        // Arrange: Otra cuenta ya usa el número pedido
+        UUID accountId = UUID.randomUUID();
+        when(bankAccountReactiveRepository.findById(accountId))
+                .thenReturn(Mono.just(new BankAccount(accountId, "123456789", 1000L, "SAVINGS", 3L)));
+        when(bankAccountReactiveRepository.save(any(BankAccount.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key error")));
+
+        // Act & Assert: Error de negocio y la cuenta no queda modificada en la caché
+        StepVerifier.create(bankAccountService.updateAccount(accountId, BankAccountRequestDTO.builder()
+                        .numberAccount("987654321").balance(1000L).type("SAVINGS").build()))
+                .assertNext(response -> {
+                    assertFalse(response.isSuccess());
+                    assertEquals("Account number already exists.", response.getMessage());
+                })
+                .verifyComplete();
+        verify(bankAccountReactiveRepository, times(1)).save(any(BankAccount.class));
+    }
+
+    @Test
+    void testUpdateAccount_RetriesOnVersionConflict() {
+        // Arrange: El primer save choca con una escritura concurrente y el segundo, tras releer, funciona
+        UUID accountId = UUID.randomUUID();
+        BankAccountRequestDTO requestDTO = BankAccountRequestDTO.builder()
+                .numberAccount("123456789").balance(5000L).type("CHECKING").build();
+        when(bankAccountReactiveRepository.findById(accountId))
+                .thenReturn(Mono.just(new BankAccount(accountId, "123456789", 1000L, "SAVINGS", 3L)))
+                .thenReturn(Mono.just(new BankAccount(accountId, "123456789", 1200L, "SAVINGS", 4L)));
+        when(bankAccountReactiveRepository.save(any(BankAccount.class)))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("version 3 is stale")))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        // Act & Assert
+        StepVerifier.create(bankAccountService.updateAccount(accountId, requestDTO))
+                .assertNext(response -> {
+                    assertTrue(response.isSuccess());
+                    assertEquals(4L, ((BankAccount) response.getData()).getVersion());
+                })
+                .verifyComplete();
+
+        // La segunda lectura va a Mongo, no a la caché invalidada
+        verify(bankAccountReactiveRepository, times(2)).findById(accountId);
+        assertEquals(1.0, meterRegistry.get("audit.accounts.conflicts").tag("operation", "update").counter().count());
+        assertEquals(1.0, meterRegistry.get("audit.accounts.retries").tag("operation", "update").counter().count());
+    }
+
+    @Test
+    void testUpdateAccount_ConflictAfterRetriesExhausted() {
+        // Arrange: Todas las escrituras chocan
+        UUID accountId = UUID.randomUUID();
+        BankAccountRequestDTO requestDTO = BankAccountRequestDTO.builder()
+                .numberAccount("123456789").balance(5000L).type("CHECKING").build();
+        when(bankAccountReactiveRepository.findById(accountId))
+                .thenAnswer(invocation -> Mono.just(new BankAccount(accountId, "123456789", 1000L, "SAVINGS", 3L)));
+        when(bankAccountReactiveRepository.save(any(BankAccount.class)))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("version 3 is stale")));
+
+        // Act & Assert
+        StepVerifier.create(bankAccountService.updateAccount(accountId, requestDTO))
+                .assertNext(response -> {
+                    assertFalse(response.isSuccess());
+                    assertEquals("Account was modified concurrently.", response.getMessage());
+                })
+                .verifyComplete();
+
+        assertEquals(3.0, meterRegistry.get("audit.accounts.conflicts").tag("operation", "update").counter().count());
+        assertEquals(1, meterRegistry.get("audit.accounts.operations")
+                .tags("operation", "update", "outcome", "conflict")
+                .timer().count());
+    }
+
+    @Test
+    void testUpdateAccount_ServedFromCacheAfterWrite() {
+        // Arrange: La cuenta creada queda en caché por write-through
+        UUID accountId = UUID.randomUUID();
+        BankAccount savedAccount = new BankAccount(accountId, "123456789", 1000L, "SAVINGS");
+        when(bankAccountReactiveRepository.save(any(BankAccount.class))).thenReturn(Mono.just(savedAccount));
+
+        StepVerifier.create(bankAccountService.createAccount(BankAccountRequestDTO.builder()
+                        .numberAccount("123456789").balance(1000L).type("SAVINGS").build()))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        // Act: La actualización lee la cuenta desde la caché
+        StepVerifier.create(bankAccountService.updateAccount(accountId, BankAccountRequestDTO.builder()
+                        .numberAccount("987654321").balance(1000L).type("CHECKING").build()))
+                .assertNext(response -> assertEquals("Account updated successfully.", response.getMessage()))
+                .verifyComplete();
+
+        // Assert: Ninguna lectura llegó a Mongo
+        verify(bankAccountReactiveRepository, never()).findById(any(UUID.class));
+    }
+
     @Test
     void testUpdateAccount_AccountNotFound() {
         // Arrange: Datos de entrada
         UUID accountId = UUID.randomUUID();
         BankAccountRequestDTO requestDTO = BankAccountRequestDTO.builder()
                 .numberAccount("987654321")
-                .balance(5000.0)
+                .balance(5000L)
                 .type("CHECKING")
                 .build();
 
@@ -242,7 +501,7 @@ class BankAccountServiceImplTest {
         BankAccount existingAccount = new BankAccount(
                 accountId,
                 "123456789",
-                1000.0,
+                1000L,
                 "SAVINGS"
         );
 
@@ -294,23 +553,17 @@ class BankAccountServiceImplTest {
     void testDepositMoney_Success() {
         // Arrange: Datos de entrada y configuración de mocks
         UUID accountId = UUID.randomUUID();
-        double depositAmount = 500.0;
-        BankAccount existingAccount = new BankAccount(
-                accountId,
-                "123456789",
-                1000.0,
-                "SAVINGS"
-        );
-
+        long depositAmount = 500L;
         BankAccount updatedAccount = new BankAccount(
                 accountId,
                 "123456789",
-                1500.0,
+                1500L,
                 "SAVINGS"
         );
 
-        when(bankAccountReactiveRepository.findById(accountId)).thenReturn(Mono.just(existingAccount));
-        when(bankAccountReactiveRepository.save(updatedAccount)).thenReturn(Mono.just(updatedAccount));
+        // La actualización atómica devuelve el saldo previo y el nuevo en un solo viaje
+        when(bankAccountReactiveRepository.depositBalance(accountId, depositAmount))
+                .thenReturn(Mono.just(new BalanceUpdate(updatedAccount, 1000L, 1500L)));
 
         // Mock para el DTO de transacción utilizando builder
         TransactionRequestDTO transactionRequestDTO = TransactionRequestDTO.builder()
@@ -318,14 +571,14 @@ class BankAccountServiceImplTest {
                 .numberAccount("123456789")
                 .type("DEPOSIT")
                 .amount(depositAmount)
-                .previousBalance(existingAccount.getBalance())
-                .currentBalance(updatedAccount.getBalance())
+                .previousBalance(1000L)
+                .currentBalance(1500L)
                 .build();
 
         // Mock de la creación de la transacción
         TransactionResponseDTO transactionResponseDTO = TransactionResponseDTO.buildSuccess(
                 "Transaction created successfully.",
-                new Transaction(UUID.randomUUID(), accountId, "123456789", "DEPOSIT", depositAmount, 1000.0, 1500.0, LocalDateTime.now())
+                new Transaction(UUID.randomUUID(), accountId, "123456789", "DEPOSIT", depositAmount, 1000L, 1500L, LocalDateTime.now())
         );
 
         when(transactionService.createTransaction(transactionRequestDTO)).thenReturn(Mono.just(transactionResponseDTO));
@@ -337,42 +590,63 @@ class BankAccountServiceImplTest {
         StepVerifier.create(responseMono)
                 .assertNext(response -> {
                     assertTrue(response.isSuccess());
-                    assertEquals("Transaction type: DEPOSIT. Amount: 500.0 . Current Balance: 1500.0", response.getMessage());
+                    assertEquals("Transaction type: DEPOSIT. Amount: 5.00 . Current Balance: 15.00", response.getMessage());
                     assertNotNull(response.getData());
                 })
                 .verifyComplete();
 
-        // Verificar que los métodos del repositorio fueron llamados
-        verify(bankAccountReactiveRepository, times(1)).findById(accountId);
-        verify(bankAccountReactiveRepository, times(1)).save(existingAccount);
-        verify(bankAccountReactiveRepository, times(1)).save(updatedAccount);
+        // Verificar que solo se hizo la actualización atómica, sin findById ni save
+        verify(bankAccountReactiveRepository, times(1)).depositBalance(accountId, depositAmount);
+        verify(bankAccountReactiveRepository, never()).findById(any(UUID.class));
+        verify(bankAccountReactiveRepository, never()).save(any(BankAccount.class));
         verify(transactionService, times(1)).createTransaction(transactionRequestDTO);
 
+        // La operación aplicada pasa por las reglas de fraude
+        verify(fraudRuleEngine, times(1)).evaluate("DEPOSIT", accountId, "123456789", depositAmount);
+    }
+
+    @Test
+    void testDepositMoney_AccountNotFound() {
+        // Arrange: La actualización atómica no encuentra la cuenta
+        UUID accountId = UUID.randomUUID();
+        when(bankAccountReactiveRepository.depositBalance(accountId, 100L)).thenReturn(Mono.empty());
+
+        // Act
+        Mono<BankAccountResponseDTO> responseMono = bankAccountService.depositMoney(accountId, 100L);
+
+        // Assert
+        StepVerifier.create(responseMono)
+                .assertNext(response -> {
+                    assertFalse(response.isSuccess());
+                    assertEquals("Account not found.", response.getMessage());
+                })
+                .verifyComplete();
+
+        verify(transactionService, never()).createTransaction(any(TransactionRequestDTO.class));
     }
 
     @Test
     void testWithdrawMoney_Success() {
         // Arrange
         UUID accountId = UUID.randomUUID();
-        double withdrawalAmount = 500.0;
-        BankAccount existingAccount = new BankAccount(accountId, "123456789", 1500.0, "SAVINGS");
-        BankAccount updatedAccount = new BankAccount(accountId, "123456789", 1000.0, "SAVINGS");
+        long withdrawalAmount = 500L;
+        BankAccount updatedAccount = new BankAccount(accountId, "123456789", 1000L, "SAVINGS");
 
-        when(bankAccountReactiveRepository.findById(accountId)).thenReturn(Mono.just(existingAccount));
-        when(bankAccountReactiveRepository.save(existingAccount)).thenReturn(Mono.just(updatedAccount));
+        when(bankAccountReactiveRepository.withdrawBalance(accountId, withdrawalAmount))
+                .thenReturn(Mono.just(new BalanceUpdate(updatedAccount, 1500L, 1000L)));
 
         TransactionRequestDTO transactionRequestDTO = TransactionRequestDTO.builder()
                 .accountId(accountId)
                 .numberAccount("123456789")
                 .type("WITHDRAWAL")
                 .amount(withdrawalAmount)
-                .previousBalance(existingAccount.getBalance())
-                .currentBalance(updatedAccount.getBalance())
+                .previousBalance(1500L)
+                .currentBalance(1000L)
                 .build();
 
         TransactionResponseDTO transactionResponseDTO = TransactionResponseDTO.buildSuccess(
                 "Transaction created successfully.",
-                new Transaction(UUID.randomUUID(), accountId, "123456789", "WITHDRAWAL", withdrawalAmount, 1500.0, 1000.0, LocalDateTime.now())
+                new Transaction(UUID.randomUUID(), accountId, "123456789", "WITHDRAWAL", withdrawalAmount, 1500L, 1000L, LocalDateTime.now())
         );
 
         when(transactionService.createTransaction(transactionRequestDTO)).thenReturn(Mono.just(transactionResponseDTO));
@@ -384,17 +658,171 @@ class BankAccountServiceImplTest {
         StepVerifier.create(responseMono)
                 .assertNext(response -> {
                     assertTrue(response.isSuccess());
-                    assertEquals("Transaction type: WITHDRAWAL. Amount: 500.0 . Current Balance: 1000.0", response.getMessage());
+                    assertEquals("Transaction type: WITHDRAWAL. Amount: 5.00 . Current Balance: 10.00", response.getMessage());
                     assertNotNull(response.getData());
                 })
                 .verifyComplete();
 
         // Verificación
-        verify(bankAccountReactiveRepository, times(1)).findById(accountId);
-        verify(bankAccountReactiveRepository, times(1)).save(existingAccount);
-        verify(bankAccountReactiveRepository, times(1)).save(updatedAccount);
+        verify(bankAccountReactiveRepository, times(1)).withdrawBalance(accountId, withdrawalAmount);
+        verify(bankAccountReactiveRepository, never()).save(any(BankAccount.class));
         verify(transactionService, times(1)).createTransaction(transactionRequestDTO);
     }
 
+    @Test
+    void testWithdrawMoney_InsufficientFunds() {
+        // Arrange: La guarda balance >= amount no se cumple, pero la cuenta existe
+        UUID accountId = UUID.randomUUID();
+        when(bankAccountReactiveRepository.withdrawBalance(accountId, 5000L)).thenReturn(Mono.empty());
+        when(bankAccountReactiveRepository.existsById(accountId)).thenReturn(Mono.just(true));
 
-}
\ No newline at end of file
+        // Act
+        Mono<BankAccountResponseDTO> responseMono = bankAccountService.withdrawMoney(accountId, 5000L);
+
+        // Assert
+        StepVerifier.create(responseMono)
+                .assertNext(response -> {
+                    assertFalse(response.isSuccess());
+                    assertEquals("Insufficient funds.", response.getMessage());
+                })
+                .verifyComplete();
+
+        verify(transactionService, never()).createTransaction(any(TransactionRequestDTO.class));
+        verify(fraudRuleEngine, never()).evaluate(anyString(), any(UUID.class), anyString(), anyLong());
+
+        // El resultado queda etiquetado por operación, sin etiquetas por cuenta
+        assertEquals(1, meterRegistry.get("audit.accounts.operations")
+                .tags("operation", "withdraw", "outcome", "insufficient_funds")
+                .timer().count());
+    }
+
+    @Test
+    void testWithdrawMoney_StaleCachedBalanceDoesNotAuthorize() {
+        // Arrange: La caché conserva un saldo alto, pero en Mongo ya no alcanza
+        UUID accountId = UUID.randomUUID();
+        accountCache.put(new BankAccount(accountId, "123456789", 10_000L, "SAVINGS"));
+        when(bankAccountReactiveRepository.withdrawBalance(accountId, 5000L)).thenReturn(Mono.empty());
+        when(bankAccountReactiveRepository.existsById(accountId)).thenReturn(Mono.just(true));
+
+        // Act & Assert: Decide la guarda de Mongo, no la entrada en caché
+        StepVerifier.create(bankAccountService.withdrawMoney(accountId, 5000L))
+                .assertNext(response -> assertEquals("Insufficient funds.", response.getMessage()))
+                .verifyComplete();
+
+        verify(accountCache, never()).findById(any(UUID.class), any());
+        verify(transactionService, never()).createTransaction(any(TransactionRequestDTO.class));
+    }
+
+    @Test
+    void testWithdrawMoney_AccountNotFound() {
+        // Arrange
+        UUID accountId = UUID.randomUUID();
+        when(bankAccountReactiveRepository.withdrawBalance(accountId, 100L)).thenReturn(Mono.empty());
+        when(bankAccountReactiveRepository.existsById(accountId)).thenReturn(Mono.just(false));
+
+        // Act
+        Mono<BankAccountResponseDTO> responseMono = bankAccountService.withdrawMoney(accountId, 100L);
+
+        // Assert
+        StepVerifier.create(responseMono)
+                .assertNext(response -> {
+                    assertFalse(response.isSuccess());
+                    assertEquals("Account not found.", response.getMessage());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testDepositMoney_TransactionModeRetriesTransientError() {
+        // Arrange: Modo transaccional; el primer intento aborta con un error transitorio
+        consistencyProperties.setMode(ConsistencyProperties.Mode.TRANSACTION);
+        UUID accountId = UUID.randomUUID();
+        BankAccount updatedAccount = new BankAccount(accountId, "123456789", 1500L, "SAVINGS");
+        MongoException writeConflict = new MongoException(112, "WriteConflict");
+        writeConflict.addLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL);
+
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(bankAccountReactiveRepository.depositBalance(accountId, 500L))
+                .thenReturn(Mono.just(new BalanceUpdate(updatedAccount, 1000L, 1500L)));
+        Transaction committedRecord = newTransaction("123456789", 1000L, 1500L);
+        when(transactionService.insertTransaction(any(TransactionRequestDTO.class)))
+                .thenReturn(Mono.error(writeConflict))
+                .thenReturn(Mono.just(committedRecord));
+        when(transactionService.publishTransaction(committedRecord)).thenReturn(Mono.empty());
+
+        // Act
+        Mono<BankAccountResponseDTO> responseMono = bankAccountService.depositMoney(accountId, 500L);
+
+        // Assert: La transacción completa se repite una vez y termina con éxito
+        StepVerifier.create(responseMono)
+                .assertNext(response -> assertTrue(response.isSuccess()))
+                .verifyComplete();
+
+        verify(transactionalOperator, times(1)).transactional(any(Mono.class));
+        verify(bankAccountReactiveRepository, times(2)).depositBalance(accountId, 500L);
+
+        // El intento abortado no cuenta en las estadísticas ni avisa a los listeners; el confirmado una vez
+        assertEquals(1, rollingStatsEngine.snapshot(accountId).getDeposits());
+        verify(transactionService, times(1)).publishTransaction(any(Transaction.class));
+        verify(transactionService, never()).createTransaction(any(TransactionRequestDTO.class));
+    }
+
+    @Test
+    void testDepositMoney_TransactionModeDoesNotRetryOtherErrors() {
+        // Arrange: Un fallo sin la etiqueta transitoria no se repite
+        consistencyProperties.setMode(ConsistencyProperties.Mode.TRANSACTION);
+        UUID accountId = UUID.randomUUID();
+        BankAccount updatedAccount = new BankAccount(accountId, "123456789", 1500L, "SAVINGS");
+
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(bankAccountReactiveRepository.depositBalance(accountId, 500L))
+                .thenReturn(Mono.just(new BalanceUpdate(updatedAccount, 1000L, 1500L)));
+        when(transactionService.insertTransaction(any(TransactionRequestDTO.class)))
+                .thenReturn(Mono.error(new MongoException("UnknownTransactionCommitResult")));
+
+        // Act & Assert
+        StepVerifier.create(bankAccountService.depositMoney(accountId, 500L))
+                .expectError(MongoException.class)
+                .verify();
+
+        verify(bankAccountReactiveRepository, times(1)).depositBalance(accountId, 500L);
+        assertEquals(0, rollingStatsEngine.snapshot(accountId).getDeposits());
+        verify(transactionService, never()).publishTransaction(any(Transaction.class));
+    }
+
+    @Test
+    void testWithdrawMoney_OutboxModeSchedulesDrain() {
+        // Arrange: Modo outbox; la entrada de auditoría viaja en la misma actualización de la cuenta
+        consistencyProperties.setMode(ConsistencyProperties.Mode.OUTBOX);
+        UUID accountId = UUID.randomUUID();
+        BankAccount updatedAccount = new BankAccount(accountId, "123456789", 700L, "SAVINGS");
+        when(bankAccountReactiveRepository.withdrawBalanceWithOutbox(accountId, 300L))
+                .thenReturn(Mono.just(new BalanceUpdate(updatedAccount, 1000L, 700L)));
+
+        // Act & Assert
+        StepVerifier.create(bankAccountService.withdrawMoney(accountId, 300L))
+                .assertNext(response -> {
+                    assertTrue(response.isSuccess());
+                    assertEquals("Transaction type: WITHDRAWAL. Amount: 3.00 . Current Balance: 7.00", response.getMessage());
+                })
+                .verifyComplete();
+
+        // El registro se copia después, fuera de la petición
+        verify(auditOutbox, times(1)).schedule(accountId);
+        verify(transactionService, never()).createTransaction(any(TransactionRequestDTO.class));
+        verify(bankAccountReactiveRepository, never()).withdrawBalance(any(UUID.class), anyLong());
+    }
+
+    private static Transaction newTransaction(String numberAccount, long previousBalance, long currentBalance) {
+        return new Transaction(UUID.randomUUID(), UUID.randomUUID(), numberAccount, "DEPOSIT",
+                currentBalance - previousBalance, previousBalance, currentBalance, LocalDateTime.now());
+    }
+
+    private static OptimisticLockProperties fastRetries() {
+        OptimisticLockProperties properties = new OptimisticLockProperties();
+        properties.setMaxRetries(2);
+        properties.setMinBackoff(Duration.ofMillis(1));
+        properties.setMaxBackoff(Duration.ofMillis(5));
+        return properties;
+    }
+}
@@ -0,0 +1,236 @@
+package com.reactive.audit.services.accounts;
+
+import com.reactive.audit.DTO.res.BankAccountResponseDTO;
+import com.reactive.audit.config.IdempotencyProperties;
+import com.reactive.audit.model.IdempotencyRecord;
+import com.reactive.audit.repositories.IdempotencyRecordReactiveRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @InjectMocks
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private IdempotencyRecordReactiveRepository idempotencyRecordReactiveRepository;
+
+    @Spy
+    private IdempotencyProperties idempotencyProperties = new IdempotencyProperties();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    void testExecute_WithoutKeyRunsOperation() {
+        // Act & Assert: Sin clave no se toca Mongo
+        StepVerifier.create(idempotencyService.execute(null, "deposit:a:100", this::deposit))
+                .assertNext(response -> assertTrue(response.isSuccess()))
+                .verifyComplete();
+
+        assertEquals(1, executions.get());
+        verifyNoInteractions(idempotencyRecordReactiveRepository);
+    }
+
+    @Test
+    void testExecute_DuplicateReplaysFromMemory() {
+        // Arrange: La primera petición reclama la clave y guarda la respuesta
+        givenClaimSucceeds();
+
+        // Act
+        BankAccountResponseDTO first = idempotencyService.execute("key-1", "deposit:a:100", this::deposit).block();
+        BankAccountResponseDTO second = idempotencyService.execute("key-1", "deposit:a:100", this::deposit).block();
+
+        // Assert: El reintento recibe la misma respuesta sin ejecutar ni escribir nada más
+        assertSame(first, second);
+        assertEquals(1, executions.get());
+        verify(idempotencyRecordReactiveRepository, times(1)).insert(any(IdempotencyRecord.class));
+
+        ArgumentCaptor<IdempotencyRecord> stored = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRecordReactiveRepository, times(1)).save(stored.capture());
+        assertTrue(stored.getValue().isCompleted());
+        assertEquals("Deposit successful.", stored.getValue().getMessage());
+    }
+
+    @Test
+    void testExecute_InFlightDuplicatesShareOneExecution() {
+        // Arrange: La operación queda pendiente hasta que la completamos
+        givenClaimSucceeds();
+        Sinks.One<BankAccountResponseDTO> pending = Sinks.one();
+
+        // Act: Dos peticiones con la misma clave llegan antes de que termine la primera
+        Mono<BankAccountResponseDTO> first = idempotencyService.execute("key-1", "deposit:a:100", () -> {
+            executions.incrementAndGet();
+            return pending.asMono();
+        });
+        Mono<BankAccountResponseDTO> second = idempotencyService.execute("key-1", "deposit:a:100", this::deposit);
+
+        // Assert
+        StepVerifier.create(Mono.zip(first, second))
+                .then(() -> pending.tryEmitValue(BankAccountResponseDTO.buildSuccess("Deposit successful.", null)))
+                .assertNext(responses -> assertSame(responses.getT1(), responses.getT2()))
+                .verifyComplete();
+
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void testExecute_ReplaysStoredResponseWhenKeyIsTaken() {
+        // Arrange: Otra instancia ya completó la petición
+        when(idempotencyRecordReactiveRepository.insert(any(IdempotencyRecord.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key")));
+        when(idempotencyRecordReactiveRepository.findById("key-1")).thenReturn(Mono.just(
+                new IdempotencyRecord("key-1", "deposit:a:100", true, true, "Deposit successful.", null, LocalDateTime.now())));
+
+        // Act & Assert
+        StepVerifier.create(idempotencyService.execute("key-1", "deposit:a:100", this::deposit))
+                .assertNext(response -> {
+                    assertTrue(response.isSuccess());
+                    assertEquals("Deposit successful.", response.getMessage());
+                })
+                .verifyComplete();
+
+        assertEquals(0, executions.get());
+        verify(idempotencyRecordReactiveRepository, never()).save(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void testExecute_RejectsKeyReusedForAnotherRequest() {
+        // Arrange
+        givenClaimSucceeds();
+        idempotencyService.execute("key-1", "deposit:a:100", this::deposit).block();
+
+        // Act & Assert: Misma clave, distinto monto
+        StepVerifier.create(idempotencyService.execute("key-1", "deposit:a:999", this::deposit))
+                .expectErrorSatisfies(error -> assertEquals(HttpStatus.UNPROCESSABLE_ENTITY,
+                        ((ResponseStatusException) error).getStatusCode()))
+                .verify();
+
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void testExecute_RequestInProgressElsewhereIsConflict() {
+        // Arrange: La clave está reclamada pero aún sin respuesta
+        when(idempotencyRecordReactiveRepository.insert(any(IdempotencyRecord.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key")));
+        when(idempotencyRecordReactiveRepository.findById("key-1")).thenReturn(Mono.just(
+                new IdempotencyRecord("key-1", "deposit:a:100", false, false, null, null, LocalDateTime.now())));
+
+        // Act & Assert
+        StepVerifier.create(idempotencyService.execute("key-1", "deposit:a:100", this::deposit))
+                .expectErrorSatisfies(error -> assertEquals(HttpStatus.CONFLICT,
+                        ((ResponseStatusException) error).getStatusCode()))
+                .verify();
+    }
+
+    @Test
+    void testExecute_FailureReleasesKey() {
+        // Arrange: La primera ejecución es rechazada por el carril antes de aplicar nada
+        givenClaimSucceeds();
+        when(idempotencyRecordReactiveRepository.deleteById("key-1")).thenReturn(Mono.empty());
+
+        // Act
+        StepVerifier.create(idempotencyService.execute("key-1", "deposit:a:100",
+                        () -> Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Account lane is full."))))
+                .expectError(ResponseStatusException.class)
+                .verify();
+
+        // Assert: El reintento vuelve a ejecutar la operación
+        StepVerifier.create(idempotencyService.execute("key-1", "deposit:a:100", this::deposit))
+                .assertNext(response -> assertTrue(response.isSuccess()))
+                .verifyComplete();
+
+        verify(idempotencyRecordReactiveRepository, times(1)).deleteById("key-1");
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void testExecute_FailureAfterWriteKeepsKey() {
+        // Arrange: La operación falla con un resultado incierto; el reintento encuentra la clave tomada
+        ArgumentCaptor<IdempotencyRecord> stored = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        when(idempotencyRecordReactiveRepository.insert(any(IdempotencyRecord.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)))
+                .thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key")));
+        when(idempotencyRecordReactiveRepository.save(stored.capture()))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(idempotencyRecordReactiveRepository.findById("key-1")).thenAnswer(invocation -> Mono.just(stored.getValue()));
+
+        // Act
+        StepVerifier.create(idempotencyService.execute("key-1", "deposit:a:100",
+                        () -> Mono.error(new IllegalStateException("commit result unknown"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        // Assert: La clave no se libera y el reintento recibe el fallo sin volver a ejecutar
+        StepVerifier.create(idempotencyService.execute("key-1", "deposit:a:100", this::deposit))
+                .assertNext(response -> {
+                    assertFalse(response.isSuccess());
+                    assertEquals(IdempotencyService.UNKNOWN_OUTCOME, response.getMessage());
+                })
+                .verifyComplete();
+
+        verify(idempotencyRecordReactiveRepository, never()).deleteById(anyString());
+        assertTrue(stored.getValue().isCompleted());
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void testExecute_CancelledCallerStillStoresResponse() {
+        // Arrange: La operación sigue en curso cuando el cliente se desconecta
+        givenClaimSucceeds();
+        Sinks.One<BankAccountResponseDTO> pending = Sinks.one();
+
+        // Act
+        StepVerifier.create(idempotencyService.execute("key-1", "deposit:a:100", () -> {
+                    executions.incrementAndGet();
+                    return pending.asMono();
+                }))
+                .expectSubscription()
+                .thenCancel()
+                .verify();
+        pending.tryEmitValue(BankAccountResponseDTO.buildSuccess("Deposit successful.", null));
+
+        // Assert: La respuesta se guarda igualmente, así que la clave no queda en curso
+        ArgumentCaptor<IdempotencyRecord> stored = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRecordReactiveRepository).save(stored.capture());
+        assertTrue(stored.getValue().isCompleted());
+        assertEquals("Deposit successful.", stored.getValue().getMessage());
+        assertEquals(1, executions.get());
+    }
+
+    private void givenClaimSucceeds() {
+        when(idempotencyRecordReactiveRepository.insert(any(IdempotencyRecord.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        lenient().when(idempotencyRecordReactiveRepository.save(any(IdempotencyRecord.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    }
+
+    private Mono<BankAccountResponseDTO> deposit() {
+        executions.incrementAndGet();
+        return Mono.just(BankAccountResponseDTO.buildSuccess("Deposit successful.", null));
+    }
+}
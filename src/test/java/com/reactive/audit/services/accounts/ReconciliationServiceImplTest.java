@@ -0,0 +1,173 @@
+package com.reactive.audit.services.accounts;
+
+import com.reactive.audit.config.AuditSchedulers;
+import com.reactive.audit.config.ReconciliationProperties;
+import com.reactive.audit.config.SchedulerProperties;
+import com.reactive.audit.model.BankAccount;
+import com.reactive.audit.model.ReconciliationBreak;
+import com.reactive.audit.model.ReconciliationBreak.Kind;
+import com.reactive.audit.model.ReconciliationCheckpoint;
+import com.reactive.audit.model.Transaction;
+import com.reactive.audit.repositories.BankAccountReactiveRepository;
+import com.reactive.audit.repositories.ReconciliationCheckpointReactiveRepository;
+import com.reactive.audit.repositories.TransactionReactiveRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReconciliationServiceImplTest {
+
+    @InjectMocks
+    private ReconciliationServiceImpl reconciliationService;
+
+    @Mock
+    private BankAccountReactiveRepository bankAccountReactiveRepository;
+
+    @Mock
+    private TransactionReactiveRepository transactionReactiveRepository;
+
+    @Mock
+    private ReconciliationCheckpointReactiveRepository reconciliationCheckpointReactiveRepository;
+
+    @Spy
+    private ReconciliationProperties reconciliationProperties = new ReconciliationProperties();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private AuditSchedulers auditSchedulers = new AuditSchedulers(new SchedulerProperties());
+
+    private final UUID accountId = UUID.randomUUID();
+    private final LocalDateTime day = LocalDateTime.of(2025, 1, 16, 9, 0);
+
+    @Test
+    void testReconcile_ConsistentChainHasNoBreaks() {
+        // Arrange: Cadena 0 -> 100 -> 70 que coincide con el saldo de la cuenta
+        givenAccount(70L, null);
+        Transaction last = transaction("WITHDRAWAL", 30L, 100L, 70L, day.plusHours(1));
+        when(transactionReactiveRepository.findChainAfter(eq(accountId), any(), any(), any()))
+                .thenReturn(Flux.just(transaction("DEPOSIT", 100L, 0L, 100L, day), last));
+
+        // Act & Assert
+        StepVerifier.create(reconciliationService.reconcile()).verifyComplete();
+
+        ArgumentCaptor<ReconciliationCheckpoint> checkpoint = ArgumentCaptor.forClass(ReconciliationCheckpoint.class);
+        verify(reconciliationCheckpointReactiveRepository).save(checkpoint.capture());
+        assertEquals(last.getId(), checkpoint.getValue().getLastTransactionId());
+        assertEquals(70L, checkpoint.getValue().getLastBalance());
+        assertEquals(2L, checkpoint.getValue().getVerifiedCount());
+    }
+
+    @Test
+    void testReconcile_ReportsGapMismatchAndNegativeBalance() {
+        // Arrange: El segundo registro no continúa la cadena y el tercero deja saldo negativo con un monto incorrecto
+        givenAccount(-10L, null);
+        when(transactionReactiveRepository.findChainAfter(eq(accountId), any(), any(), any()))
+                .thenReturn(Flux.just(
+                        transaction("DEPOSIT", 100L, 0L, 100L, day),
+                        transaction("WITHDRAWAL", 50L, 80L, 30L, day.plusHours(1)),
+                        transaction("WITHDRAWAL", 20L, 30L, -10L, day.plusHours(2))));
+
+        // Act & Assert
+        StepVerifier.create(reconciliationService.reconcile().map(ReconciliationBreak::getKind))
+                .expectNext(Kind.CHAIN_GAP, Kind.AMOUNT_MISMATCH, Kind.NEGATIVE_BALANCE)
+                .verifyComplete();
+
+        assertEquals(1.0, meterRegistry.counter("audit.reconciliation.breaks", "kind", "CHAIN_GAP").count());
+    }
+
+    @Test
+    void testReconcile_ResumesFromCheckpoint() {
+        // Arrange: Ya se verificó hasta un registro con saldo 100; el siguiente empieza en 90
+        UUID lastId = UUID.randomUUID();
+        givenAccount(60L, new ReconciliationCheckpoint(accountId, day, lastId, 100L, 5L, day));
+        when(transactionReactiveRepository.findChainAfter(eq(accountId), eq(day), eq(lastId), any()))
+                .thenReturn(Flux.just(transaction("WITHDRAWAL", 30L, 90L, 60L, day.plusHours(1))));
+
+        // Act & Assert
+        StepVerifier.create(reconciliationService.reconcile())
+                .assertNext(reconciliationBreak -> {
+                    assertEquals(Kind.CHAIN_GAP, reconciliationBreak.getKind());
+                    assertEquals(100L, reconciliationBreak.getExpected());
+                    assertEquals(90L, reconciliationBreak.getActual());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testReconcile_AccountBalanceMismatch() {
+        // Arrange: La cadena termina en 100 pero la cuenta tiene 120 y no hay registros más recientes
+        givenAccount(120L, null);
+        when(transactionReactiveRepository.findChainAfter(eq(accountId), any(), any(), any()))
+                .thenReturn(Flux.just(transaction("DEPOSIT", 100L, 0L, 100L, day)));
+        when(transactionReactiveRepository.existsByAccountIdAndTransactionDateGreaterThan(eq(accountId), any()))
+                .thenReturn(Mono.just(false));
+
+        // Act & Assert
+        StepVerifier.create(reconciliationService.reconcile().map(ReconciliationBreak::getKind))
+                .expectNext(Kind.BALANCE_MISMATCH)
+                .verifyComplete();
+    }
+
+    @Test
+    void testReconcile_AccountBalanceNotComparedWhileNewerTransactionsSettle() {
+        // Arrange: Hay registros posteriores al corte, así que la diferencia se revisa en la siguiente ejecución
+        givenAccount(120L, null);
+        when(transactionReactiveRepository.findChainAfter(eq(accountId), any(), any(), any()))
+                .thenReturn(Flux.just(transaction("DEPOSIT", 100L, 0L, 100L, day)));
+        when(transactionReactiveRepository.existsByAccountIdAndTransactionDateGreaterThan(eq(accountId), any()))
+                .thenReturn(Mono.just(true));
+
+        // Act & Assert
+        StepVerifier.create(reconciliationService.reconcile()).verifyComplete();
+    }
+
+    @Test
+    void testReconcile_SavesCheckpointPeriodically() {
+        // Arrange: Punto de control cada 2 registros
+        reconciliationProperties.setCheckpointEvery(2);
+        givenAccount(30L, null);
+        when(transactionReactiveRepository.findChainAfter(eq(accountId), any(), any(), any()))
+                .thenReturn(Flux.just(
+                        transaction("DEPOSIT", 10L, 0L, 10L, day),
+                        transaction("DEPOSIT", 10L, 10L, 20L, day.plusMinutes(1)),
+                        transaction("DEPOSIT", 10L, 20L, 30L, day.plusMinutes(2))));
+
+        // Act & Assert: Uno a mitad del flujo y otro al final
+        StepVerifier.create(reconciliationService.reconcile()).verifyComplete();
+
+        verify(reconciliationCheckpointReactiveRepository, times(2)).save(any(ReconciliationCheckpoint.class));
+    }
+
+    private void givenAccount(long balance, ReconciliationCheckpoint checkpoint) {
+        when(bankAccountReactiveRepository.findAll())
+                .thenReturn(Flux.just(new BankAccount(accountId, "123", balance, "SAVINGS")));
+        when(reconciliationCheckpointReactiveRepository.findById(accountId))
+                .thenReturn(Mono.justOrEmpty(checkpoint));
+        lenient().when(reconciliationCheckpointReactiveRepository.save(any(ReconciliationCheckpoint.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    }
+
+    private Transaction transaction(String type, long amount, long previous, long current, LocalDateTime date) {
+        return new Transaction(UUID.randomUUID(), accountId, "123", type, amount, previous, current, date);
+    }
+}
@@ -0,0 +1,339 @@
+package com.reactive.audit.services.accounts;
+
+import com.reactive.audit.DTO.req.TransferRequestDTO;
+import com.reactive.audit.config.AccountCacheProperties;
+import com.reactive.audit.config.AccountLaneProperties;
+import com.reactive.audit.config.ConsistencyProperties;
+import com.reactive.audit.config.RollingStatsProperties;
+import com.reactive.audit.config.TransferProperties;
+import com.reactive.audit.model.BalanceUpdate;
+import com.reactive.audit.model.BankAccount;
+import com.reactive.audit.model.Transaction;
+import com.reactive.audit.repositories.BankAccountReactiveRepository;
+import com.reactive.audit.repositories.TransactionReactiveRepository;
+import com.reactive.audit.services.ServiceMetrics;
+import com.reactive.audit.services.fraud.FraudRuleEngine;
+import com.reactive.audit.services.transactions.RollingStatsEngine;
+import com.reactive.audit.services.transactions.TransactionListener;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferServiceImplTest {
+
+    @InjectMocks
+    private TransferServiceImpl transferService;
+
+    @Mock
+    private BankAccountReactiveRepository bankAccountReactiveRepository;
+
+    @Mock
+    private TransactionReactiveRepository transactionReactiveRepository;
+
+    @Spy
+    private AccountCache accountCache = new AccountCache(new AccountCacheProperties(), new SimpleMeterRegistry());
+
+    @Spy
+    private ServiceMetrics serviceMetrics = new ServiceMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    private TransferProperties transferProperties = new TransferProperties();
+
+    @Spy
+    private List<TransactionListener> transactionListeners = new ArrayList<>();
+
+    @Spy
+    private AccountLaneExecutor accountLaneExecutor = new AccountLaneExecutor(new AccountLaneProperties(), new SimpleMeterRegistry());
+
+    @Mock
+    private FraudRuleEngine fraudRuleEngine;
+
+    @Spy
+    private RollingStatsEngine rollingStatsEngine = new RollingStatsEngine(new RollingStatsProperties(), new SimpleMeterRegistry());
+
+    @Spy
+    private ConsistencyProperties consistencyProperties = new ConsistencyProperties();
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    @Mock
+    private AuditOutbox auditOutbox;
+
+    private final UUID sourceId = UUID.randomUUID();
+    private final UUID targetId = UUID.randomUUID();
+
+    @Test
+    void testTransferBatch_Success() {
+        // Arrange: Débito y crédito atómicos sobre cuentas existentes
+        when(bankAccountReactiveRepository.withdrawBalance(sourceId, 100L))
+                .thenReturn(Mono.just(update(sourceId, 1000L, 900L)));
+        when(bankAccountReactiveRepository.depositBalance(targetId, 100L))
+                .thenReturn(Mono.just(update(targetId, 50L, 150L)));
+        when(transactionReactiveRepository.insert(ArgumentMatchers.<Transaction>anyList()))
+                .thenAnswer(invocation -> Flux.fromIterable(invocation.<List<Transaction>>getArgument(0)));
+
+        // Act & Assert
+        StepVerifier.create(transferService.transferBatch(Flux.just(transfer(sourceId, targetId, 100L))))
+                .assertNext(result -> {
+                    assertTrue(result.isSuccess());
+                    assertEquals(0, result.getIndex());
+                    assertEquals(900L, result.getSourceBalance());
+                    assertEquals(150L, result.getTargetBalance());
+                })
+                .verifyComplete();
+
+        // Ambos registros de auditoría se escriben en un solo insert masivo
+        ArgumentCaptor<List<Transaction>> records = ArgumentCaptor.forClass(List.class);
+        verify(transactionReactiveRepository, times(1)).insert(records.capture());
+        assertEquals(List.of("TRANSFER_OUT", "TRANSFER_IN"), records.getValue().stream().map(Transaction::getType).toList());
+    }
+
+    @Test
+    void testTransferBatch_InsufficientFunds() {
+        // Arrange: La guarda del débito no se cumple
+        when(bankAccountReactiveRepository.withdrawBalance(sourceId, 100L)).thenReturn(Mono.empty());
+        when(bankAccountReactiveRepository.existsById(sourceId)).thenReturn(Mono.just(true));
+
+        // Act & Assert
+        StepVerifier.create(transferService.transferBatch(Flux.just(transfer(sourceId, targetId, 100L))))
+                .assertNext(result -> {
+                    assertFalse(result.isSuccess());
+                    assertEquals("Insufficient funds.", result.getMessage());
+                })
+                .verifyComplete();
+
+        verify(bankAccountReactiveRepository, never()).depositBalance(any(UUID.class), anyLong());
+        verifyNoInteractions(transactionReactiveRepository);
+    }
+
+    @Test
+    void testTransferBatch_MissingTargetIsCompensated() {
+        // Arrange: El débito se aplica pero la cuenta destino no existe
+        when(bankAccountReactiveRepository.withdrawBalance(sourceId, 100L))
+                .thenReturn(Mono.just(update(sourceId, 1000L, 900L)));
+        when(bankAccountReactiveRepository.depositBalance(targetId, 100L)).thenReturn(Mono.empty());
+        when(bankAccountReactiveRepository.depositBalance(sourceId, 100L))
+                .thenReturn(Mono.just(update(sourceId, 900L, 1000L)));
+        when(transactionReactiveRepository.insert(ArgumentMatchers.<Transaction>anyList()))
+                .thenAnswer(invocation -> Flux.fromIterable(invocation.<List<Transaction>>getArgument(0)));
+
+        // Act & Assert: El saldo de origen queda restaurado
+        StepVerifier.create(transferService.transferBatch(Flux.just(transfer(sourceId, targetId, 100L))))
+                .assertNext(result -> {
+                    assertFalse(result.isSuccess());
+                    assertEquals("Target account not found.", result.getMessage());
+                    assertEquals(1000L, result.getSourceBalance());
+                })
+                .verifyComplete();
+
+        // El débito y su reverso quedan en la auditoría
+        ArgumentCaptor<List<Transaction>> records = ArgumentCaptor.forClass(List.class);
+        verify(transactionReactiveRepository).insert(records.capture());
+        assertEquals(List.of("TRANSFER_OUT", "TRANSFER_REVERSAL"), records.getValue().stream().map(Transaction::getType).toList());
+    }
+
+    @Test
+    void testTransferBatch_FailedReversalKeepsTheDebitAudited() {
+        // Arrange: El crédito falla y el reverso del débito también
+        when(bankAccountReactiveRepository.withdrawBalance(sourceId, 100L))
+                .thenReturn(Mono.just(update(sourceId, 1000L, 900L)));
+        when(bankAccountReactiveRepository.depositBalance(targetId, 100L)).thenReturn(Mono.error(new RuntimeException("credit failed")));
+        when(bankAccountReactiveRepository.depositBalance(sourceId, 100L)).thenReturn(Mono.error(new RuntimeException("reversal failed")));
+        when(transactionReactiveRepository.insert(ArgumentMatchers.<Transaction>anyList()))
+                .thenAnswer(invocation -> Flux.fromIterable(invocation.<List<Transaction>>getArgument(0)));
+
+        // Act & Assert
+        StepVerifier.create(transferService.transferBatch(Flux.just(transfer(sourceId, targetId, 100L))))
+                .assertNext(result -> {
+                    assertFalse(result.isSuccess());
+                    assertEquals("Transfer failed and the debit could not be reversed.", result.getMessage());
+                    assertEquals(900L, result.getSourceBalance());
+                })
+                .verifyComplete();
+
+        // El débito queda auditado y se levanta una alerta para revisión
+        ArgumentCaptor<List<Transaction>> records = ArgumentCaptor.forClass(List.class);
+        verify(transactionReactiveRepository).insert(records.capture());
+        assertEquals(List.of("TRANSFER_OUT"), records.getValue().stream().map(Transaction::getType).toList());
+        verify(fraudRuleEngine).raise(eq(sourceId), eq("1234567890"), eq("TRANSFER_OUT"), eq(100L),
+                eq("TRANSFER_REVERSAL_FAILED"), anyString());
+    }
+
+    @Test
+    void testTransferBatch_FailedBulkInsertFallsBackPerRecord() {
+        // Arrange: El insert masivo falla; uno a uno solo se guarda el TRANSFER_OUT
+        when(bankAccountReactiveRepository.withdrawBalance(sourceId, 100L))
+                .thenReturn(Mono.just(update(sourceId, 1000L, 900L)));
+        when(bankAccountReactiveRepository.depositBalance(targetId, 100L))
+                .thenReturn(Mono.just(update(targetId, 50L, 150L)));
+        when(transactionReactiveRepository.insert(ArgumentMatchers.<Transaction>anyList()))
+                .thenReturn(Flux.error(new RuntimeException("bulk insert failed")));
+        when(transactionReactiveRepository.insert(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction record = invocation.getArgument(0);
+            return "TRANSFER_IN".equals(record.getType())
+                    ? Mono.error(new RuntimeException("insert failed"))
+                    : Mono.just(record);
+        });
+
+        // Act & Assert: El lote no se interrumpe y el resultado indica la auditoría incompleta
+        StepVerifier.create(transferService.transferBatch(Flux.just(transfer(sourceId, targetId, 100L))))
+                .assertNext(result -> {
+                    assertTrue(result.isSuccess());
+                    assertEquals("Transfer applied but its audit records could not be stored.", result.getMessage());
+                    assertEquals(900L, result.getSourceBalance());
+                    assertEquals(150L, result.getTargetBalance());
+                })
+                .verifyComplete();
+
+        verify(transactionReactiveRepository, times(2)).insert(any(Transaction.class));
+    }
+
+    @Test
+    void testTransferBatch_RecordsAreDatedInBalanceOrder() {
+        // Arrange
+        when(bankAccountReactiveRepository.withdrawBalance(sourceId, 100L))
+                .thenReturn(Mono.just(update(sourceId, 1000L, 900L)));
+        when(bankAccountReactiveRepository.depositBalance(targetId, 100L))
+                .thenReturn(Mono.delay(Duration.ofMillis(20)).thenReturn(update(targetId, 50L, 150L)));
+        when(transactionReactiveRepository.insert(ArgumentMatchers.<Transaction>anyList()))
+                .thenAnswer(invocation -> Flux.fromIterable(invocation.<List<Transaction>>getArgument(0)));
+
+        // Act
+        StepVerifier.create(transferService.transferBatch(Flux.just(transfer(sourceId, targetId, 100L))))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        // Assert: Cada registro lleva la fecha en que se movió su saldo, no la del insert
+        ArgumentCaptor<List<Transaction>> records = ArgumentCaptor.forClass(List.class);
+        verify(transactionReactiveRepository).insert(records.capture());
+        Transaction debit = records.getValue().get(0);
+        Transaction credit = records.getValue().get(1);
+        assertTrue(Duration.between(debit.getTransactionDate(), credit.getTransactionDate()).toMillis() >= 20);
+    }
+
+    @Test
+    void testTransferBatch_TransactionModeCommitsEachLegWithItsRecord() {
+        // Arrange: Modo transaccional; cada tramo y su registro van en la misma transacción
+        consistencyProperties.setMode(ConsistencyProperties.Mode.TRANSACTION);
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(bankAccountReactiveRepository.withdrawBalance(sourceId, 100L))
+                .thenReturn(Mono.just(update(sourceId, 1000L, 900L)));
+        when(bankAccountReactiveRepository.depositBalance(targetId, 100L))
+                .thenReturn(Mono.just(update(targetId, 50L, 150L)));
+        when(transactionReactiveRepository.insert(any(Transaction.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        // Act & Assert
+        StepVerifier.create(transferService.transferBatch(Flux.just(transfer(sourceId, targetId, 100L))))
+                .assertNext(result -> assertTrue(result.isSuccess()))
+                .verifyComplete();
+
+        // Un registro por tramo dentro de su transacción, sin insert masivo posterior
+        ArgumentCaptor<Transaction> records = ArgumentCaptor.forClass(Transaction.class);
+        verify(transactionalOperator, times(2)).transactional(any(Mono.class));
+        verify(transactionReactiveRepository, times(2)).insert(records.capture());
+        assertEquals(List.of("TRANSFER_OUT", "TRANSFER_IN"), records.getAllValues().stream().map(Transaction::getType).toList());
+        verify(transactionReactiveRepository, never()).insert(ArgumentMatchers.<Transaction>anyList());
+    }
+
+    @Test
+    void testTransferBatch_OutboxModeWritesEntriesWithTheBalance() {
+        // Arrange: Modo outbox; la entrada de auditoría viaja en la misma actualización de cada cuenta
+        consistencyProperties.setMode(ConsistencyProperties.Mode.OUTBOX);
+        when(bankAccountReactiveRepository.withdrawBalanceWithOutbox(sourceId, 100L, "TRANSFER_OUT"))
+                .thenReturn(Mono.just(update(sourceId, 1000L, 900L)));
+        when(bankAccountReactiveRepository.depositBalanceWithOutbox(targetId, 100L, "TRANSFER_IN"))
+                .thenReturn(Mono.just(update(targetId, 50L, 150L)));
+
+        // Act & Assert
+        StepVerifier.create(transferService.transferBatch(Flux.just(transfer(sourceId, targetId, 100L))))
+                .assertNext(result -> {
+                    assertTrue(result.isSuccess());
+                    assertEquals(900L, result.getSourceBalance());
+                    assertEquals(150L, result.getTargetBalance());
+                })
+                .verifyComplete();
+
+        // Los registros se copian después desde el outbox de cada cuenta
+        verify(auditOutbox).schedule(sourceId);
+        verify(auditOutbox).schedule(targetId);
+        verifyNoInteractions(transactionReactiveRepository);
+        verify(bankAccountReactiveRepository, never()).withdrawBalance(any(UUID.class), anyLong());
+    }
+
+    @Test
+    void testTransferBatch_InvalidItemsDoNotStopTheBatch() {
+        // Act & Assert: Cada elemento inválido produce su propio resultado
+        StepVerifier.create(transferService.transferBatch(Flux.just(
+                        transfer(sourceId, targetId, -5L),
+                        transfer(sourceId, sourceId, 10L))).collectList())
+                .assertNext(results -> {
+                    assertEquals(2, results.size());
+                    assertTrue(results.stream().noneMatch(result -> result.isSuccess()));
+                })
+                .verifyComplete();
+
+        verifyNoInteractions(bankAccountReactiveRepository, transactionReactiveRepository);
+    }
+
+    @Test
+    void testTransferBatch_SameSourceKeepsRequestOrder() {
+        // Arrange: El primer débito es lento; los siguientes no deben adelantarse
+        List<Long> debitOrder = new CopyOnWriteArrayList<>();
+        when(bankAccountReactiveRepository.withdrawBalance(eq(sourceId), anyLong())).thenAnswer(invocation -> {
+            long amount = invocation.<Long>getArgument(1);
+            Duration latency = amount == 1L ? Duration.ofMillis(100) : Duration.ZERO;
+            return Mono.delay(latency)
+                    .doOnNext(tick -> debitOrder.add(amount))
+                    .map(tick -> update(sourceId, 1000L, 1000L - amount));
+        });
+        when(bankAccountReactiveRepository.depositBalance(eq(targetId), anyLong()))
+                .thenAnswer(invocation -> Mono.just(update(targetId, 0L, invocation.<Long>getArgument(1))));
+        when(transactionReactiveRepository.insert(ArgumentMatchers.<Transaction>anyList()))
+                .thenAnswer(invocation -> Flux.fromIterable(invocation.<List<Transaction>>getArgument(0)));
+
+        // Act
+        StepVerifier.create(transferService.transferBatch(Flux.just(
+                        transfer(sourceId, targetId, 1L),
+                        transfer(sourceId, targetId, 2L),
+                        transfer(sourceId, targetId, 3L))))
+                .expectNextCount(3)
+                .verifyComplete();
+
+        // Assert
+        assertEquals(List.of(1L, 2L, 3L), debitOrder);
+    }
+
+    private static TransferRequestDTO transfer(UUID source, UUID target, long amount) {
+        return TransferRequestDTO.builder()
+                .sourceAccountId(source)
+                .targetAccountId(target)
+                .amount(amount)
+                .build();
+    }
+
+    private static BalanceUpdate update(UUID accountId, long previousBalance, long currentBalance) {
+        return new BalanceUpdate(new BankAccount(accountId, "1234567890", currentBalance, "SAVINGS"), previousBalance, currentBalance);
+    }
+}
@@ -0,0 +1,197 @@
+package com.reactive.audit.services.fraud;
+
+import com.reactive.audit.DTO.req.FraudRulesDTO;
+import com.reactive.audit.config.FraudProperties;
+import com.reactive.audit.model.FraudAlert;
+import com.reactive.audit.repositories.FraudAlertReactiveRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FraudRuleEngineTest {
+
+    private static final String NUMBER_ACCOUNT = "1234567890";
+
+    @Mock
+    private FraudAlertReactiveRepository fraudAlertReactiveRepository;
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UUID accountId = UUID.randomUUID();
+    private FraudRuleEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(fraudAlertReactiveRepository.save(any(FraudAlert.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        FraudProperties properties = new FraudProperties();
+        properties.getRules().setMaxOperations(3);
+        properties.getRules().setVelocityWindow(Duration.ofSeconds(10));
+        engine = new FraudRuleEngine(
+                List.of(new VelocityRule(), new AmountSpikeRule(), new WithdrawAfterDepositRule()),
+                fraudAlertReactiveRepository, properties, meterRegistry, now::get);
+    }
+
+    @Test
+    void testEvaluate_VelocityLimitPerNumberAccount() {
+        // Arrange: Tres operaciones dentro de la ventana están permitidas
+        for (int i = 0; i < 3; i++) {
+            assertTrue(engine.evaluate("DEPOSIT", accountId, NUMBER_ACCOUNT, 100L).isEmpty());
+            now.addAndGet(1_000L);
+        }
+
+        // Act: La cuarta supera el límite; otra cuenta no se ve afectada
+        List<FraudAlert> alerts = engine.evaluate("DEPOSIT", accountId, NUMBER_ACCOUNT, 100L);
+        List<FraudAlert> otherAccount = engine.evaluate("DEPOSIT", UUID.randomUUID(), "9999999999", 100L);
+
+        // Assert
+        assertEquals(1, alerts.size());
+        assertEquals("velocity", alerts.get(0).getRule());
+        assertTrue(otherAccount.isEmpty());
+        verify(fraudAlertReactiveRepository, times(1)).save(alerts.get(0));
+        assertEquals(1.0, meterRegistry.get("audit.fraud.alerts").tag("rule", "velocity").counter().count());
+
+        // Act & Assert: Pasada la ventana vuelve a estar permitida
+        now.addAndGet(10_000L);
+        assertTrue(engine.evaluate("DEPOSIT", accountId, NUMBER_ACCOUNT, 100L).isEmpty());
+    }
+
+    @Test
+    void testEvaluate_AmountAboveRollingMean() {
+        // Arrange: Historial de montos pequeños, espaciados para no activar la velocidad
+        for (int i = 0; i < 5; i++) {
+            engine.evaluate("DEPOSIT", accountId, NUMBER_ACCOUNT, 1_000L);
+            now.addAndGet(60_000L);
+        }
+
+        // Act
+        List<FraudAlert> normal = engine.evaluate("DEPOSIT", accountId, NUMBER_ACCOUNT, 4_000L);
+        now.addAndGet(60_000L);
+        List<FraudAlert> spike = engine.evaluate("DEPOSIT", accountId, NUMBER_ACCOUNT, 50_000L);
+
+        // Assert
+        assertTrue(normal.isEmpty());
+        assertEquals(List.of("amount_spike"), spike.stream().map(FraudAlert::getRule).toList());
+        assertEquals(50_000L, spike.get(0).getAmount());
+    }
+
+    @Test
+    void testEvaluate_RapidWithdrawAfterDeposit() {
+        // Arrange
+        engine.evaluate("DEPOSIT", accountId, NUMBER_ACCOUNT, 10_000L);
+        now.addAndGet(30_000L);
+
+        // Act: Retira casi todo el depósito a los 30 segundos, y luego un monto pequeño
+        List<FraudAlert> alerts = engine.evaluate("WITHDRAWAL", accountId, NUMBER_ACCOUNT, 9_500L);
+        List<FraudAlert> small = engine.evaluate("WITHDRAWAL", accountId, NUMBER_ACCOUNT, 100L);
+
+        // Assert
+        assertEquals("withdraw_after_deposit", alerts.get(0).getRule());
+        assertEquals(accountId, alerts.get(0).getAccountId());
+        assertTrue(small.isEmpty());
+    }
+
+    @Test
+    void testUpdateRules_AppliesToNextOperationAndPublishesAlerts() {
+        // Arrange: Un suscriptor del flujo de alertas
+        StepVerifier.Step<FraudAlert> subscriber = StepVerifier.create(engine.alerts().take(1));
+
+        // Act: Se desactiva la regla de velocidad y se baja el umbral de retiro
+        FraudRulesDTO rules = engine.getRules();
+        rules.setDisabledRules(Set.of("velocity"));
+        rules.setWithdrawRatio(0.5);
+        engine.updateRules(rules);
+
+        // Assert
+        subscriber
+                .then(() -> {
+                    for (int i = 0; i < 5; i++) {
+                        assertTrue(engine.evaluate("DEPOSIT", accountId, NUMBER_ACCOUNT, 1_000L).isEmpty());
+                    }
+                    engine.evaluate("WITHDRAWAL", accountId, NUMBER_ACCOUNT, 600L);
+                })
+                .assertNext(alert -> assertEquals("withdraw_after_deposit", alert.getRule()))
+                .verifyComplete();
+        assertEquals(Set.of("velocity"), engine.getRules().getDisabledRules());
+    }
+
+    @Test
+    void testUpdateRules_RejectsInvalidRules() {
+        // Arrange
+        FraudRulesDTO rules = engine.getRules();
+        rules.setWithdrawRatio(1.5);
+
+        // Act & Assert: Las reglas vigentes no cambian
+        ResponseStatusException error = assertThrows(ResponseStatusException.class, () -> engine.updateRules(rules));
+        assertEquals(HttpStatus.BAD_REQUEST, error.getStatusCode());
+        assertEquals(0.9, engine.getRules().getWithdrawRatio());
+    }
+
+    @Test
+    void testEvaluate_DisabledEngineRecordsNothing() {
+        // Arrange
+        FraudRulesDTO rules = engine.getRules();
+        rules.setEnabled(false);
+        engine.updateRules(rules);
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            assertTrue(engine.evaluate("DEPOSIT", accountId, NUMBER_ACCOUNT, 100L).isEmpty());
+        }
+
+        // Assert
+        verifyNoInteractions(fraudAlertReactiveRepository);
+    }
+
+    @Test
+    void testRaise_ConcurrentAlertsAreAllPublished() throws InterruptedException {
+        // Arrange: Un suscriptor en vivo y varios hilos publicando a la vez
+        int threads = 8;
+        int alertsPerThread = 500;
+        AtomicLong received = new AtomicLong();
+        Disposable subscription = engine.alerts().subscribe(alert -> received.incrementAndGet());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // Act
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < alertsPerThread; i++) {
+                    engine.raise(accountId, NUMBER_ACCOUNT, "WITHDRAWAL", 100L, "manual", "concurrent");
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Assert: Ninguna alerta se pierde por emisiones concurrentes
+        assertEquals(threads * alertsPerThread, received.get());
+        subscription.dispose();
+    }
+}
@@ -0,0 +1,142 @@
+package com.reactive.audit.services.transactions;
+
+import com.reactive.audit.DTO.res.RollingStatsDTO;
+import com.reactive.audit.config.RollingStatsProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollingStatsEngineTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RollingStatsEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        RollingStatsProperties properties = new RollingStatsProperties();
+        properties.setWindow(Duration.ofSeconds(10));
+        properties.setBucket(Duration.ofSeconds(1));
+        engine = new RollingStatsEngine(properties, meterRegistry, now::get);
+    }
+
+    @Test
+    void testSnapshot_AggregatesCreditsAndDebits() {
+        // Arrange
+        UUID accountId = UUID.randomUUID();
+
+        // Act
+        engine.record(accountId, "DEPOSIT", 1_000L);
+        engine.record(accountId, "TRANSFER_IN", 3_000L);
+        engine.record(accountId, "WITHDRAWAL", 2_000L);
+
+        // Assert
+        RollingStatsDTO stats = engine.snapshot(accountId);
+        assertEquals(accountId, stats.getAccountId());
+        assertEquals(10, stats.getWindowSeconds());
+        assertEquals(2, stats.getDeposits());
+        assertEquals(1, stats.getWithdrawals());
+        assertEquals(0.2, stats.getDepositsPerSecond(), 1e-9);
+        assertEquals(0.1, stats.getWithdrawalsPerSecond(), 1e-9);
+        assertEquals(2_000.0, stats.getAverageAmount(), 1e-9);
+        assertEquals(3_000L, stats.getMaxAmount());
+        assertEquals(1.0, meterRegistry.get("audit.stats.accounts").gauge().value());
+    }
+
+    @Test
+    void testSnapshot_SeparatesAccountsFromGlobal() {
+        // Arrange
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        // Act
+        engine.record(first, "DEPOSIT", 100L);
+        engine.record(second, "WITHDRAWAL", 500L);
+
+        // Assert
+        assertEquals(1, engine.snapshot(first).getDeposits());
+        assertEquals(0, engine.snapshot(first).getWithdrawals());
+        assertEquals(1, engine.snapshot(second).getWithdrawals());
+        RollingStatsDTO global = engine.snapshot(null);
+        assertNull(global.getAccountId());
+        assertEquals(1, global.getDeposits());
+        assertEquals(1, global.getWithdrawals());
+        assertEquals(500L, global.getMaxAmount());
+        assertEquals(0, engine.snapshot(UUID.randomUUID()).getDeposits());
+    }
+
+    @Test
+    void testSnapshot_OldBucketsLeaveTheWindow() {
+        // Arrange: Un depósito grande y, 6 segundos después, uno pequeño
+        UUID accountId = UUID.randomUUID();
+        engine.record(accountId, "DEPOSIT", 9_000L);
+        now.addAndGet(6_000L);
+        engine.record(accountId, "DEPOSIT", 100L);
+
+        // Act & Assert: Ambos siguen dentro de la ventana de 10 segundos
+        assertEquals(2, engine.snapshot(accountId).getDeposits());
+
+        // Act & Assert: El primero sale de la ventana y deja de contar para el máximo
+        now.addAndGet(5_000L);
+        RollingStatsDTO stats = engine.snapshot(accountId);
+        assertEquals(1, stats.getDeposits());
+        assertEquals(100L, stats.getMaxAmount());
+
+        // Act & Assert: Un evento que reutiliza la ranura del primero no hereda sus contadores
+        now.addAndGet(9_000L);
+        engine.record(accountId, "WITHDRAWAL", 50L);
+        stats = engine.snapshot(accountId);
+        assertEquals(0, stats.getDeposits());
+        assertEquals(1, stats.getWithdrawals());
+        assertEquals(50L, stats.getMaxAmount());
+    }
+
+    @Test
+    void testRecord_ConcurrentWritersLoseNoEvents() throws InterruptedException {
+        // Arrange: Varios hilos registran en la misma cuenta mientras el reloj avanza
+        UUID accountId = UUID.randomUUID();
+        int threads = 8;
+        int perThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // Act
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    if (i % 2_500 == 0) {
+                        now.addAndGet(100L);
+                    }
+                    engine.record(accountId, i % 2 == 0 ? "DEPOSIT" : "WITHDRAWAL", i);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Assert: El reloj avanzó menos que la ventana, así que no se pierde ningún evento
+        RollingStatsDTO stats = engine.snapshot(accountId);
+        assertEquals(threads * perThread / 2, stats.getDeposits());
+        assertEquals(threads * perThread / 2, stats.getWithdrawals());
+        assertEquals(perThread - 1, stats.getMaxAmount());
+        assertEquals(stats.getDeposits() + stats.getWithdrawals(), engine.snapshot(null).getDeposits()
+                + engine.snapshot(null).getWithdrawals());
+    }
+}
@@ -0,0 +1,105 @@
+package com.reactive.audit.services.transactions;
+
+import com.reactive.audit.DTO.res.BalanceDistributionDTO;
+import com.reactive.audit.DTO.res.DailyVolumeDTO;
+import com.reactive.audit.DTO.res.TypeTotalsDTO;
+import com.reactive.audit.config.AnalyticsProperties;
+import com.reactive.audit.repositories.BankAccountReactiveRepository;
+import com.reactive.audit.repositories.TransactionReactiveRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionAnalyticsServiceImplTest {
+
+    @InjectMocks
+    private TransactionAnalyticsServiceImpl transactionAnalyticsService;
+
+    @Mock
+    private TransactionReactiveRepository transactionReactiveRepository;
+
+    @Mock
+    private BankAccountReactiveRepository bankAccountReactiveRepository;
+
+    @Spy
+    private AnalyticsResultCache analyticsResultCache = new AnalyticsResultCache(new AnalyticsProperties(), new SimpleMeterRegistry());
+
+    private final LocalDateTime from = LocalDateTime.of(2025, 1, 16, 0, 0);
+    private final LocalDateTime to = LocalDateTime.of(2025, 1, 17, 0, 0);
+
+    @Test
+    void testGetTotalsByType_RepeatedPollsShareOneAggregation() {
+        // Arrange: Contamos cuántas veces se ejecuta realmente la agregación
+        AtomicInteger aggregations = new AtomicInteger();
+        when(transactionReactiveRepository.totalsByType(from, to)).thenReturn(Flux.defer(() -> {
+            aggregations.incrementAndGet();
+            return Flux.just(new TypeTotalsDTO("DEPOSIT", 2L, 400L, 200.0));
+        }));
+
+        // Act: Un panel consulta lo mismo varias veces seguidas
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(transactionAnalyticsService.getTotalsByType(from, to))
+                    .expectNextMatches(totals -> totals.getTotal() == 400L)
+                    .verifyComplete();
+        }
+
+        // Assert
+        assertEquals(1, aggregations.get());
+    }
+
+    @Test
+    void testGetDailyVolume_DifferentRangesAreCachedSeparately() {
+        // Arrange
+        when(transactionReactiveRepository.dailyVolume(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Flux.just(new DailyVolumeDTO("2025-01-16", 1L, 100L, 100L, 0L)));
+
+        // Act
+        transactionAnalyticsService.getDailyVolume(from, to).blockLast();
+        transactionAnalyticsService.getDailyVolume(from, to.plusDays(1)).blockLast();
+
+        // Assert
+        verify(transactionReactiveRepository, times(1)).dailyVolume(from, to);
+        verify(transactionReactiveRepository, times(1)).dailyVolume(from, to.plusDays(1));
+    }
+
+    @Test
+    void testGetBalanceDistribution_FailureIsNotCached() {
+        // Arrange: La primera agregación falla y la segunda responde
+        when(bankAccountReactiveRepository.balanceDistribution())
+                .thenReturn(Flux.error(new IllegalStateException("timeout")))
+                .thenReturn(Flux.just(new BalanceDistributionDTO("SAVINGS", 1L, 100L, 100.0, 100L, 100L)));
+
+        // Act & Assert
+        StepVerifier.create(transactionAnalyticsService.getBalanceDistribution())
+                .expectError(IllegalStateException.class)
+                .verify();
+        StepVerifier.create(transactionAnalyticsService.getBalanceDistribution())
+                .expectNextMatches(distribution -> "SAVINGS".equals(distribution.getType()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetTotalsByType_InvalidRange() {
+        // Act & Assert
+        StepVerifier.create(transactionAnalyticsService.getTotalsByType(to, from))
+                .expectError(ResponseStatusException.class)
+                .verify();
+
+        verifyNoInteractions(transactionReactiveRepository);
+    }
+}
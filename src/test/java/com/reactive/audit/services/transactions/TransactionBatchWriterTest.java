@@ -0,0 +1,141 @@
+package com.reactive.audit.services.transactions;
+
+import com.reactive.audit.config.TransactionBatchProperties;
+import com.reactive.audit.model.Transaction;
+import com.reactive.audit.repositories.TransactionReactiveRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionBatchWriterTest {
+
+    @Mock
+    private TransactionReactiveRepository transactionReactiveRepository;
+
+    private TransactionBatchProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new TransactionBatchProperties();
+        properties.setEnabled(true);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testSubmit_FlushesWhenBatchIsFull() {
+        // Arrange: Lotes de 5 con un tiempo de espera largo, solo el tamaño dispara el flush
+        properties.setMaxBatchSize(5);
+        properties.setMaxWait(Duration.ofSeconds(30));
+        when(transactionReactiveRepository.insert(anyIterable()))
+                .thenAnswer(invocation -> Flux.fromIterable(invocation.<Iterable<Transaction>>getArgument(0)));
+
+        TransactionBatchWriter writer = new TransactionBatchWriter(transactionReactiveRepository, properties, meterRegistry);
+        writer.start();
+
+        // Act: 10 operaciones concurrentes
+        List<Transaction> saved = Flux.range(0, 10)
+                .flatMap(i -> writer.submit(newTransaction()).subscribeOn(Schedulers.parallel()))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        // Assert: Cada llamador recibe su transacción y solo hubo dos inserciones
+        assertEquals(10, saved.size());
+        verify(transactionReactiveRepository, times(2)).insert(anyIterable());
+        assertEquals(2, meterRegistry.get("audit.transactions.batch.size").summary().count());
+        assertEquals(10.0, meterRegistry.get("audit.transactions.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    void testSubmit_FlushesWhenMaxWaitElapses() {
+        // Arrange: Un lote grande que nunca se llena
+        properties.setMaxBatchSize(100);
+        properties.setMaxWait(Duration.ofMillis(50));
+        when(transactionReactiveRepository.insert(anyIterable()))
+                .thenAnswer(invocation -> Flux.fromIterable(invocation.<Iterable<Transaction>>getArgument(0)));
+
+        TransactionBatchWriter writer = new TransactionBatchWriter(transactionReactiveRepository, properties, meterRegistry);
+        writer.start();
+        Transaction transaction = newTransaction();
+
+        // Act & Assert: El Mono completa solo después de que el lote se confirma
+        StepVerifier.create(writer.submit(transaction))
+                .expectNext(transaction)
+                .verifyComplete();
+
+        verify(transactionReactiveRepository, times(1)).insert(anyIterable());
+    }
+
+    @Test
+    void testSubmit_PropagatesFlushFailureToEveryCaller() {
+        // Arrange: La inserción del lote falla
+        properties.setMaxBatchSize(2);
+        properties.setMaxWait(Duration.ofSeconds(30));
+        when(transactionReactiveRepository.insert(anyIterable()))
+                .thenReturn(Flux.error(new RuntimeException("Mongo unavailable")));
+
+        TransactionBatchWriter writer = new TransactionBatchWriter(transactionReactiveRepository, properties, meterRegistry);
+        writer.start();
+
+        // Act
+        Mono<Transaction> first = writer.submit(newTransaction());
+        Mono<Transaction> second = writer.submit(newTransaction());
+
+        // Assert: Ambos llamadores reciben el error
+        StepVerifier.create(Flux.merge(first, second))
+                .expectErrorMessage("Mongo unavailable")
+                .verify(Duration.ofSeconds(5));
+        assertEquals(1.0, meterRegistry.get("audit.transactions.batch.failures").counter().count());
+    }
+
+    @Test
+    void testSubmit_RejectsWhenBufferIsFull() {
+        // Arrange: Un buffer pequeño y una inserción que nunca termina
+        properties.setMaxBatchSize(2);
+        properties.setMaxWait(Duration.ofSeconds(30));
+        properties.setBufferCapacity(4);
+        properties.setFlushConcurrency(1);
+        properties.setMaxOfferRetries(1);
+        properties.setOfferBackoff(Duration.ofMillis(1));
+        when(transactionReactiveRepository.insert(anyIterable())).thenReturn(Flux.never());
+
+        TransactionBatchWriter writer = new TransactionBatchWriter(transactionReactiveRepository, properties, meterRegistry);
+        writer.start();
+
+        // Act: Se envían más transacciones de las que caben en el buffer
+        Long rejected = Flux.range(0, 50)
+                .flatMap(i -> writer.submit(newTransaction())
+                        .map(transaction -> false)
+                        .onErrorResume(Exceptions::isOverflow, error -> Mono.just(true))
+                        .timeout(Duration.ofMillis(500), Mono.just(false)))
+                .filter(Boolean::booleanValue)
+                .count()
+                .block(Duration.ofSeconds(5));
+
+        // Assert: El buffer aplica contrapresión rechazando el excedente
+        assertTrue(rejected > 0);
+        assertTrue(meterRegistry.get("audit.transactions.batch.overflows").counter().count() > 0);
+    }
+
+    private static Transaction newTransaction() {
+        return new Transaction(UUID.randomUUID(), UUID.randomUUID(), "1234567890", "DEPOSIT", 500L, 1000L, 1500L, LocalDateTime.now());
+    }
+}
@@ -1,19 +1,35 @@
 package com.reactive.audit.services.transactions;
 
+import com.reactive.audit.config.RollingStatsProperties;
+import com.reactive.audit.config.TransactionStreamProperties;
 import com.reactive.audit.DTO.req.TransactionRequestDTO;
+import com.reactive.audit.DTO.res.CursorPageDTO;
+import com.reactive.audit.DTO.res.RollingStatsDTO;
+import com.reactive.audit.DTO.res.TransactionHistoryDTO;
 import com.reactive.audit.DTO.res.TransactionResponseDTO;
 import com.reactive.audit.model.Transaction;
+import com.reactive.audit.repositories.InMemoryTransactionChangeStream;
 import com.reactive.audit.repositories.TransactionReactiveRepository;
+import com.reactive.audit.services.ServiceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,31 +44,125 @@ class TransactionServiceImplTest {
     @Mock
     private TransactionReactiveRepository transactionReactiveRepository;
 
+    @Mock
+    private TransactionBatchWriter transactionBatchWriter;
+
+    private final InMemoryTransactionChangeStream transactionChangeStream = new InMemoryTransactionChangeStream();
+
+    @Spy
+    private TransactionStreamHub transactionStreamHub = new TransactionStreamHub(
+            transactionChangeStream, new TransactionStreamProperties(), new SimpleMeterRegistry());
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private ServiceMetrics serviceMetrics = new ServiceMetrics(meterRegistry);
+
+    @Spy
+    private List<TransactionListener> transactionListeners = new ArrayList<>();
+
+    @Spy
+    private RollingStatsProperties rollingStatsProperties = new RollingStatsProperties();
+
+    @Spy
+    private RollingStatsEngine rollingStatsEngine = new RollingStatsEngine(new RollingStatsProperties(), meterRegistry);
 
     @Test
-    void testGetAllTransactions_Success() {
+    void testGetTransactionsPage_FirstPage() {
         // Crear una lista de transacciones mockeadas
         Transaction transaction = new Transaction();
         transaction.setId(UUID.randomUUID());
         transaction.setAccountId(UUID.randomUUID());
         transaction.setNumberAccount("1234567890");
-        transaction.setAmount(500.0);
+        transaction.setAmount(500L);
         transaction.setType("DEPOSIT");
-        transaction.setCurrentBalance(1500.0);
-        transaction.setPreviousBalance(1000.0);
+        transaction.setCurrentBalance(1500L);
+        transaction.setPreviousBalance(1000L);
         transaction.setTransactionDate(LocalDateTime.now());
 
-        when(transactionReactiveRepository.findAll()).thenReturn(Flux.just(transaction));
+        when(transactionReactiveRepository.findAllBy(PageRequest.of(0, 1, Sort.by("transactionDate", "id"))))
+                .thenReturn(Flux.just(transaction));
 
-        Mono<TransactionResponseDTO> response = transactionService.getAllTransactions();
+        Mono<TransactionResponseDTO> response = transactionService.getTransactionsPage(null, 1);
 
         assertNotNull(response, "The response should not be null");
 
         StepVerifier.create(response)
-                .expectNextMatches(dto -> dto.getMessage().equals("Transactions found."))
+                .expectNextMatches(dto -> dto.getMessage().equals("Transactions found.")
+                        && ((CursorPageDTO<?>) dto.getData()).getNextCursor().equals(TransactionCursor.from(transaction).encode()))
+                .verifyComplete();
+
+        verify(transactionReactiveRepository, never()).findAll();
+    }
+
+    @Test
+    void testGetTransactionsPage_FromCursor() {
+        // El cursor se traduce a la consulta keyset (transactionDate, id)
+        LocalDateTime date = LocalDateTime.of(2025, 1, 16, 10, 0, 0);
+        UUID id = UUID.randomUUID();
+        String cursor = new TransactionCursor(date, id).encode();
+
+        when(transactionReactiveRepository.findAllAfter(eq(date), eq(id), any(Pageable.class))).thenReturn(Flux.empty());
+
+        StepVerifier.create(transactionService.getTransactionsPage(cursor, 50))
+                .expectNextMatches(dto -> dto.isSuccess() && ((CursorPageDTO<?>) dto.getData()).getNextCursor() == null)
+                .verifyComplete();
+
+        verify(transactionReactiveRepository, times(1)).findAllAfter(eq(date), eq(id), any(Pageable.class));
+    }
+
+    @Test
+    void testGetTransactionsPage_InvalidCursor() {
+        StepVerifier.create(transactionService.getTransactionsPage("garbage", 50))
+                .expectNextMatches(dto -> !dto.isSuccess() && dto.getMessage().equals("Invalid cursor."))
+                .verifyComplete();
+
+        verifyNoInteractions(transactionReactiveRepository);
+    }
+
+    @Test
+    void testGetHistory_FirstPageUsesUpperBoundAsPosition() {
+        // Arrange: Sin cursor, la posición inicial es el límite superior del rango
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 2, 1, 0, 0);
+        TransactionHistoryDTO item = new TransactionHistoryDTO(UUID.randomUUID(), "DEPOSIT", 50L, 100L, 150L,
+                LocalDateTime.of(2025, 1, 20, 9, 30), null);
+        when(transactionReactiveRepository.findHistory(eq("1234567890"), eq(from), eq(to), any(UUID.class), eq(PageRequest.of(0, 20))))
+                .thenReturn(Flux.just(item));
+
+        // Act & Assert: Cada elemento lleva el cursor para continuar tras él
+        StepVerifier.create(transactionService.getHistory("1234567890", from, to, null, 20, null))
+                .expectNextMatches(history -> history.getCursor().equals(new TransactionCursor(item.getTransactionDate(), item.getId()).encode()))
+                .verifyComplete();
+
+        verify(transactionReactiveRepository, never()).findHistoryByType(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testGetHistory_ContinuesAfterCursorWithType() {
+        // Arrange
+        LocalDateTime date = LocalDateTime.of(2025, 1, 16, 10, 0, 0);
+        UUID id = UUID.randomUUID();
+        String after = new TransactionCursor(date, id).encode();
+        when(transactionReactiveRepository.findHistoryByType(eq("1234567890"), any(LocalDateTime.class), eq(date), eq(id),
+                eq("WITHDRAWAL"), eq(PageRequest.of(0, 100))))
+                .thenReturn(Flux.empty());
+
+        // Act & Assert
+        StepVerifier.create(transactionService.getHistory("1234567890", null, null, "WITHDRAWAL", 100, after))
                 .verifyComplete();
+    }
 
-        verify(transactionReactiveRepository, times(1)).findAll();
+    @Test
+    void testGetHistory_InvalidArguments() {
+        StepVerifier.create(transactionService.getHistory("1234567890", null, null, null, 0, null))
+                .expectError(ResponseStatusException.class)
+                .verify();
+        StepVerifier.create(transactionService.getHistory("1234567890", null, null, null, 10, "garbage"))
+                .expectError(ResponseStatusException.class)
+                .verify();
+
+        verifyNoInteractions(transactionReactiveRepository);
     }
 
     @Test
@@ -63,21 +173,40 @@ class TransactionServiceImplTest {
         transaction.setId(UUID.randomUUID());
         transaction.setAccountId(UUID.randomUUID());
         transaction.setNumberAccount(accountNumber);
-        transaction.setAmount(500.0);
+        transaction.setAmount(500L);
         transaction.setType("DEPOSIT");
-        transaction.setCurrentBalance(1500.0);
-        transaction.setPreviousBalance(1000.0);
+        transaction.setCurrentBalance(1500L);
+        transaction.setPreviousBalance(1000L);
         transaction.setTransactionDate(LocalDateTime.now());
 
-        when(transactionReactiveRepository.findWithTailableCursorByNumberAccount(accountNumber)).thenReturn(Flux.just(transaction));
-
-        Flux<Transaction> response = transactionService.streamTransactions(accountNumber);
+        Flux<ServerSentEvent<Transaction>> response = transactionService.streamTransactions(accountNumber, null);
 
+        // Las inserciones de otras cuentas se filtran; el id del evento es el token de reanudación
         StepVerifier.create(response)
-                .expectNext(transaction)
-                .verifyComplete();
+                .then(() -> {
+                    transactionChangeStream.publish(transaction);
+                    transactionChangeStream.publish(new Transaction());
+                })
+                .expectNextMatches(event -> event.data() == transaction && "1".equals(event.id()))
+                .thenCancel()
+                .verify();
 
-        verify(transactionReactiveRepository, times(1)).findWithTailableCursorByNumberAccount(accountNumber);
+        verifyNoInteractions(transactionReactiveRepository);
+    }
+
+    @Test
+    void testStreamTransactions_ResumesAfterToken() {
+        Transaction first = new Transaction();
+        first.setNumberAccount("1234567890");
+        Transaction second = new Transaction();
+        second.setNumberAccount("1234567890");
+        transactionChangeStream.publish(first);
+        transactionChangeStream.publish(second);
+
+        StepVerifier.create(transactionService.streamTransactions("1234567890", "1"))
+                .expectNextMatches(event -> event.data() == second && "2".equals(event.id()))
+                .thenCancel()
+                .verify();
     }
 
     @Test
@@ -87,9 +216,9 @@ class TransactionServiceImplTest {
                 .accountId(UUID.randomUUID())
                 .numberAccount("1234567890")
                 .type("DEPOSIT")
-                .amount(500.0)
-                .previousBalance(1000.0)
-                .currentBalance(1500.0)
+                .amount(500L)
+                .previousBalance(1000L)
+                .currentBalance(1500L)
                 .build();
 
         Transaction savedTransaction = new Transaction();
@@ -115,7 +244,82 @@ class TransactionServiceImplTest {
 
         // Verificar que el repositorio haya sido llamado
         verify(transactionReactiveRepository, times(1)).save(any(Transaction.class));
+
+        // Verificar las métricas de la operación y del monto
+        assertEquals(1, meterRegistry.get("audit.transactions.operations").tags("operation", "create", "outcome", "success").timer().count());
+        assertEquals(500.0, meterRegistry.get("audit.transactions.amount").tag("type", "DEPOSIT").summary().totalAmount());
     }
 
+    @Test
+    void testCreateTransaction_NotifiesListenersAfterSave() {
+        // Arrange: Un listener registra lo que recibe
+        List<Transaction> notified = new ArrayList<>();
+        transactionListeners.add(transaction -> Mono.fromRunnable(() -> notified.add(transaction)));
+        when(transactionReactiveRepository.save(any(Transaction.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.<Transaction>getArgument(0)));
 
-}
\ No newline at end of file
+        // Act
+        StepVerifier.create(transactionService.createTransaction(TransactionRequestDTO.builder()
+                        .accountId(UUID.randomUUID())
+                        .numberAccount("1234567890")
+                        .type("DEPOSIT")
+                        .amount(500L)
+                        .previousBalance(1000L)
+                        .currentBalance(1500L)
+                        .build()))
+                .expectNextMatches(TransactionResponseDTO::isSuccess)
+                .verifyComplete();
+
+        // Assert
+        assertEquals(1, notified.size());
+        assertEquals(1500L, notified.get(0).getCurrentBalance());
+    }
+
+    @Test
+    void testInsertTransaction_NotifiesOnlyWhenPublished() {
+        // Arrange: Un listener registra lo que recibe
+        List<Transaction> notified = new ArrayList<>();
+        transactionListeners.add(transaction -> Mono.fromRunnable(() -> notified.add(transaction)));
+        when(transactionReactiveRepository.save(any(Transaction.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.<Transaction>getArgument(0)));
+
+        // Act: Guardar dentro de una transacción no avisa ni cuenta el monto
+        Transaction saved = transactionService.insertTransaction(TransactionRequestDTO.builder()
+                        .accountId(UUID.randomUUID())
+                        .numberAccount("1234567890")
+                        .type("DEPOSIT")
+                        .amount(500L)
+                        .previousBalance(1000L)
+                        .currentBalance(1500L)
+                        .build())
+                .block();
+        assertTrue(notified.isEmpty());
+        assertTrue(meterRegistry.find("audit.transactions.amount").summaries().isEmpty());
+
+        // Assert: Publicar tras el commit avisa y cuenta una sola vez
+        StepVerifier.create(transactionService.publishTransaction(saved)).verifyComplete();
+        assertEquals(List.of(saved), notified);
+        assertEquals(500.0, meterRegistry.get("audit.transactions.amount").tag("type", "DEPOSIT").summary().totalAmount());
+    }
+
+    @Test
+    void testStreamRollingStats_PublishesSnapshotsOnInterval() {
+        // Arrange
+        UUID accountId = UUID.randomUUID();
+        rollingStatsEngine.record(accountId, "DEPOSIT", 500L);
+
+        // Act & Assert: Un snapshot inmediato y otro por cada intervalo
+        StepVerifier.withVirtualTime(() -> transactionService.streamRollingStats(accountId).take(2))
+                .assertNext(event -> {
+                    assertEquals("stats", event.event());
+                    assertEquals(1, event.data().getDeposits());
+                })
+                .thenAwait(rollingStatsProperties.getPublishInterval())
+                .assertNext(event -> assertEquals(accountId, event.data().getAccountId()))
+                .verifyComplete();
+
+        StepVerifier.create(transactionService.getRollingStats(null))
+                .assertNext((RollingStatsDTO stats) -> assertEquals(500L, stats.getMaxAmount()))
+                .verifyComplete();
+    }
+}
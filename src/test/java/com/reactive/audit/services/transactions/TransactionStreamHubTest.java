@@ -0,0 +1,165 @@
+package com.reactive.audit.services.transactions;
+
+import com.reactive.audit.config.TransactionStreamProperties;
+import com.reactive.audit.model.Transaction;
+import com.reactive.audit.model.TransactionChangeEvent;
+import com.reactive.audit.repositories.InMemoryTransactionChangeStream;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionStreamHubTest {
+
+    private InMemoryTransactionChangeStream changeStream;
+    private TransactionStreamProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private TransactionStreamHub hub;
+
+    @BeforeEach
+    void setUp() {
+        changeStream = new InMemoryTransactionChangeStream();
+        properties = new TransactionStreamProperties();
+        properties.setGracePeriod(Duration.ofMillis(20));
+        meterRegistry = new SimpleMeterRegistry();
+        hub = new TransactionStreamHub(changeStream, properties, meterRegistry);
+    }
+
+    @Test
+    void testSubscribe_SharesOneUpstreamPerAccount() {
+        // Arrange: Tres dashboards observan la misma cuenta
+        List<TransactionChangeEvent> received = new CopyOnWriteArrayList<>();
+        Disposable first = hub.subscribe("1234567890", null).subscribe(received::add);
+        Disposable second = hub.subscribe("1234567890", null).subscribe(received::add);
+        Disposable third = hub.subscribe("1234567890", null).subscribe(received::add);
+
+        // Act
+        changeStream.publish(transaction("1234567890"));
+
+        // Assert: Un solo cursor aguas arriba y el evento llega a todos
+        assertEquals(1, changeStream.activeWatchers());
+        assertEquals(3, received.size());
+        assertEquals(1.0, meterRegistry.get("audit.streams.hubs").gauge().value());
+        assertEquals(3.0, meterRegistry.get("audit.streams.subscribers").gauge().value());
+
+        first.dispose();
+        second.dispose();
+        third.dispose();
+    }
+
+    @Test
+    void testSubscribe_DropsUpstreamAfterLastSubscriberLeaves() {
+        // Arrange
+        Disposable subscriber = hub.subscribe("1234567890", null).subscribe();
+        assertEquals(1, changeStream.activeWatchers());
+
+        // Act: El último suscriptor se va
+        subscriber.dispose();
+
+        // Assert: Tras el periodo de gracia se cierra el cursor y se elimina el hub
+        awaitUntil(() -> changeStream.activeWatchers() == 0);
+        awaitUntil(() -> meterRegistry.get("audit.streams.hubs").gauge().value() == 0.0);
+        assertEquals(0.0, meterRegistry.get("audit.streams.subscribers").gauge().value());
+    }
+
+    @Test
+    void testSubscribe_ReconnectWithinGracePeriodReusesUpstream() {
+        // Arrange: Un periodo de gracia largo
+        properties.setGracePeriod(Duration.ofSeconds(30));
+        hub.subscribe("1234567890", null).subscribe().dispose();
+
+        // Act: Un nuevo suscriptor llega antes de que venza la gracia
+        Disposable subscriber = hub.subscribe("1234567890", null).subscribe();
+
+        // Assert
+        assertEquals(1, changeStream.activeWatchers());
+        subscriber.dispose();
+    }
+
+    @Test
+    void testSubscribe_LateSubscriptionAfterHubReleasedKeepsOneUpstream() {
+        // Arrange: El flujo se construye mientras el hub existe, pero se suscribe después de liberarlo
+        hub.subscribe("1234567890", null).subscribe().dispose();
+        Flux<TransactionChangeEvent> builtEarly = hub.subscribe("1234567890", null);
+        awaitUntil(() -> meterRegistry.get("audit.streams.hubs").gauge().value() == 0.0);
+
+        // Act
+        Disposable late = builtEarly.subscribe();
+        Disposable next = hub.subscribe("1234567890", null).subscribe();
+
+        // Assert: Ambos comparten un único cursor aguas arriba
+        assertEquals(1, changeStream.activeWatchers());
+        assertEquals(1.0, meterRegistry.get("audit.streams.hubs").gauge().value());
+        late.dispose();
+        next.dispose();
+    }
+
+    @Test
+    void testSubscribe_SlowConsumerOverflowIsBounded() {
+        // Arrange: Búfer de 2 por suscriptor conservando los eventos más recientes
+        properties.setSubscriberBufferSize(2);
+        properties.setOverflowStrategy(BufferOverflowStrategy.DROP_OLDEST);
+        List<TransactionChangeEvent> fastReceived = new CopyOnWriteArrayList<>();
+        Disposable fast = hub.subscribe("1234567890", null).subscribe(fastReceived::add);
+
+        // Act & Assert: El consumidor lento no pide nada mientras llegan 10 eventos
+        StepVerifier.create(hub.subscribe("1234567890", null), 0)
+                .then(() -> {
+                    for (int i = 0; i < 10; i++) {
+                        changeStream.publish(transaction("1234567890"));
+                    }
+                })
+                .then(() -> assertEquals(2.0, meterRegistry.get("audit.streams.buffered").gauge().value()))
+                .thenRequest(10)
+                .assertNext(event -> assertEquals("9", event.getResumeToken()))
+                .assertNext(event -> assertEquals("10", event.getResumeToken()))
+                .thenCancel()
+                .verify();
+
+        // El consumidor rápido no se ve frenado por el lento
+        assertEquals(10, fastReceived.size());
+        assertEquals(8.0, meterRegistry.get("audit.streams.events.dropped").counter().count());
+        assertEquals(0.0, meterRegistry.get("audit.streams.buffered").gauge().value());
+        fast.dispose();
+    }
+
+    @Test
+    void testSubscribe_ResumeTokenBypassesSharedHub() {
+        // Arrange
+        changeStream.publish(transaction("1234567890"));
+        changeStream.publish(transaction("1234567890"));
+
+        // Act & Assert: La reanudación reproduce solo lo pendiente para ese suscriptor
+        StepVerifier.create(hub.subscribe("1234567890", "1"))
+                .assertNext(event -> assertEquals("2", event.getResumeToken()))
+                .thenCancel()
+                .verify();
+        assertEquals(0.0, meterRegistry.get("audit.streams.hubs").gauge().value());
+    }
+
+    private static Transaction transaction(String numberAccount) {
+        Transaction transaction = new Transaction();
+        transaction.setNumberAccount(numberAccount);
+        return transaction;
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not met in time");
+            }
+            Thread.onSpinWait();
+        }
+    }
+}